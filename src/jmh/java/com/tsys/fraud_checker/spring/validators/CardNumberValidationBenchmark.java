@@ -0,0 +1,81 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CardNumbers;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.validator.constraints.CreditCardNumber;
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.LuhnCheck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating a card number with @Length, @CreditCardNumber and
+ * @LuhnCheck, as CreditCard.number was, against @CardNumber, for a valid
+ * and an invalid number.  The scan alone is the cost of @CardNumber
+ * without the Hibernate Validator around it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardNumberValidationBenchmark {
+
+    @Param({"4485-2847-2013-4093", "1234 5678 9012 3456"})
+    public String number;
+
+    private Validator validator;
+    private ThreeAnnotations threeAnnotations;
+    private SingleAnnotation singleAnnotation;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        threeAnnotations = new ThreeAnnotations(number);
+        singleAnnotation = new SingleAnnotation(number);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ThreeAnnotations>> threeAnnotations() {
+        return validator.validate(threeAnnotations);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<SingleAnnotation>> cardNumber() {
+        return validator.validate(singleAnnotation);
+    }
+
+    @Benchmark
+    public int scan() {
+        return CardNumbers.scan(number);
+    }
+
+    public static class ThreeAnnotations {
+        @Length(min = 16, max = 19)
+        @CreditCardNumber(ignoreNonDigitCharacters = true, message = "Invalid Credit Card Number")
+        @LuhnCheck(message = "Failed Luhn check!")
+        public final String number;
+
+        ThreeAnnotations(String number) {
+            this.number = number;
+        }
+    }
+
+    public static class SingleAnnotation {
+        @CardNumber(min = 16, max = 19, message = "Invalid Credit Card Number", luhnMessage = "Failed Luhn check!")
+        public final String number;
+
+        SingleAnnotation(String number) {
+            this.number = number;
+        }
+    }
+}
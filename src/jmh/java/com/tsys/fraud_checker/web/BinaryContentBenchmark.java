@@ -0,0 +1,92 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and serializing a /check payload, and serializing a degraded
+ * Fraud Status, in JSON against CBOR and Smile, all with the streaming
+ * FraudCheckJsonCodec as the converters do.  The bytes on the wire of
+ * each format are printed when the benchmark is set up.  Run with the gc
+ * profiler to compare the bytes allocated per body (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinaryContentBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private final OutputStream body = OutputStream.nullOutputStream();
+
+    private FraudCheckJsonCodec codec;
+    private FraudCheckPayload payload;
+    private byte[] encodedPayload;
+    private FraudStatus degraded;
+
+    @Setup
+    public void setUp() throws IOException {
+        final JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        // As Spring Boot configures it, see BinaryContentConfiguration
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        codec = new FraudCheckJsonCodec(objectMapper);
+        payload = new FraudCheckPayload(
+                new CreditCard("4485-2847-2013-4093", "Jumping Jack", "Bank of America", new Date(1601773226874L), 123),
+                Money.of(Currency.getInstance("INR"), new BigDecimal("1235.45")));
+        final var out = new ByteArrayOutputStream();
+        codec.writePayload(payload, out);
+        encodedPayload = out.toByteArray();
+        degraded = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+        final var status = new ByteArrayOutputStream();
+        codec.writeFraudStatus(FraudStatus.of(0, 1, false), status);
+        System.out.printf("%n%s: payload %d bytes, fraud status %d bytes on the wire%n", format, encodedPayload.length, status.size());
+    }
+
+    @Benchmark
+    public FraudCheckPayload parsePayload() throws IOException {
+        return codec.readPayload(new ByteArrayInputStream(encodedPayload));
+    }
+
+    @Benchmark
+    public void serializePayload() throws IOException {
+        codec.writePayload(payload, body);
+    }
+
+    @Benchmark
+    public void serializeDegradedStatus() throws IOException {
+        codec.writeFraudStatus(degraded, body);
+    }
+}
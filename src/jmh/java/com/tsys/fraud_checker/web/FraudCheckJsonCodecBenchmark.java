@@ -0,0 +1,88 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a /check request body and writing a degraded Fraud Status:
+ * Jackson data binding, as the Jackson converter does, against the
+ * streaming FraudCheckJsonCodec.  Both use an ObjectMapper configured as
+ * Spring Boot configures it.  Run with the gc profiler to compare the
+ * bytes allocated per body (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FraudCheckJsonCodecBenchmark {
+
+    private static final byte[] PAYLOAD = ("{\n" +
+            "    \"creditCard\" : {\n" +
+            "        \"number\" : \"4485-2847-2013-4093\",\n" +
+            "        \"holderName\" : \"Jumping Jack\",\n" +
+            "        \"issuingBank\" : \"Bank of America\",\n" +
+            "        \"validUntil\" : \"2020-10-04T01:00:26.874+00:00\",\n" +
+            "        \"cvv\" : 123\n" +
+            "    },\n" +
+            "    \"charge\" : {\n" +
+            "        \"currency\" : \"INR\",\n" +
+            "        \"amount\" : 1235.45\n" +
+            "    }\n" +
+            "}").getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream body = OutputStream.nullOutputStream();
+
+    private ObjectReader payloadReader;
+    private ObjectWriter fraudStatusWriter;
+    private FraudCheckJsonCodec codec;
+    private FraudStatus degraded;
+
+    @Setup
+    public void setUp() {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        payloadReader = objectMapper.readerFor(FraudCheckPayload.class);
+        fraudStatusWriter = objectMapper.writerFor(FraudStatus.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        codec = new FraudCheckJsonCodec(objectMapper);
+        degraded = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+    }
+
+    @Benchmark
+    public FraudCheckPayload jacksonBoundPayload() throws IOException {
+        return payloadReader.readValue(new ByteArrayInputStream(PAYLOAD));
+    }
+
+    @Benchmark
+    public FraudCheckPayload streamedPayload() throws IOException {
+        return codec.readPayload(new ByteArrayInputStream(PAYLOAD));
+    }
+
+    @Benchmark
+    public void jacksonSerializedDegradedStatus() throws IOException {
+        fraudStatusWriter.writeValue(body, degraded);
+    }
+
+    @Benchmark
+    public void streamedDegradedStatus() throws IOException {
+        codec.writeFraudStatus(degraded, body);
+    }
+}
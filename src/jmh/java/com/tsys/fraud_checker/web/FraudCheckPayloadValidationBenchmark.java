@@ -0,0 +1,64 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request validation of a /check payload, as Spring MVC does when
+ * binding it: with Hibernate Validator, as before, against the
+ * FraudCheckPayloadValidator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FraudCheckPayloadValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String payloadKind;
+
+    private Validator hibernateValidator;
+    private Validator precompiledValidator;
+    private FraudCheckPayload payload;
+
+    @Setup
+    public void setUp() {
+        hibernateValidator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+        precompiledValidator = new FraudCheckPayloadValidator();
+        final Date validUntil = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+        final CreditCard card = "valid".equals(payloadKind)
+                ? new CreditCard("4485-2847-2013-4093", "Card Holder", "Bank", validUntil, 123)
+                : new CreditCard("1234 5678 9012 3456", "", "Bank", validUntil, 12);
+        payload = new FraudCheckPayload(card, new Money(Currency.getInstance("INR"), 1234.56));
+    }
+
+    @Benchmark
+    public BindingResult hibernateValidator() {
+        final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+        hibernateValidator.validate(payload, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public BindingResult precompiledValidator() {
+        final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+        precompiledValidator.validate(payload, errors);
+        return errors;
+    }
+}
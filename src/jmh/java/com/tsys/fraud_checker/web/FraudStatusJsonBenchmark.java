@@ -0,0 +1,67 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the Fraud Status of a /check response: serializing it with
+ * Jackson on every response, as the Jackson converter does, against
+ * writing its pre-encoded JSON.  Run with the gc profiler to compare the
+ * bytes allocated per response (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FraudStatusJsonBenchmark {
+
+    private final OutputStream body = OutputStream.nullOutputStream();
+    private final HttpHeaders headers = new HttpHeaders();
+    private final HttpOutputMessage outputMessage = new HttpOutputMessage() {
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    };
+
+    private ObjectWriter jackson;
+    private FraudStatusMessageConverter converter;
+    private FraudStatus fraudStatus;
+
+    @Setup
+    public void setUp() {
+        final var objectMapper = new ObjectMapper();
+        jackson = objectMapper.writerFor(FraudStatus.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        converter = new FraudStatusMessageConverter(objectMapper);
+        fraudStatus = FraudStatus.of(0, 1, false);
+    }
+
+    @Benchmark
+    public void jacksonSerialized() throws IOException {
+        jackson.writeValue(body, fraudStatus);
+    }
+
+    @Benchmark
+    public void preEncoded() throws IOException {
+        converter.writeInternal(fraudStatus, outputMessage);
+    }
+}
@@ -0,0 +1,112 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answering a card-testing mix of /check payloads, 9 in 10 of them
+ * invalid: throwing a MethodArgumentNotValidException for the
+ * GlobalExceptionAdvice to answer, as before, against answering from the
+ * BindingResult without throwing.
+ * <p>
+ * The exception is thrown from stackDepth frames down, as it is from
+ * deep inside the servlet stack, since capturing the stack trace is most
+ * of its cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InvalidPayloadMixBenchmark {
+
+    @Param({"0", "100"})
+    public int stackDepth;
+
+    private final FraudCheckPayloadValidator validator = new FraudCheckPayloadValidator();
+    private final GlobalExceptionAdvice advice = new GlobalExceptionAdvice();
+    private MethodParameter payloadParameter;
+    private FraudCheckPayload[] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        payloadParameter = new MethodParameter(FraudCheckerController.class.getMethod("checkFraud",
+                FraudCheckPayload.class, BindingResult.class, Long.class), 0);
+        final Date validUntil = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+        final Money charge = new Money(Currency.getInstance("INR"), 1234.56);
+        payloads = new FraudCheckPayload[]{
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Card Holder", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4094", "Card Holder", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4095", "Card Holder", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("1234 5678 9012 3456", "Card Holder", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("4992 7398 716", "Card Holder", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Card Holder", "Bank", validUntil, 12), charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "", "Bank", validUntil, 123), charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Card Holder", "Bank", null, 123), charge),
+                new FraudCheckPayload(null, charge),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Card Holder", "Bank", validUntil, 123), null)
+        };
+    }
+
+    @Benchmark
+    public ValidationErrorsResponse throwing() {
+        final BindingResult errors = validated(nextPayload());
+        if (!errors.hasErrors())
+            return null;
+
+        try {
+            throwFrom(stackDepth, errors);
+            return null;
+        } catch (MethodArgumentNotValidException e) {
+            return advice.onMethodArgumentNotValidException(e);
+        }
+    }
+
+    @Benchmark
+    public ValidationErrorsResponse exceptionFree() {
+        final BindingResult errors = validated(nextPayload());
+        if (!errors.hasErrors())
+            return null;
+
+        return ValidationErrorsResponse.from(errors);
+    }
+
+    private FraudCheckPayload nextPayload() {
+        final FraudCheckPayload payload = payloads[next];
+        next = (next + 1) % payloads.length;
+        return payload;
+    }
+
+    private BindingResult validated(FraudCheckPayload payload) {
+        final var errors = new DirectFieldBindingResult(payload, FraudCheckPayloadValidator.OBJECT_NAME);
+        validator.validate(payload, errors);
+        return errors;
+    }
+
+    // Not inlined, so that the JIT cannot turn the throw into a jump
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private void throwFrom(int depth, BindingResult errors) throws MethodArgumentNotValidException {
+        if (depth > 0)
+            throwFrom(depth - 1, errors);
+        else
+            throw new MethodArgumentNotValidException(payloadParameter, errors);
+    }
+}
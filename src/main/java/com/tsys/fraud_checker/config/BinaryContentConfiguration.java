@@ -0,0 +1,85 @@
+package com.tsys.fraud_checker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tsys.fraud_checker.web.FraudCheckPayloadMessageConverter;
+import com.tsys.fraud_checker.web.FraudCheckerController;
+import com.tsys.fraud_checker.web.FraudStatusMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile, besides JSON, for the gateway to send FraudCheckPayloads
+ * without the cost of parsing JSON text.  The content is negotiated by the
+ * Content-Type and Accept headers, so JSON clients are unaffected.
+ * <p>
+ * The ObjectMappers of the binary formats are built by Spring Boot's
+ * Jackson2ObjectMapperBuilder, as the JSON one is, so spring.jackson.*
+ * applies to them as well and their fields and dates are the same.  They
+ * are not beans, as a second ObjectMapper bean would have Spring Boot back
+ * off from the JSON one.
+ * <p>
+ * FraudCheckPayloads and Fraud Statuses are read and written by the same
+ * streaming codec as for JSON, anything else, like the validation errors,
+ * by Jackson.  These converters replace the ones Spring MVC adds for CBOR
+ * and Smile on its own, with ObjectMappers that ignore spring.jackson.*.
+ */
+@Configuration
+public class BinaryContentConfiguration {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(FraudCheckerController.APPLICATION_SMILE_VALUE);
+
+    private final ObjectMapper cborObjectMapper;
+    private final ObjectMapper smileObjectMapper;
+
+    // The builder is a prototype, hence one for each format
+    @Autowired
+    public BinaryContentConfiguration(Jackson2ObjectMapperBuilder cborObjectMapperBuilder,
+                                      Jackson2ObjectMapperBuilder smileObjectMapperBuilder) {
+        this.cborObjectMapper = cborObjectMapperBuilder.factory(new CBORFactory()).build();
+        this.smileObjectMapper = smileObjectMapperBuilder.factory(new SmileFactory()).build();
+    }
+
+    // @Order(1) puts the converters of the binary formats after the JSON
+    // ones, see FraudStatusMessageConverter
+    @Bean
+    @Order(1)
+    public FraudCheckPayloadMessageConverter cborFraudCheckPayloadMessageConverter() {
+        return new FraudCheckPayloadMessageConverter(cborObjectMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    @Order(1)
+    public FraudCheckPayloadMessageConverter smileFraudCheckPayloadMessageConverter() {
+        return new FraudCheckPayloadMessageConverter(smileObjectMapper, APPLICATION_SMILE);
+    }
+
+    @Bean
+    @Order(1)
+    public FraudStatusMessageConverter cborFraudStatusMessageConverter() {
+        return new FraudStatusMessageConverter(cborObjectMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    @Order(1)
+    public FraudStatusMessageConverter smileFraudStatusMessageConverter() {
+        return new FraudStatusMessageConverter(smileObjectMapper, APPLICATION_SMILE);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper);
+    }
+}
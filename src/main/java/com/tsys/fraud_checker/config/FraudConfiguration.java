@@ -3,13 +3,26 @@ package com.tsys.fraud_checker.config;
 import com.tsys.fraud_checker.services.*;
 import org.springframework.aop.framework.ProxyFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -26,6 +39,91 @@ public class FraudConfiguration {
         return new Random(4864325435L);
     }
 
+    // Dedicated and bounded, so that the issuer verifications cannot grow
+    // without limit under load.  Once all the threads are busy and the
+    // queue is full, further verifications are rejected.
+    //
+    // With spring.threads.virtual.enabled, Tomcat serves the requests on
+    // virtual threads and each issuer verification gets a virtual thread
+    // of its own.  A virtual thread parked in Thread.sleep does not hold
+    // on to a carrier (platform) thread, so there is no pool to bound and
+    // the concurrency is limited only by the connector's max-connections.
+    @Bean(name = "issuerVerificationExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService issuerVerificationExecutor() {
+        if (isVirtualThreadsEnabled()) {
+            LOG.info("Issuer Verification Executor on Virtual Threads");
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("issuer-verification-", 0).factory());
+        }
+        final int threads = env.getProperty("fraud.verification.executor.threads", Integer.class, 64);
+        final int queueCapacity = env.getProperty("fraud.verification.executor.queue-capacity", Integer.class, 1024);
+        LOG.info(() -> String.format("Issuer Verification Executor with %d threads and queue capacity of %d", threads, queueCapacity));
+        final var executor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("issuer-verification-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Banks listed in fraud.verification.bulkhead.lanes (as
+    // "bank:max-concurrent" pairs) get a lane of their own, with as many
+    // threads and a queue of fraud.verification.bulkhead.queue-capacity.
+    // All the other banks share the issuerVerificationExecutor as the
+    // overflow lane.
+    @Bean(destroyMethod = "shutdown")
+    public IssuerBulkheads issuerBulkheads(@Qualifier("issuerVerificationExecutor") ExecutorService issuerVerificationExecutor) {
+        final int queueCapacity = env.getProperty("fraud.verification.bulkhead.queue-capacity", Integer.class, 64);
+        final Map<String, IssuerBulkheads.Lane> bankLanes = new LinkedHashMap<>();
+        for (String lane : env.getProperty("fraud.verification.bulkhead.lanes", String[].class, new String[0])) {
+            final int separatorAt = lane.lastIndexOf(':');
+            if (separatorAt <= 0)
+                throw new IllegalArgumentException(String.format("Bulkhead lane must be bank:max-concurrent, got %s", lane));
+
+            final String bank = lane.substring(0, separatorAt).trim();
+            final int maxConcurrent = Integer.parseInt(lane.substring(separatorAt + 1).trim());
+            LOG.info(() -> String.format("Issuer Verification Lane for %s with %d threads and queue capacity of %d", bank, maxConcurrent, queueCapacity));
+            bankLanes.put(bank, new IssuerBulkheads.Lane(bank, laneExecutor(bank, maxConcurrent, queueCapacity), maxConcurrent));
+        }
+        final int overflowConcurrency = isVirtualThreadsEnabled() ? -1
+                : env.getProperty("fraud.verification.executor.threads", Integer.class, 64);
+        return new IssuerBulkheads(bankLanes,
+                new IssuerBulkheads.Lane(IssuerBulkheads.OVERFLOW_LANE, issuerVerificationExecutor, overflowConcurrency));
+    }
+
+    private ExecutorService laneExecutor(String bank, int maxConcurrent, int queueCapacity) {
+        final String threadNamePrefix = String.format("issuer-verification-%s-", bank.replaceAll("\\W+", "-").toLowerCase());
+        final ThreadFactory threadFactory = isVirtualThreadsEnabled()
+                ? Thread.ofVirtual().name(threadNamePrefix, 0).factory()
+                : new CustomizableThreadFactory(threadNamePrefix);
+        final var executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Work-stealing, with as many workers as the parallelism, for checking
+    // the items of a batch in parallel.
+    @Bean(name = "batchVerificationPool", destroyMethod = "shutdownNow")
+    public ForkJoinPool batchVerificationPool() {
+        final int parallelism = env.getProperty("fraud.check.batch.parallelism", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        LOG.info(() -> String.format("Batch Verification Pool with parallelism of %d", parallelism));
+        return new ForkJoinPool(parallelism);
+    }
+
+    // Only schedules the hedges of slow issuer verifications, the hedges
+    // themselves run on the issuer verification executor.
+    @Bean(name = "hedgingScheduler", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService hedgingScheduler() {
+        final var scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("issuer-hedging-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
     @Bean("verificationService")
     public VerificationService verificationService(DefaultVerificationService defaultVerificationService,
                                                    @Nullable VerificationServiceRouter router,
@@ -40,6 +138,10 @@ public class FraudConfiguration {
         return defaultVerificationService;
     }
 
+    private boolean isVirtualThreadsEnabled() {
+        return env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+    }
+
     private boolean isDevelopmentProfile() {
         return Stream.of(env.getActiveProfiles())
                 .anyMatch(profile -> profile.equalsIgnoreCase("development"));
@@ -0,0 +1,50 @@
+package com.tsys.fraud_checker.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.logging.Logger;
+
+/**
+ * With server.http2.enabled, Spring Boot has Tomcat speak HTTP/2 besides
+ * HTTP/1.1 on server.port - h2c (by upgrade or prior knowledge) in
+ * cleartext, and h2 (negotiated by ALPN) when server.ssl is configured.
+ * Many concurrent checks then share a connection, instead of each
+ * holding a connection of its own while it waits on the issuers.
+ * <p>
+ * Tomcat executes at most 20 streams of a connection at a time by
+ * default, and queues the rest, which would have the checks on a
+ * connection wait behind each other again.  The stream limits are
+ * hence tunable, fraud.http2.max-concurrent-streams is what the server
+ * advertises (SETTINGS_MAX_CONCURRENT_STREAMS), and
+ * fraud.http2.max-concurrent-stream-execution is how many of them are
+ * executed at a time.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class Http2Configuration {
+    private static final Logger LOG = Logger.getLogger(Http2Configuration.class.getName());
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2StreamLimits(
+            @Value("${fraud.http2.max-concurrent-streams:200}") long maxConcurrentStreams,
+            @Value("${fraud.http2.max-concurrent-stream-execution:200}") int maxConcurrentStreamExecution) {
+        // Connector customizers run after Spring Boot adds the Http2Protocol
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreamExecution);
+                    LOG.info(() -> String.format("HTTP/2 enabled with %d concurrent streams, %d executed at a time",
+                            maxConcurrentStreams, maxConcurrentStreamExecution));
+                }
+            }
+        });
+    }
+}
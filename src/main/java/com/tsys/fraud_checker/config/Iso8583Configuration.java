@@ -0,0 +1,42 @@
+package com.tsys.fraud_checker.config;
+
+import com.tsys.fraud_checker.iso8583.Iso8583FraudCheckHandler;
+import com.tsys.fraud_checker.iso8583.Iso8583Listener;
+import com.tsys.fraud_checker.services.VerificationService;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+
+/**
+ * Payment switches send ISO 8583 authorization requests over TCP rather
+ * than JSON over HTTP.  The ISO 8583 listener serves them alongside
+ * Tomcat, listening on fraud.iso8583.port, and checks them with the same
+ * VerificationService as /check.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fraud.iso8583.enabled", havingValue = "true")
+public class Iso8583Configuration {
+
+    @Autowired
+    private Environment env;
+
+    @Bean
+    public Iso8583FraudCheckHandler iso8583FraudCheckHandler(VerificationService verificationService,
+                                                             Validator validator) {
+        final long timeoutMillis = env.getProperty("fraud.iso8583.timeout-millis", Long.class, 10000L);
+        return new Iso8583FraudCheckHandler(verificationService, validator, timeoutMillis);
+    }
+
+    @Bean(destroyMethod = "close")
+    public Iso8583Listener iso8583Listener(Iso8583FraudCheckHandler iso8583FraudCheckHandler) throws IOException {
+        final int port = env.getProperty("fraud.iso8583.port", Integer.class, 8583);
+        final int maxFrameLength = env.getProperty("fraud.iso8583.max-frame-length", Integer.class, 8192);
+        final int maxInFlight = env.getProperty("fraud.iso8583.max-in-flight", Integer.class, 256);
+        return new Iso8583Listener(iso8583FraudCheckHandler, port, maxFrameLength, maxInFlight);
+    }
+}
@@ -0,0 +1,85 @@
+package com.tsys.fraud_checker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.web.reactive.ReactiveFraudCheckHandler;
+import com.tsys.fraud_checker.web.reactive.WebSocketFraudCheckHandler;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.util.logging.Logger;
+
+/**
+ * The application runs Spring MVC on Tomcat.  The reactive fraud check
+ * (/reactive/check) and the WebSocket check channel (/reactive/check/ws)
+ * are served alongside by a Reactor Netty server of its own, listening on
+ * fraud.reactive.server.port, with a fixed number of event-loop threads.
+ * <p>
+ * It uses the same ObjectMapper as Spring MVC, so that the JSON on the
+ * wire is the same on both the servers.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fraud.reactive.server.enabled", havingValue = "true")
+public class ReactiveServerConfiguration {
+    private static final Logger LOG = Logger.getLogger(ReactiveServerConfiguration.class.getName());
+
+    @Autowired
+    private Environment env;
+
+    @Bean
+    public ReactiveFraudCheckHandler reactiveFraudCheckHandler(ReactiveVerificationService reactiveVerificationService,
+                                                               Validator validator) {
+        return new ReactiveFraudCheckHandler(reactiveVerificationService, validator);
+    }
+
+    @Bean
+    public WebSocketFraudCheckHandler webSocketFraudCheckHandler(ReactiveVerificationService reactiveVerificationService,
+                                                                 Validator validator,
+                                                                 ObjectMapper objectMapper) {
+        final int maxInFlight = env.getProperty("fraud.reactive.websocket.max-in-flight", Integer.class, 256);
+        final long timeoutMillis = env.getProperty("fraud.check.async.timeout-millis", Long.class, 10000L);
+        return new WebSocketFraudCheckHandler(reactiveVerificationService, validator, objectMapper, maxInFlight, timeoutMillis);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources reactiveServerLoopResources() {
+        final int eventLoopThreads = env.getProperty("fraud.reactive.server.event-loop-threads", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        return LoopResources.create("fraud-reactive", eventLoopThreads, true);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveServer(ReactiveFraudCheckHandler reactiveFraudCheckHandler,
+                                           WebSocketFraudCheckHandler webSocketFraudCheckHandler,
+                                           LoopResources reactiveServerLoopResources,
+                                           ObjectMapper objectMapper) {
+        final int port = env.getProperty("fraud.reactive.server.port", Integer.class, 9002);
+        final var handlerStrategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                })
+                .build();
+        final var httpHandler = RouterFunctions.toHttpHandler(
+                reactiveFraudCheckHandler.routes().and(webSocketFraudCheckHandler.routes()), handlerStrategies);
+        final DisposableServer server = HttpServer.create()
+                .port(port)
+                .runOn(reactiveServerLoopResources)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        LOG.info(() -> String.format("Reactive Fraud Check Server listening on port %d", server.port()));
+        return server;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tsys.fraud_checker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.uds.UnixSocketFraudCheckServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A payment gateway running in the same pod checks over a Unix domain
+ * socket, at fraud.uds.path, rather than through the loopback TCP stack
+ * to server.port.  It uses the same ObjectMapper as Spring MVC, so that
+ * the JSON is the same as that of /check.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fraud.uds.enabled", havingValue = "true")
+public class UnixSocketConfiguration {
+
+    @Autowired
+    private Environment env;
+
+    @Bean(destroyMethod = "close")
+    public UnixSocketFraudCheckServer unixSocketFraudCheckServer(VerificationService verificationService,
+                                                                 ObjectMapper objectMapper) throws IOException {
+        final Path path = Path.of(env.getProperty("fraud.uds.path", "/tmp/fraud-checker.sock"));
+        final int maxFrameLength = env.getProperty("fraud.uds.max-frame-length", Integer.class, 8192);
+        final int maxInFlight = env.getProperty("fraud.uds.max-in-flight", Integer.class, 256);
+        final long timeoutMillis = env.getProperty("fraud.uds.timeout-millis", Long.class, 10000L);
+        return new UnixSocketFraudCheckServer(verificationService, objectMapper, path, maxFrameLength, maxInFlight, timeoutMillis);
+    }
+}
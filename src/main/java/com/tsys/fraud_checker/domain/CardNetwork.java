@@ -0,0 +1,59 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * The card network, told by the leading digits of the card number and
+ * its number of digits.
+ */
+public enum CardNetwork {
+    VISA("visa"),
+    MASTERCARD("mastercard"),
+    AMEX("amex"),
+    DISCOVER("discover"),
+    DINERS("diners"),
+    JCB("jcb"),
+    UNKNOWN("unknown");
+
+    public final String key;
+
+    CardNetwork(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Network of a card number of the given digits, starting with the
+     * six digits of its prefix.
+     */
+    static CardNetwork of(int prefix, int digits) {
+        // No network issues numbers shorter than 13 digits
+        if (digits < 13)
+            return UNKNOWN;
+
+        final int p1 = prefix / 100000;
+        final int p2 = prefix / 10000;
+        final int p3 = prefix / 1000;
+        final int p4 = prefix / 100;
+
+        if (p1 == 4)
+            return digits == 13 || digits == 16 || digits == 19 ? VISA : UNKNOWN;
+
+        if ((p2 >= 51 && p2 <= 55) || (p4 >= 2221 && p4 <= 2720))
+            return digits == 16 ? MASTERCARD : UNKNOWN;
+
+        if (p2 == 34 || p2 == 37)
+            return digits == 15 ? AMEX : UNKNOWN;
+
+        if (p4 == 6011 || p2 == 65 || (p3 >= 644 && p3 <= 649) || (prefix >= 622126 && prefix <= 622925))
+            return digits >= 16 ? DISCOVER : UNKNOWN;
+
+        if (p4 >= 3528 && p4 <= 3589)
+            return digits >= 16 ? JCB : UNKNOWN;
+
+        if (p4 == 2131 || p4 == 1800)
+            return digits == 15 ? JCB : UNKNOWN;
+
+        if ((p3 >= 300 && p3 <= 305) || p4 == 3095 || p2 == 36 || p2 == 38)
+            return digits >= 14 ? DINERS : UNKNOWN;
+
+        return UNKNOWN;
+    }
+}
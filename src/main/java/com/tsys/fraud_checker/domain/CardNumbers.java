@@ -0,0 +1,68 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * Single pass over a card number, skipping non-digit characters like
+ * SPACE or a dash '-', that counts its digits, runs the Luhn checksum
+ * and tells its network, without allocating.
+ * <p>
+ * The outcome of a scan is packed into an int, to be read with
+ * {@link #digitsOf(int)}, {@link #isLuhnValid(int)} and
+ * {@link #networkOf(int)}.
+ */
+public final class CardNumbers {
+
+    private static final int DIGITS_MASK = 0xFFFF;
+    private static final int LUHN_VALID = 1 << 16;
+    private static final int NETWORK_SHIFT = 20;
+    private static final CardNetwork[] NETWORKS = CardNetwork.values();
+
+    private CardNumbers() { }
+
+    public static int scan(CharSequence number) {
+        int digits = 0;
+        int prefix = 0;
+        // Luhn sums of the digits when doubling those at even and at odd
+        // positions from the left, the rightmost digit tells which applies
+        int evenDoubled = 0;
+        int oddDoubled = 0;
+        boolean endsWithDigit = false;
+        for (int i = 0; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            endsWithDigit = c >= '0' && c <= '9';
+            if (!endsWithDigit)
+                continue;
+
+            final int digit = c - '0';
+            final int doubled = digit < 5 ? digit * 2 : digit * 2 - 9;
+            if ((digits & 1) == 0) {
+                evenDoubled += doubled;
+                oddDoubled += digit;
+            } else {
+                evenDoubled += digit;
+                oddDoubled += doubled;
+            }
+            if (digits < 6)
+                prefix = prefix * 10 + digit;
+            if (digits < DIGITS_MASK)
+                digits++;
+        }
+
+        // As @LuhnCheck, a number must end with its check digit
+        final int sum = (digits & 1) == 0 ? evenDoubled : oddDoubled;
+        final boolean luhnValid = endsWithDigit && sum % 10 == 0;
+        final CardNetwork network = CardNetwork.of(prefix, digits);
+        return digits | (luhnValid ? LUHN_VALID : 0) | network.ordinal() << NETWORK_SHIFT;
+    }
+
+    public static int digitsOf(int scan) {
+        return scan & DIGITS_MASK;
+    }
+
+    public static boolean isLuhnValid(int scan) {
+        return (scan & LUHN_VALID) != 0;
+    }
+
+    public static CardNetwork networkOf(int scan) {
+        return NETWORKS[scan >>> NETWORK_SHIFT];
+    }
+}
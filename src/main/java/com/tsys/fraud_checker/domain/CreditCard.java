@@ -1,11 +1,9 @@
 package com.tsys.fraud_checker.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tsys.fraud_checker.spring.validators.CardNumber;
 import com.tsys.fraud_checker.spring.validators.NumberOfDigits;
 import io.swagger.v3.oas.annotations.media.Schema;
-import org.hibernate.validator.constraints.CreditCardNumber;
-import org.hibernate.validator.constraints.Length;
-import org.hibernate.validator.constraints.LuhnCheck;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,18 +12,20 @@ import java.util.Objects;
 
 public class CreditCard {
 
+    // Of the number as given, separators included
+    private static final int MIN_NUMBER_LENGTH = 16;
+    private static final int MAX_NUMBER_LENGTH = 19;
+
     @Schema(
             description = "Card Number - Must be between 16 and 19 digits.  It can contain non-digit characters like SPACE or a dash '-'",
             name = "number",
             implementation = String.class,
             required = true,
-            minLength = 16,
-            maxLength = 19,
+            minLength = MIN_NUMBER_LENGTH,
+            maxLength = MAX_NUMBER_LENGTH,
             example = "4485-2847-2013-4093")
     @NotBlank(message = "Card number is required")
-    @Length(min = 16, max = 19)
-    @CreditCardNumber(ignoreNonDigitCharacters = true, message = "Invalid Credit Card Number")
-    @LuhnCheck(message = "Failed Luhn check!")
+    @CardNumber(min = MIN_NUMBER_LENGTH, max = MAX_NUMBER_LENGTH, message = "Invalid Credit Card Number", luhnMessage = "Failed Luhn check!")
     public final String number;
 
     @Schema(
@@ -99,6 +99,25 @@ public class CreditCard {
         return now.after(validUntil);
     }
 
+    // Length and Luhn check of the number, the same as @CardNumber, but
+    // usable without the validator, for example, when the issuing bank
+    // cannot be reached.
+    @JsonIgnore
+    public boolean hasValidNumber() {
+        if (number == null)
+            return false;
+
+        return number.length() >= MIN_NUMBER_LENGTH && number.length() <= MAX_NUMBER_LENGTH
+                && CardNumbers.isLuhnValid(CardNumbers.scan(number));
+    }
+
+    // The network the card number belongs to, for rules that differ by
+    // network.
+    @JsonIgnore
+    public CardNetwork network() {
+        return number == null ? CardNetwork.UNKNOWN : CardNumbers.networkOf(CardNumbers.scan(number));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
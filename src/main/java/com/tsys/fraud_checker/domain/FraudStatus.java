@@ -37,8 +37,15 @@ package com.tsys.fraud_checker.domain;
 // to the fingerprints of people, that helps identify fraudulent
 // patterns and assess risk if any.
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class FraudStatus {
 
     public static final String PASS = "pass";
@@ -46,11 +53,13 @@ public class FraudStatus {
     public static final String SUSPICIOUS = "suspicious";
 
     public static final String ADDRESS_VERIFICATION_IA = "incorrect address";
+    // For a verification that could not be completed in time
+    public static final String UNVERIFIED = "unverified";
 
     @Schema(
         description = "CVV Status the Card - pass or fail",
         implementation = String.class,
-        pattern = "pass|fail",
+        pattern = "pass|fail|unverified",
         required = true,
         example = "pass")
     public final String cvvStatus;
@@ -58,7 +67,7 @@ public class FraudStatus {
     @Schema(
         description = "Address Verification Status the Card - pass or incorrect address",
         implementation = String.class,
-        pattern = "pass|incorrect address",
+        pattern = "pass|incorrect address|unverified",
         required = true,
         example = "incorrect address")
     public final String avStatus;
@@ -70,25 +79,96 @@ public class FraudStatus {
         required = true,
         example = "suspicious")
     public final String overall;
-    private String[] cvvStatuses = new String[]{PASS, FAIL};
-    private String[] avStatuses = new String[]{PASS, ADDRESS_VERIFICATION_IA};
 
-    public FraudStatus(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
-        this.cvvStatus = cvvStatuses[cvvStatusCode];
-        this.avStatus = avStatuses[avStatusCode];
-        this.overall = computeOverallStatus(cvvStatus, avStatus, hasCardExpired);
+    @Schema(
+        description = "Why the Fraud Status is degraded, present only when it was not decided by the issuing bank's verifications",
+        implementation = String.class,
+        example = "CVV verification exceeded its latency budget")
+    public final String reason;
+
+    // UTF-8 JSON of a canonical Fraud Status, null for a degraded one
+    private final byte[] json;
+
+    private static final String[] CVV_STATUSES = new String[]{PASS, FAIL};
+    private static final String[] AV_STATUSES = new String[]{PASS, ADDRESS_VERIFICATION_IA};
+
+    // The verifications can only answer with one of these, indexed by
+    // cvv status code, av status code and whether the card has expired.
+    private static final FraudStatus[] CANONICAL = new FraudStatus[8];
+    static {
+        for (int cvvStatusCode = 0; cvvStatusCode < 2; cvvStatusCode++)
+            for (int avStatusCode = 0; avStatusCode < 2; avStatusCode++)
+                for (int expired = 0; expired < 2; expired++)
+                    CANONICAL[indexOf(cvvStatusCode, avStatusCode, expired == 1)] =
+                            new FraudStatus(cvvStatusCode, avStatusCode, expired == 1);
+    }
+
+    private FraudStatus(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
+        this.cvvStatus = CVV_STATUSES[cvvStatusCode];
+        this.avStatus = AV_STATUSES[avStatusCode];
+        this.overall = computeOverallStatus(cvvStatusCode, avStatusCode, hasCardExpired);
+        this.reason = null;
+        this.json = String.format("{\"cvvStatus\":\"%s\",\"avStatus\":\"%s\",\"overall\":\"%s\"}", cvvStatus, avStatus, overall)
+                .getBytes(StandardCharsets.UTF_8);
     }
 
-    private String computeOverallStatus(String cvvStatus, String avStatus, boolean hasCardExpired) {
-        if (hasCardExpired || cvvStatus.equals(FAIL))
+    private FraudStatus(String cvvStatus, String avStatus, String overall, String reason) {
+        this.cvvStatus = cvvStatus;
+        this.avStatus = avStatus;
+        this.overall = overall;
+        this.reason = reason;
+        this.json = null;
+    }
+
+    /**
+     * The canonical Fraud Status for the verification outcomes, shared by
+     * all the checks with those outcomes.
+     */
+    public static FraudStatus of(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
+        if (((cvvStatusCode | avStatusCode) & ~1) != 0)
+            throw new IllegalArgumentException(String.format("Status codes must be 0 or 1, got cvv %d and av %d", cvvStatusCode, avStatusCode));
+
+        return CANONICAL[indexOf(cvvStatusCode, avStatusCode, hasCardExpired)];
+    }
+
+    private static int indexOf(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
+        return cvvStatusCode << 2 | avStatusCode << 1 | (hasCardExpired ? 1 : 0);
+    }
+
+    /**
+     * For a check answered before all its verifications completed, with
+     * an overall status decided by policy and not by the verifications.
+     */
+    public static FraudStatus degraded(String cvvStatus, String avStatus, String overall, String reason) {
+        return new FraudStatus(cvvStatus, avStatus, overall, reason);
+    }
+
+    private static String computeOverallStatus(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
+        if (hasCardExpired || cvvStatusCode == 1)
             return FAIL;
 
-        if (avStatus.equals(ADDRESS_VERIFICATION_IA) && cvvStatus.equals(PASS))
+        if (avStatusCode == 1)
             return SUSPICIOUS;
 
         return PASS;
     }
 
+    /**
+     * Length of the pre-encoded JSON, or -1 for a degraded Fraud Status,
+     * which has none.
+     */
+    public int jsonLength() {
+        return json == null ? -1 : json.length;
+    }
+
+    // Writes the pre-encoded JSON, without allocating
+    public void writeJsonTo(OutputStream out) throws IOException {
+        if (json == null)
+            throw new IllegalStateException("A degraded Fraud Status has no pre-encoded JSON");
+
+        out.write(json);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -105,7 +185,10 @@ public class FraudStatus {
         if (!avStatus.equals(that.avStatus))
             return false;
 
-        return overall.equals(that.overall);
+        if (!overall.equals(that.overall))
+            return false;
+
+        return Objects.equals(reason, that.reason);
     }
 
     @Override
@@ -113,6 +196,7 @@ public class FraudStatus {
         int result = cvvStatus.hashCode();
         result = 31 * result + avStatus.hashCode();
         result = 31 * result + overall.hashCode();
+        result = 31 * result + Objects.hashCode(reason);
         return result;
     }
 
@@ -122,6 +206,7 @@ public class FraudStatus {
                 "cvvStatus='" + cvvStatus + '\'' +
                 ", avStatus='" + avStatus + '\'' +
                 ", overall='" + overall + '\'' +
+                (reason == null ? "" : ", reason='" + reason + '\'') +
                 '}';
     }
 }
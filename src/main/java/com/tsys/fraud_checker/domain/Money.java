@@ -1,10 +1,135 @@
 package com.tsys.fraud_checker.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
 import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * An amount in a currency, held as a long count of the currency's minor
+ * units (paise for INR, cents for USD) and the index of the currency,
+ * so that arithmetic and comparisons are exact and nothing is boxed.
+ * <p>
+ * An amount with more decimal places than its currency has is held
+ * exactly, in units of its last decimal place, and is never rounded.
+ * It is not a valid charge though, which the @AssertTrue constraint
+ * reports, and it has no count of minor units.  In JSON, the amount is
+ * still a decimal number of major units, 1234.56.
+ * <p>
+ * The currency or the amount may be absent, for a charge that was not
+ * completely given, which the @NotNull constraints report.
+ */
 public class Money {
+
+    private static final int NO_CURRENCY = -1;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    // Currency metadata, looked up once and indexed by currency index
+    private static final Currency[] CURRENCIES;
+    private static final String[] SYMBOLS;
+    private static final int[] FRACTION_DIGITS;
+    private static final Map<Currency, Integer> INDEXES = new HashMap<>();
+    static {
+        CURRENCIES = Currency.getAvailableCurrencies().stream()
+                .sorted(Comparator.comparing(Currency::getCurrencyCode))
+                .toArray(Currency[]::new);
+        SYMBOLS = new String[CURRENCIES.length];
+        FRACTION_DIGITS = new int[CURRENCIES.length];
+        for (int index = 0; index < CURRENCIES.length; index++) {
+            SYMBOLS[index] = CURRENCIES[index].getSymbol();
+            // Pseudo-currencies like XAU have no minor unit
+            FRACTION_DIGITS[index] = Math.max(0, CURRENCIES[index].getDefaultFractionDigits());
+            INDEXES.put(CURRENCIES[index], index);
+        }
+    }
+
+    private final int currencyIndex;
+    // In units of the scale'th decimal place, which is the currency's
+    // minor unit unless the amount has more decimal places than that
+    private final long units;
+    private final int scale;
+
+    public Money(Currency currency, Double amount) {
+        this(currency, amount == null ? null : BigDecimal.valueOf(amount));
+    }
+
+    private Money(Currency currency, BigDecimal amount) {
+        this.currencyIndex = indexOf(currency);
+        if (amount == null) {
+            this.units = NO_AMOUNT;
+            this.scale = fractionDigitsOf(currencyIndex);
+        } else {
+            final BigDecimal exact = exactlyOf(amount, currencyIndex);
+            this.units = unitsOf(exact);
+            this.scale = exact.scale();
+        }
+    }
+
+    private Money(int currencyIndex, long units, int scale) {
+        this.currencyIndex = currencyIndex;
+        this.units = units;
+        this.scale = scale;
+    }
+
+    @JsonCreator
+    public static Money of(@JsonProperty("currency") Currency currency,
+                           @JsonProperty("amount") BigDecimal amount) {
+        return new Money(currency, amount);
+    }
+
+    public static Money ofMinorUnits(Currency currency, long minorUnits) {
+        if (currency == null)
+            throw new IllegalArgumentException("Currency is required for an amount in minor units");
+        if (minorUnits == NO_AMOUNT)
+            throw new IllegalArgumentException(String.format("%d minor units are out of range", minorUnits));
+
+        final int currencyIndex = indexOf(currency);
+        return new Money(currencyIndex, minorUnits, fractionDigitsOf(currencyIndex));
+    }
+
+    private static int indexOf(Currency currency) {
+        if (currency == null)
+            return NO_CURRENCY;
+
+        final Integer index = INDEXES.get(currency);
+        if (index == null)
+            throw new IllegalArgumentException(String.format("Unknown currency %s", currency));
+
+        return index;
+    }
+
+    private static int fractionDigitsOf(int currencyIndex) {
+        return currencyIndex == NO_CURRENCY ? 2 : FRACTION_DIGITS[currencyIndex];
+    }
+
+    // In minor units, or else in units of its last non-zero decimal place
+    private static BigDecimal exactlyOf(BigDecimal amount, int currencyIndex) {
+        final int fractionDigits = fractionDigitsOf(currencyIndex);
+        final BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= fractionDigits ? stripped.setScale(fractionDigits, RoundingMode.UNNECESSARY) : stripped;
+    }
+
+    private static long unitsOf(BigDecimal exact) {
+        try {
+            final long units = exact.unscaledValue().longValueExact();
+            if (units == NO_AMOUNT)
+                throw new ArithmeticException("Overflow");
+
+            return units;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("Amount %s is out of range", exact.toPlainString()), e);
+        }
+    }
+
     //  The @Parameter annotation is for the parameters of an API resource request,
     //  whereas @Schema is for properties of the model.
     @Schema(
@@ -14,7 +139,9 @@ public class Money {
             required = true,
             example = "INR")
     @NotNull(message = "is required!")
-    public final Currency currency;
+    public Currency getCurrency() {
+        return currencyIndex == NO_CURRENCY ? null : CURRENCIES[currencyIndex];
+    }
 
     @Schema(
             description = "Amount of the transaction",
@@ -23,28 +150,127 @@ public class Money {
             required = true,
             example = "1234.56")
     @NotNull(message = "is required!")
-    public final Double amount;
+    public BigDecimal getAmount() {
+        if (units == NO_AMOUNT)
+            return null;
 
-    @Deprecated
-    public Money() {
-        this(null, null);
+        return BigDecimal.valueOf(units, scale);
     }
 
-    public Money(Currency currency, Double amount) {
-        this.currency = currency;
-        this.amount = amount;
+    // A charge cannot be less than the currency's minor unit, so an
+    // amount with more decimal places than its currency is rejected,
+    // rather than rounded to one that was not asked for.  A missing
+    // amount is reported by @NotNull instead.
+    @JsonIgnore
+    @Schema(hidden = true)
+    @AssertTrue(message = "has more decimal places than its currency!")
+    public boolean isAmountInMinorUnits() {
+        return units == NO_AMOUNT || scale == fractionDigitsOf(currencyIndex);
+    }
+
+    public boolean hasCurrency() {
+        return currencyIndex != NO_CURRENCY;
+    }
+
+    public boolean hasAmount() {
+        return units != NO_AMOUNT;
+    }
+
+    // Count of the currency's minor units, for an amount that is present
+    // and has no more decimal places than its currency
+    public long minorUnits() {
+        requireComplete();
+        if (!isAmountInMinorUnits())
+            throw new IllegalStateException(String.format("Amount %s has more decimal places than its currency", getAmount().toPlainString()));
+
+        return units;
     }
 
     public Money add(Money other) {
-        if (currency != other.currency)
-            throw new IllegalArgumentException("For addition the currencies must be same!");
+        requireSameCurrency(other, "addition");
+        try {
+            final int sumScale = Math.max(scale, other.scale);
+            final long sum = Math.addExact(unitsAt(sumScale), other.unitsAt(sumScale));
+            if (sum == NO_AMOUNT)
+                throw new ArithmeticException("Overflow");
 
-        return new Money(currency, amount + other.amount);
+            return normalised(currencyIndex, sum, sumScale);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Sum of the amounts is out of range", e);
+        }
     }
 
+    /**
+     * Compares the amounts of the same currency exactly, for thresholds.
+     */
+    public int compareTo(Money other) {
+        requireSameCurrency(other, "comparison");
+        if (scale == other.scale)
+            return Long.compare(units, other.units);
+
+        return getAmount().compareTo(other.getAmount());
+    }
+
+    // The units at a scale no less than this one's
+    private long unitsAt(int toScale) {
+        long scaled = units;
+        for (int place = scale; place < toScale; place++)
+            scaled = Math.multiplyExact(scaled, 10L);
+        return scaled;
+    }
+
+    // As exactlyOf, drops the trailing zeros beyond the currency's minor
+    // unit, so that equal amounts are held alike
+    private static Money normalised(int currencyIndex, long units, int scale) {
+        final int fractionDigits = fractionDigitsOf(currencyIndex);
+        while (scale > fractionDigits && units % 10 == 0) {
+            units /= 10;
+            scale--;
+        }
+        return new Money(currencyIndex, units, scale);
+    }
+
+    private void requireSameCurrency(Money other, String operation) {
+        requireComplete();
+        other.requireComplete();
+        if (currencyIndex != other.currencyIndex)
+            throw new IllegalArgumentException(String.format("For %s the currencies must be same!", operation));
+    }
+
+    private void requireComplete() {
+        if (currencyIndex == NO_CURRENCY || units == NO_AMOUNT)
+            throw new IllegalStateException("Money without a currency or an amount");
+    }
+
+    // Written digit by digit, as this is logged for every check.  An
+    // amount with more decimal places than its currency is shown rounded
+    // to the minor unit.
     @Override
     public String toString() {
-        return String.format("%s %.2f", currency.getSymbol(), amount);
+        final StringBuilder text = new StringBuilder(24);
+        text.append(currencyIndex == NO_CURRENCY ? "?" : SYMBOLS[currencyIndex]).append(' ');
+        if (units == NO_AMOUNT)
+            return text.append('?').toString();
+
+        final int fractionDigits = fractionDigitsOf(currencyIndex);
+        final long minorUnits = isAmountInMinorUnits()
+                ? units
+                : getAmount().setScale(fractionDigits, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+        if (minorUnits < 0)
+            text.append('-');
+        final String digits = Long.toString(Math.abs(minorUnits));
+        final int integerDigits = digits.length() - fractionDigits;
+        if (integerDigits <= 0) {
+            text.append('0');
+            if (fractionDigits > 0)
+                text.append('.');
+            text.append("0".repeat(-integerDigits)).append(digits);
+        } else {
+            text.append(digits, 0, integerDigits);
+            if (fractionDigits > 0)
+                text.append('.').append(digits, integerDigits, digits.length());
+        }
+        return text.toString();
     }
 
     @Override
@@ -59,15 +285,17 @@ public class Money {
             return true;
 
         Money that = (Money) other;
-        return currency.equals(that.currency)
-                && amount.equals(that.amount);
+        return currencyIndex == that.currencyIndex
+                && units == that.units
+                && scale == that.scale;
     }
 
     @Override
     public int hashCode() {
         int hash = 3;
-        hash = 97 * hash + currency.hashCode();
-        hash = 97 * hash + amount.hashCode();
+        hash = 97 * hash + currencyIndex;
+        hash = 97 * hash + Long.hashCode(units);
+        hash = 97 * hash + scale;
         return hash;
     }
-}
\ No newline at end of file
+}
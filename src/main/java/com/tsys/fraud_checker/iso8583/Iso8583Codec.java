@@ -0,0 +1,197 @@
+package com.tsys.fraud_checker.iso8583;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes and decodes ISO 8583 (1987) messages as the switch sends them:
+ * the MTI in ASCII, the primary and, when a field above 64 is present,
+ * the secondary bitmap in binary, then the fields in ASCII, variable
+ * length ones prefixed with their length as 2 (LLVAR) or 3 (LLLVAR)
+ * digits.  The length prefix of the frame itself is the listener's.
+ * <p>
+ * A field has to be known to be decoded, as its length is known only
+ * from its format.  The fields a switch commonly sends are, any other
+ * fails the message with an Iso8583FormatException.  Text is ISO-8859-1,
+ * one byte a char, so the lengths in chars are the lengths in bytes and
+ * binary fields go through unchanged.
+ */
+public final class Iso8583Codec {
+
+    private enum Length { FIXED, LLVAR, LLLVAR }
+
+    private record Format(Length length, int maxLength, boolean numeric) {}
+
+    private static final Format[] FORMATS = new Format[Iso8583Message.MAX_FIELD + 1];
+
+    static {
+        llvar(2, 19, true);
+        fixed(3, 6, true);
+        fixed(4, 12, true);
+        fixed(5, 12, true);
+        fixed(6, 12, true);
+        fixed(7, 10, true);
+        fixed(9, 8, true);
+        fixed(10, 8, true);
+        fixed(11, 6, true);
+        fixed(12, 6, true);
+        fixed(13, 4, true);
+        fixed(14, 4, true);
+        fixed(15, 4, true);
+        fixed(18, 4, true);
+        fixed(19, 3, true);
+        fixed(22, 3, true);
+        fixed(23, 3, true);
+        fixed(25, 2, true);
+        fixed(26, 2, true);
+        fixed(28, 9, false);
+        llvar(32, 11, true);
+        llvar(33, 11, true);
+        llvar(35, 37, false);
+        fixed(37, 12, false);
+        fixed(38, 6, false);
+        fixed(39, 2, false);
+        fixed(41, 8, false);
+        fixed(42, 15, false);
+        fixed(43, 40, false);
+        llvar(44, 25, false);
+        llvar(45, 76, false);
+        lllvar(48, 999, false);
+        fixed(49, 3, true);
+        fixed(50, 3, true);
+        fixed(51, 3, true);
+        fixed(52, 8, false);
+        fixed(53, 16, true);
+        lllvar(54, 120, false);
+        lllvar(55, 999, false);
+        for (int field = 60; field <= 63; field++)
+            lllvar(field, 999, false);
+        fixed(64, 8, false);
+        fixed(70, 3, true);
+        fixed(90, 42, true);
+        fixed(95, 42, false);
+        llvar(100, 11, true);
+        llvar(102, 28, false);
+        llvar(103, 28, false);
+        for (int field = 120; field <= 127; field++)
+            lllvar(field, 999, false);
+        fixed(128, 8, false);
+    }
+
+    private Iso8583Codec() {}
+
+    private static void fixed(int field, int length, boolean numeric) {
+        FORMATS[field] = new Format(Length.FIXED, length, numeric);
+    }
+
+    private static void llvar(int field, int maxLength, boolean numeric) {
+        FORMATS[field] = new Format(Length.LLVAR, maxLength, numeric);
+    }
+
+    private static void lllvar(int field, int maxLength, boolean numeric) {
+        FORMATS[field] = new Format(Length.LLLVAR, maxLength, numeric);
+    }
+
+    /**
+     * Decodes the remaining bytes of the frame as one message.
+     */
+    public static Iso8583Message decode(ByteBuffer frame) {
+        try {
+            final var message = new Iso8583Message(text(frame, 4));
+            final long primaryBitmap = frame.getLong();
+            // Bit 1, the most significant, flags the secondary bitmap
+            final long secondaryBitmap = primaryBitmap < 0 ? frame.getLong() : 0L;
+            for (int field = 2; field <= Iso8583Message.MAX_FIELD; field++) {
+                final long bitmap = field <= 64 ? primaryBitmap : secondaryBitmap;
+                if ((bitmap << ((field - 1) % 64)) >= 0)
+                    continue;
+
+                final Format format = formatOf(field);
+                final int length = switch (format.length) {
+                    case FIXED -> format.maxLength;
+                    case LLVAR -> lengthPrefix(frame, 2, field, format);
+                    case LLLVAR -> lengthPrefix(frame, 3, field, format);
+                };
+                final String value = text(frame, length);
+                if (format.numeric && !Iso8583Message.isDigits(value))
+                    throw new Iso8583FormatException(String.format("Field %d must be numeric", field));
+
+                message.with(field, value);
+            }
+            if (frame.hasRemaining())
+                throw new Iso8583FormatException(String.format("%d bytes after the last field", frame.remaining()));
+
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new Iso8583FormatException("Message ends before its last field");
+        }
+    }
+
+    public static byte[] encode(Iso8583Message message) {
+        final boolean hasSecondaryBitmap = message.hasFieldAbove64();
+        long primaryBitmap = hasSecondaryBitmap ? Long.MIN_VALUE : 0L;
+        long secondaryBitmap = 0L;
+        final var out = new ByteArrayOutputStream(256);
+        write(out, message.mti);
+        // Room for the bitmaps, filled in once the fields are written
+        out.writeBytes(new byte[hasSecondaryBitmap ? 16 : 8]);
+        for (int field = 2; field <= Iso8583Message.MAX_FIELD; field++) {
+            final String value = message.get(field);
+            if (value == null)
+                continue;
+
+            final Format format = formatOf(field);
+            if (format.length == Length.FIXED ? value.length() != format.maxLength : value.length() > format.maxLength)
+                throw new Iso8583FormatException(String.format("Field %d must be %s %d long, got %d",
+                        field, format.length == Length.FIXED ? "exactly" : "at most", format.maxLength, value.length()));
+
+            if (format.length == Length.LLVAR)
+                write(out, String.format("%02d", value.length()));
+            else if (format.length == Length.LLLVAR)
+                write(out, String.format("%03d", value.length()));
+            write(out, value);
+            if (field <= 64)
+                primaryBitmap |= Long.MIN_VALUE >>> (field - 1);
+            else
+                secondaryBitmap |= Long.MIN_VALUE >>> (field - 65);
+        }
+        final byte[] encoded = out.toByteArray();
+        final ByteBuffer bitmaps = ByteBuffer.wrap(encoded, 4, hasSecondaryBitmap ? 16 : 8);
+        bitmaps.putLong(primaryBitmap);
+        if (hasSecondaryBitmap)
+            bitmaps.putLong(secondaryBitmap);
+        return encoded;
+    }
+
+    private static Format formatOf(int field) {
+        final Format format = FORMATS[field];
+        if (format == null)
+            throw new Iso8583FormatException(String.format("Field %d is not supported", field));
+
+        return format;
+    }
+
+    private static int lengthPrefix(ByteBuffer frame, int digits, int field, Format format) {
+        final String prefix = text(frame, digits);
+        if (!Iso8583Message.isDigits(prefix))
+            throw new Iso8583FormatException(String.format("Length of field %d must be %d digits, got %s", field, digits, prefix));
+
+        final int length = Integer.parseInt(prefix);
+        if (length > format.maxLength)
+            throw new Iso8583FormatException(String.format("Field %d must be at most %d long, got %d", field, format.maxLength, length));
+
+        return length;
+    }
+
+    private static String text(ByteBuffer frame, int length) {
+        final byte[] bytes = new byte[length];
+        frame.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
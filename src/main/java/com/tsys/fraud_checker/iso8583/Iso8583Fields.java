@@ -0,0 +1,45 @@
+package com.tsys.fraud_checker.iso8583;
+
+/**
+ * The data elements of the authorization messages that the Fraud Checker
+ * reads and writes.  Fields 120 to 124 are for private use in ISO 8583,
+ * the switch and the Fraud Checker agree on them as below.
+ */
+public final class Iso8583Fields {
+
+    public static final int PAN = 2;
+    public static final int PROCESSING_CODE = 3;
+    // In the minor units of the currency
+    public static final int AMOUNT = 4;
+    public static final int TRANSMISSION_DATE_TIME = 7;
+    // System Trace Audit Number, unique among the messages in flight on a
+    // connection, it correlates a response with its request.
+    public static final int STAN = 11;
+    public static final int LOCAL_TIME = 12;
+    public static final int LOCAL_DATE = 13;
+    // YYMM, the card is valid until the end of the month
+    public static final int EXPIRY_DATE = 14;
+    public static final int ACQUIRER_ID = 32;
+    public static final int RETRIEVAL_REFERENCE = 37;
+    public static final int RESPONSE_CODE = 39;
+    public static final int TERMINAL_ID = 41;
+    public static final int MERCHANT_ID = 42;
+    // The ISO 4217 numeric code, for example, 356 for INR
+    public static final int CURRENCY_CODE = 49;
+
+    // Private use
+    public static final int HOLDER_NAME = 120;
+    public static final int ISSUING_BANK = 121;
+    public static final int CVV = 122;
+    // The Fraud Status, as cvvStatus=pass;avStatus=incorrect address;overall=suspicious
+    // with ;reason=... when degraded, or the validation errors as
+    // errors=creditCard.cvv: must have 3 digits, ...
+    public static final int FRAUD_CHECK_RESULT = 124;
+
+    private Iso8583Fields() {}
+
+    // Card data that must not be logged
+    public static boolean isSensitive(int field) {
+        return field == PAN || field == 35 || field == 45 || field == 52 || field == 55 || field == CVV;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tsys.fraud_checker.iso8583;
+
+/**
+ * A message that does not conform to the ISO 8583 formats this listener
+ * understands, see {@link Iso8583Codec}.
+ */
+public class Iso8583FormatException extends IllegalArgumentException {
+    public Iso8583FormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,198 @@
+package com.tsys.fraud_checker.iso8583;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import jakarta.validation.Validator;
+
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static com.tsys.fraud_checker.iso8583.Iso8583Fields.*;
+
+/**
+ * Checks an authorization (0100) or financial (0200) request for fraud,
+ * as /check does a FraudCheckPayload, and answers it with a 0110 or 0210.
+ * <p>
+ * The PAN, amount, currency and expiry date come from their standard
+ * fields, the holder name, issuing bank and CVV from the private fields
+ * (see {@link Iso8583Fields}).  The response echoes the fields that
+ * identify the transaction, and carries the outcome in field 39, the
+ * response code, and the Fraud Status in private field 124:
+ * <pre>
+ *   00 - pass
+ *   05 - fail (do not honour)
+ *   59 - suspicious (suspected fraud)
+ *   30 - format error, a field is missing or not valid
+ *   12 - not an authorization or financial request
+ *   94 - duplicate transmission, the STAN is already in flight
+ *   96 - system malfunction, the Fraud Status could not be determined
+ * </pre>
+ */
+public class Iso8583FraudCheckHandler {
+
+    private static final Logger LOG = Logger.getLogger(Iso8583FraudCheckHandler.class.getName());
+
+    public static final String APPROVED = "00";
+    public static final String DO_NOT_HONOUR = "05";
+    public static final String INVALID_TRANSACTION = "12";
+    public static final String FORMAT_ERROR = "30";
+    public static final String SUSPECTED_FRAUD = "59";
+    public static final String DUPLICATE_TRANSMISSION = "94";
+    public static final String SYSTEM_MALFUNCTION = "96";
+
+    private static final int[] ECHOED_FIELDS = {
+            PAN, PROCESSING_CODE, AMOUNT, TRANSMISSION_DATE_TIME, STAN, LOCAL_TIME, LOCAL_DATE,
+            ACQUIRER_ID, RETRIEVAL_REFERENCE, TERMINAL_ID, MERCHANT_ID, CURRENCY_CODE
+    };
+
+    // ISO 4217 numeric codes, Currency looks currencies up only by their
+    // alphabetic codes.
+    private static final Map<String, Currency> CURRENCIES = new HashMap<>();
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies())
+            if (currency.getNumericCode() > 0)
+                CURRENCIES.putIfAbsent(currency.getNumericCodeAsString(), currency);
+    }
+
+    private final VerificationService verificationService;
+    private final Validator validator;
+    private final long timeoutMillis;
+
+    public Iso8583FraudCheckHandler(VerificationService verificationService, Validator validator, long timeoutMillis) {
+        this.verificationService = verificationService;
+        this.validator = validator;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static boolean isFraudCheckRequest(Iso8583Message message) {
+        return "0100".equals(message.mti) || "0200".equals(message.mti);
+    }
+
+    /**
+     * The response to the request, once its Fraud Status is determined.
+     * The future always completes normally, a failed verification is
+     * answered with a 96.
+     */
+    public CompletableFuture<Iso8583Message> check(Iso8583Message request) {
+        if (!isFraudCheckRequest(request))
+            return CompletableFuture.completedFuture(respond(request, INVALID_TRANSACTION, null));
+
+        final var errors = new ValidationErrorsResponse();
+        final var payload = new FraudCheckPayload(creditCardOf(request, errors), moneyOf(request, errors));
+        if (errors.validationErrors.isEmpty())
+            validator.validate(payload).forEach(violation ->
+                    errors.add(new ValidationError(violation.getPropertyPath().toString(), violation.getMessage())));
+        if (!errors.validationErrors.isEmpty())
+            return CompletableFuture.completedFuture(respond(request, FORMAT_ERROR, errorsOf(errors)));
+
+        // Validated above, so the service need not validate it again
+        return verificationService
+                .verifyValidatedAsync(ValidatedTransaction.alreadyValidated(payload.creditCard, payload.charge), Deadline.none())
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((fraudStatus, e) -> {
+                    if (e != null) {
+                        LOG.warning(() -> String.format("{ 'iso8583' : 'Fraud Status of %s could not be determined: %s'}", request, e));
+                        return respond(request, SYSTEM_MALFUNCTION, null);
+                    }
+                    return respond(request, responseCodeOf(fraudStatus), resultOf(fraudStatus));
+                });
+    }
+
+    /**
+     * The response to the request with only the response code and result,
+     * if any, besides the echoed fields.
+     */
+    public static Iso8583Message respond(Iso8583Message request, String responseCode, String result) {
+        final var response = new Iso8583Message(request.responseMti());
+        for (int field : ECHOED_FIELDS)
+            if (request.has(field))
+                response.with(field, request.get(field));
+        response.with(RESPONSE_CODE, responseCode);
+        if (result != null)
+            response.with(FRAUD_CHECK_RESULT, result.length() > 999 ? result.substring(0, 999) : result);
+        return response;
+    }
+
+    // Fields that cannot be mapped are reported as errors, missing ones
+    // are left null for the validation to report, as for a JSON payload.
+    private static CreditCard creditCardOf(Iso8583Message request, ValidationErrorsResponse errors) {
+        Date validUntil = null;
+        final String expiry = request.get(EXPIRY_DATE);
+        if (expiry != null) {
+            try {
+                validUntil = Date.from(YearMonth.of(2000 + Integer.parseInt(expiry.substring(0, 2)), Integer.parseInt(expiry.substring(2)))
+                        .atEndOfMonth()
+                        .atTime(LocalTime.MAX)
+                        .toInstant(ZoneOffset.UTC));
+            } catch (DateTimeException e) {
+                errors.add(new ValidationError("creditCard.validUntil", String.format("Field %d is not a valid YYMM: %s", EXPIRY_DATE, expiry)));
+            }
+        }
+        Integer cvv = null;
+        final String cvvField = request.get(CVV);
+        if (cvvField != null) {
+            if (cvvField.isEmpty() || cvvField.length() > 9 || !Iso8583Message.isDigits(cvvField))
+                errors.add(new ValidationError("creditCard.cvv", String.format("Field %d must be numeric", CVV)));
+            else
+                cvv = Integer.valueOf(cvvField);
+        }
+        return new CreditCard(request.get(PAN), request.get(HOLDER_NAME), request.get(ISSUING_BANK), validUntil, cvv);
+    }
+
+    private static Money moneyOf(Iso8583Message request, ValidationErrorsResponse errors) {
+        final String currencyCode = request.get(CURRENCY_CODE);
+        final Currency currency = currencyCode == null ? null : CURRENCIES.get(currencyCode);
+        if (currencyCode != null && currency == null)
+            errors.add(new ValidationError("charge.currency", String.format("Field %d is not an ISO 4217 currency: %s", CURRENCY_CODE, currencyCode)));
+
+        // The amount is in the currency's minor units, so it cannot be
+        // read without the currency
+        final String amount = request.get(AMOUNT);
+        if (currency == null || amount == null)
+            return new Money(currency, null);
+
+        return Money.ofMinorUnits(currency, Long.parseLong(amount));
+    }
+
+    private static String responseCodeOf(FraudStatus fraudStatus) {
+        return switch (fraudStatus.overall) {
+            case FraudStatus.PASS -> APPROVED;
+            case FraudStatus.FAIL -> DO_NOT_HONOUR;
+            default -> SUSPECTED_FRAUD;
+        };
+    }
+
+    static String resultOf(FraudStatus fraudStatus) {
+        final var result = new StringBuilder()
+                .append("cvvStatus=").append(fraudStatus.cvvStatus)
+                .append(";avStatus=").append(fraudStatus.avStatus)
+                .append(";overall=").append(fraudStatus.overall);
+        if (fraudStatus.reason != null)
+            result.append(";reason=").append(fraudStatus.reason);
+        return result.toString();
+    }
+
+    private static String errorsOf(ValidationErrorsResponse errors) {
+        return errors.validationErrors.stream()
+                .map(error -> error.fieldName + ": " + error.message)
+                .collect(Collectors.joining(", ", "errors=", ""));
+    }
+}
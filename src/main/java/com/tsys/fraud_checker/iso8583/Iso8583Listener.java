@@ -0,0 +1,306 @@
+package com.tsys.fraud_checker.iso8583;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Listens for switches sending ISO 8583 authorization and financial
+ * requests over TCP, each message framed by its length as 2 bytes in
+ * network byte order, and answers each with the response of the
+ * {@link Iso8583FraudCheckHandler}.
+ * <p>
+ * A single selector thread accepts the connections, reads and decodes
+ * the requests, and writes the responses, it never blocks on a check.
+ * Requests are pipelined - a switch need not wait for a response before
+ * sending its next request, and responses are written as their checks
+ * complete, hence not in the order of the requests.  The switch
+ * correlates them by their STAN (field 11), which therefore must be
+ * unique among the requests in flight on a connection.  At most
+ * maxInFlight checks are in flight on a connection, beyond that nothing
+ * more is read from it, holding back the switch by TCP flow control,
+ * until a check completes.
+ * <p>
+ * A frame that cannot be decoded closes its connection, as the frames
+ * that follow it cannot be trusted either.
+ */
+public class Iso8583Listener implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(Iso8583Listener.class.getName());
+    private static final int LENGTH_PREFIX = 2;
+
+    private final Iso8583FraudCheckHandler handler;
+    private final int maxFrameLength;
+    private final int maxInFlight;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+    // Connections with responses completed off the selector thread
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    public Iso8583Listener(Iso8583FraudCheckHandler handler, int port, int maxFrameLength, int maxInFlight) throws IOException {
+        if (maxFrameLength < 1 || maxFrameLength > 0xFFFF)
+            throw new IllegalArgumentException(String.format("Max frame length must be from 1 to 65535, got %d", maxFrameLength));
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException(String.format("Max in flight must be at least 1, got %d", maxInFlight));
+
+        this.handler = handler;
+        this.maxFrameLength = maxFrameLength;
+        this.maxInFlight = maxInFlight;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.selectorThread = new Thread(this::run, "fraud-iso8583");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        LOG.info(() -> String.format("ISO 8583 Listener listening on port %d", port()));
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection connection;
+                while ((connection = completed.poll()) != null)
+                    connection.flushResponses();
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept();
+                    else
+                        ((Connection) key.attachment()).handle(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOG.log(Level.SEVERE, "ISO 8583 Listener stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys())
+                closeQuietly(key);
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Failed closing the selector", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel == null)
+            return;
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(key));
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Failed closing a connection", e);
+        }
+    }
+
+    /**
+     * A switch's connection, read and written only on the selector thread,
+     * except for its responses, which are queued by the completing checks.
+     */
+    private final class Connection {
+        private final SelectionKey key;
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(LENGTH_PREFIX + maxFrameLength);
+        private final Queue<ByteBuffer> out = new ArrayDeque<>();
+        private final Queue<Response> responses = new ConcurrentLinkedQueue<>();
+        private final Set<String> stansInFlight = new HashSet<>();
+        // The switch has sent its last request, the connection is closed
+        // once the responses to the requests in flight are written.
+        private boolean inputClosed;
+
+        // Without a frame when not even a system malfunction could be
+        // encoded, so that its STAN is released all the same
+        private record Response(String stan, ByteBuffer frame) {}
+
+        private Connection(SelectionKey key) {
+            this.key = key;
+            this.channel = (SocketChannel) key.channel();
+        }
+
+        private void handle(SelectionKey key) {
+            try {
+                if (key.isWritable())
+                    write();
+                if (key.isValid() && key.isReadable())
+                    read();
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, String.format("{ 'iso8583' : 'Closing the connection from %s: %s'}",
+                        channel.socket().getRemoteSocketAddress(), e.getMessage()));
+                closeQuietly(key);
+            }
+        }
+
+        private void read() throws IOException {
+            if (!inputClosed && in.hasRemaining() && channel.read(in) < 0)
+                inputClosed = true;
+            in.flip();
+            while (stansInFlight.size() < maxInFlight && in.remaining() >= LENGTH_PREFIX) {
+                final int length = in.getShort(in.position()) & 0xFFFF;
+                if (length == 0 || length > maxFrameLength)
+                    throw new Iso8583FormatException(String.format("Frame of %d bytes, expected 1 to %d", length, maxFrameLength));
+                if (in.remaining() < LENGTH_PREFIX + length)
+                    break;
+
+                final ByteBuffer frame = in.slice(in.position() + LENGTH_PREFIX, length);
+                in.position(in.position() + LENGTH_PREFIX + length);
+                dispatch(Iso8583Codec.decode(frame));
+            }
+            in.compact();
+            updateInterest();
+        }
+
+        private void dispatch(Iso8583Message request) {
+            final String stan = request.get(Iso8583Fields.STAN);
+            if (stan == null) {
+                out.add(frameOf(Iso8583FraudCheckHandler.respond(request, Iso8583FraudCheckHandler.FORMAT_ERROR,
+                        String.format("errors=Field %d: is required!", Iso8583Fields.STAN))));
+                return;
+            }
+            if (!stansInFlight.add(stan)) {
+                out.add(frameOf(Iso8583FraudCheckHandler.respond(request, Iso8583FraudCheckHandler.DUPLICATE_TRANSMISSION, null)));
+                return;
+            }
+            CompletableFuture<Iso8583Message> check;
+            try {
+                check = handler.check(request);
+            } catch (RuntimeException e) {
+                check = CompletableFuture.failedFuture(e);
+            }
+            check.whenComplete((response, e) -> {
+                responses.add(new Response(stan, responseFrameOf(request, response, e)));
+                completed.add(this);
+                selector.wakeup();
+            });
+        }
+
+        // On the selector thread, for the responses queued by the checks
+        private void flushResponses() {
+            if (!key.isValid())
+                return;
+
+            Response response;
+            while ((response = responses.poll()) != null) {
+                stansInFlight.remove(response.stan);
+                if (response.frame != null)
+                    out.add(response.frame);
+            }
+            try {
+                write();
+                // A check completing may make room to read the requests
+                // held back, or may be the last one before closing
+                if (key.isValid() && stansInFlight.size() < maxInFlight)
+                    read();
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, String.format("{ 'iso8583' : 'Closing the connection from %s: %s'}",
+                        channel.socket().getRemoteSocketAddress(), e.getMessage()));
+                closeQuietly(key);
+            }
+        }
+
+        private void write() throws IOException {
+            ByteBuffer frame;
+            while ((frame = out.peek()) != null) {
+                channel.write(frame);
+                if (frame.hasRemaining())
+                    break;
+                out.poll();
+            }
+            updateInterest();
+        }
+
+        // Reads only while there is room in flight, and waits to write only
+        // while the socket's send buffer is full.
+        private void updateInterest() {
+            if (!key.isValid())
+                return;
+            if (inputClosed && stansInFlight.isEmpty() && out.isEmpty()) {
+                closeQuietly(key);
+                return;
+            }
+
+            final int interest = (!inputClosed && stansInFlight.size() < maxInFlight ? SelectionKey.OP_READ : 0)
+                    | (out.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+            if (key.interestOps() != interest)
+                key.interestOps(interest);
+        }
+    }
+
+    // The frame of the response, else of a system malfunction, else none
+    private static ByteBuffer responseFrameOf(Iso8583Message request, Iso8583Message response, Throwable e) {
+        try {
+            return frameOf(e == null ? response : systemMalfunction(request, e));
+        } catch (RuntimeException encodingFailure) {
+            try {
+                return frameOf(systemMalfunction(request, encodingFailure));
+            } catch (RuntimeException unanswerable) {
+                LOG.log(Level.SEVERE, String.format("{ 'iso8583' : 'Not answering %s'}", request), unanswerable);
+                return null;
+            }
+        }
+    }
+
+    private static Iso8583Message systemMalfunction(Iso8583Message request, Throwable e) {
+        LOG.log(Level.WARNING, String.format("{ 'iso8583' : 'Failed answering %s'}", request), e);
+        return Iso8583FraudCheckHandler.respond(request, Iso8583FraudCheckHandler.SYSTEM_MALFUNCTION, null);
+    }
+
+    private static ByteBuffer frameOf(Iso8583Message message) {
+        final byte[] encoded = Iso8583Codec.encode(message);
+        return ByteBuffer.allocate(LENGTH_PREFIX + encoded.length)
+                .putShort((short) encoded.length)
+                .put(encoded)
+                .flip();
+    }
+}
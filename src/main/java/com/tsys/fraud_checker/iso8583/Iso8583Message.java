@@ -0,0 +1,83 @@
+package com.tsys.fraud_checker.iso8583;
+
+/**
+ * An ISO 8583 message: its Message Type Indicator (MTI) and its data
+ * elements, fields 2 to 128, each held as the text of the field (the raw
+ * bytes, one char each, for a binary field).  Field 1, the secondary
+ * bitmap, is not a data element - the codec sets it when a field above
+ * 64 is present.
+ */
+public final class Iso8583Message {
+
+    public static final int MAX_FIELD = 128;
+
+    public final String mti;
+    private final String[] fields = new String[MAX_FIELD + 1];
+
+    public Iso8583Message(String mti) {
+        if (mti == null || mti.length() != 4 || !isDigits(mti))
+            throw new Iso8583FormatException(String.format("MTI must be 4 digits, got %s", mti));
+
+        this.mti = mti;
+    }
+
+    public Iso8583Message with(int field, String value) {
+        if (field < 2 || field > MAX_FIELD)
+            throw new IllegalArgumentException(String.format("Data elements are fields 2 to %d, got %d", MAX_FIELD, field));
+
+        fields[field] = value;
+        return this;
+    }
+
+    public String get(int field) {
+        return field < 2 || field > MAX_FIELD ? null : fields[field];
+    }
+
+    public boolean has(int field) {
+        return get(field) != null;
+    }
+
+    public boolean hasFieldAbove64() {
+        for (int field = 65; field <= MAX_FIELD; field++)
+            if (fields[field] != null)
+                return true;
+        return false;
+    }
+
+    // The MTI of the response to this request, 0100 is answered by 0110
+    public String responseMti() {
+        return mti.substring(0, 2) + (char) (mti.charAt(2) + 1) + mti.charAt(3);
+    }
+
+    static boolean isDigits(CharSequence text) {
+        for (int i = 0; i < text.length(); i++)
+            if (text.charAt(i) < '0' || text.charAt(i) > '9')
+                return false;
+        return true;
+    }
+
+    // Card data is masked, as this is logged
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder("Iso8583Message{mti=").append(mti);
+        for (int field = 2; field <= MAX_FIELD; field++) {
+            if (fields[field] == null)
+                continue;
+            text.append(", ").append(field).append('=');
+            if (field == Iso8583Fields.PAN)
+                text.append(maskedPan(fields[field]));
+            else if (Iso8583Fields.isSensitive(field))
+                text.append("***");
+            else
+                text.append(fields[field]);
+        }
+        return text.append('}').toString();
+    }
+
+    private static String maskedPan(String pan) {
+        if (pan.length() < 10)
+            return "***";
+
+        return pan.substring(0, 6) + "*".repeat(pan.length() - 10) + pan.substring(pan.length() - 4);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tsys.fraud_checker.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Keyed hashes (HMAC-SHA256) of card details, for remembering a card
+ * without holding its number or CVV.
+ * <p>
+ * Without a configured key, a random one is used, which is fine as long
+ * as the tokens live only as long as the process.
+ */
+@Component
+public class CardTokens {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Mac keyedHash;
+
+    @Autowired
+    public CardTokens(@Value("${fraud.verification.card-token-key:}") String key) {
+        final byte[] secret;
+        if (key.isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = key.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            keyedHash = Mac.getInstance(HMAC);
+            keyedHash.init(new SecretKeySpec(secret, HMAC));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot key the card tokens", e);
+        }
+    }
+
+    /**
+     * Token of the parts, in that order.  The card number, if among the
+     * parts, should be passed through {@link #digitsOf(String)} so that
+     * "4485 2847..." and "4485-2847..." are the same card.
+     */
+    public Token tokenOf(Object... parts) {
+        final StringBuilder message = new StringBuilder(64);
+        for (Object part : parts)
+            message.append(part).append('\0');
+
+        final byte[] hash;
+        try {
+            hash = ((Mac) keyedHash.clone()).doFinal(message.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Cannot key the card tokens", e);
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(hash);
+        return new Token(bytes.getLong(), bytes.getLong());
+    }
+
+    public static String digitsOf(String number) {
+        final StringBuilder digits = new StringBuilder(number.length());
+        for (int i = 0; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits.append(c);
+        }
+        return digits.toString();
+    }
+
+    // The first 128 bits of the keyed hash
+    public record Token(long high, long low) { }
+}
@@ -0,0 +1,69 @@
+package com.tsys.fraud_checker.services;
+
+/**
+ * Point in time by which a fraud check must be answered.
+ * <p>
+ * A client sends its latency budget (X-Deadline-Ms) relative to when the
+ * request is received, so that the deadline does not depend on the
+ * clocks of the client and this service agreeing.  It is measured on
+ * the monotonic System.nanoTime() clock.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long atNanos;
+
+    private Deadline(long atNanos) {
+        this.atNanos = atNanos;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(long budgetMillis) {
+        return new Deadline(System.nanoTime() + budgetMillis * 1_000_000L);
+    }
+
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    public long remainingMillis() {
+        if (!isBounded())
+            return Long.MAX_VALUE;
+
+        return Math.max(0, (atNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean hasExpired() {
+        return isBounded() && atNanos - System.nanoTime() <= 0;
+    }
+
+    // No deadline is before any other
+    public boolean isBefore(Deadline other) {
+        if (!isBounded())
+            return false;
+        return !other.isBounded() || atNanos - other.atNanos < 0;
+    }
+
+    /**
+     * A deadline for a step of the check, with the given share (0 to 1)
+     * of the budget remaining now.
+     */
+    public Deadline share(double fraction) {
+        if (!isBounded())
+            return NONE;
+
+        final long remainingNanos = Math.max(0, atNanos - System.nanoTime());
+        return new Deadline(System.nanoTime() + (long) (remainingNanos * fraction));
+    }
+
+    @Override
+    public String toString() {
+        return isBounded()
+                ? String.format("Deadline{remainingMillis=%d}", remainingMillis())
+                : "Deadline{none}";
+    }
+}
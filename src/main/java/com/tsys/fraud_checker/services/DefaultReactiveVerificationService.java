@@ -0,0 +1,80 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking counterpart of {@link DefaultVerificationService}.
+ * <p>
+ * The simulated issuer latency is a Mono.delay, that is, a timer on the
+ * parallel scheduler instead of a parked thread.  Hence, a pending check
+ * costs a scheduled task and not a thread, and a handful of event-loop
+ * threads can serve a large number of pending checks.
+ */
+@Service
+public class DefaultReactiveVerificationService implements ReactiveVerificationService {
+
+    private static final Logger LOG = Logger.getLogger(DefaultReactiveVerificationService.class.getName());
+
+    private static final int CVV_STATUS_FAIL = 1;
+
+    private final Random random;
+
+    @Autowired
+    public DefaultReactiveVerificationService(Random random) {
+        this.random = random;
+    }
+
+    int randomNumberBetween(int lower, int upper) {
+        return random.nextInt(upper - lower) + lower;
+    }
+
+    private Mono<Integer> verifyCVV(CreditCard creditCard) {
+        final int delayMillis = randomNumberBetween(2000, 5000);
+        final int index = randomNumberBetween(0, 2);
+        LOG.info(() -> String.format("{ 'verifyCVV() will respond after ' : '%.3f seconds' }", ((float) delayMillis) / 1000));
+        return Mono.delay(Duration.ofMillis(delayMillis))
+                .map(tick -> index)
+                .doOnNext(status -> LOG.info(() -> String.format("{ 'verifyCVV() Generating Response for value ==> ' : %d }", status)));
+    }
+
+    private Mono<Integer> verifyAddressWithIssuingBank(CreditCard creditCard) {
+        final int index = randomNumberBetween(0, 2);
+        final int delayMillis = randomNumberBetween(0, 3000);
+        LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() will respond after ' : '%.3f seconds' }", ((float) delayMillis) / 1000));
+        return Mono.delay(Duration.ofMillis(delayMillis))
+                .map(tick -> index)
+                .doOnNext(status -> LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() Generating Response for value ==> ' : %d }", status)));
+    }
+
+    /**
+     * Same outcomes as {@link DefaultVerificationService#verifyTransactionAuthenticity(CreditCard, Money)}.
+     * <p>
+     * Both the verifications are subscribed to at once.  When the CVV
+     * fails before the address is verified, the CVV-decided status wins,
+     * with the address unverified, and the pending address verification
+     * is cancelled.
+     */
+    @Override
+    public Mono<FraudStatus> verifyTransactionAuthenticity(CreditCard card, Money charge) {
+        final Mono<Integer> cvvVerification = verifyCVV(card).cache();
+        final Mono<Integer> addressVerification = verifyAddressWithIssuingBank(card);
+        final Mono<FraudStatus> verifiedByBoth = Mono.zip(cvvVerification, addressVerification,
+                (cvvStatus, addressStatus) -> FraudStatus.of(cvvStatus, addressStatus, card.hasExpired()));
+        final Mono<FraudStatus> decidedByCvv = cvvVerification
+                .filter(cvvStatus -> cvvStatus == CVV_STATUS_FAIL)
+                .map(cvvStatus -> FraudStatus.degraded(FraudStatus.FAIL, FraudStatus.UNVERIFIED,
+                        FraudStatus.FAIL, "Address verification skipped as CVV failed"));
+        // verifiedByBoth is subscribed first and hence sees the CVV status
+        // first, so an already completed address verification is reported.
+        return Mono.firstWithValue(verifiedByBoth, decidedByCvv);
+    }
+}
@@ -12,6 +12,17 @@ import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -43,35 +54,352 @@ public class DefaultVerificationService implements VerificationService {
 
     private static final Logger LOG = Logger.getLogger(DefaultVerificationService.class.getName());
 
-    private Random random;
+    private static final int CVV_STATUS_FAIL = 1;
+
+    private final Random random;
+    private final IssuerBulkheads issuerBulkheads;
+    private final VerificationBudgets verificationBudgets;
+    private final IssuerHedging issuerHedging;
+    private final IssuerCircuitBreakers issuerCircuitBreakers;
+    private final InFlightVerifications inFlightVerifications;
+    private final IssuerResponseCache issuerResponseCache;
+    private final KnownBadCards knownBadCards;
 
     @Autowired
-    public DefaultVerificationService(Random random) {
+    public DefaultVerificationService(Random random,
+                                      IssuerBulkheads issuerBulkheads,
+                                      VerificationBudgets verificationBudgets,
+                                      IssuerHedging issuerHedging,
+                                      IssuerCircuitBreakers issuerCircuitBreakers,
+                                      InFlightVerifications inFlightVerifications,
+                                      IssuerResponseCache issuerResponseCache,
+                                      KnownBadCards knownBadCards) {
         this.random = random;
+        this.issuerBulkheads = issuerBulkheads;
+        this.verificationBudgets = verificationBudgets;
+        this.issuerHedging = issuerHedging;
+        this.issuerCircuitBreakers = issuerCircuitBreakers;
+        this.inFlightVerifications = inFlightVerifications;
+        this.issuerResponseCache = issuerResponseCache;
+        this.knownBadCards = knownBadCards;
     }
 
     int randomNumberBetween(int lower, int upper) {
         return random.nextInt(upper - lower) + lower;
     }
 
-    private int verifyCVV(CreditCard creditCard) throws InterruptedException {
+    // The simulated issuer responses are drawn on the calling thread, so
+    // that the seeded Random is consumed in the same order irrespective
+    // of how the verification subtasks get scheduled.
+    private SimulatedIssuerRequest verifyCVV(CreditCard creditCard) {
         final int sleepMillis = randomNumberBetween(2000, 5000);
-        LOG.info(() -> String.format("{ 'verifyCVV() will respond after ' : '%.3f seconds' }", ((float) sleepMillis) / 1000));
-        Thread.sleep(sleepMillis);
         final int index = randomNumberBetween(0, 2);
-        LOG.info(() -> String.format("{ 'verifyCVV() Generating Response for value ==> ' : %d }", index));
-        return index;
+        return new SimulatedIssuerRequest("verifyCVV()", index, sleepMillis, 2000, 5000);
     }
 
-    private int verifyAddressWithIssuingBank(CreditCard creditCard) {
+    private SimulatedIssuerRequest verifyAddressWithIssuingBank(CreditCard creditCard) {
         final int index = randomNumberBetween(0, 2);
-        LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() Generating Response for value ==> ' : %d }", index));
-        return index;
+        final int sleepMillis = randomNumberBetween(0, 3000);
+        return new SimulatedIssuerRequest("verifyAddressWithIssuingBank()", index, sleepMillis, 0, 3000);
     }
 
+    // A request to the issuing bank, with its drawn response.  Sending it
+    // again, as a hedge does, gets the same response, only after a latency
+    // of its own.  That latency is not drawn from the seeded Random, as a
+    // hedge is sent on the hedging scheduler's thread.
+    private static final class SimulatedIssuerRequest {
+        private final String name;
+        private final int index;
+        private final int sleepMillis;
+        private final int minSleepMillis;
+        private final int maxSleepMillis;
+        private final AtomicBoolean sent = new AtomicBoolean();
+
+        SimulatedIssuerRequest(String name, int index, int sleepMillis, int minSleepMillis, int maxSleepMillis) {
+            this.name = name;
+            this.index = index;
+            this.sleepMillis = sleepMillis;
+            this.minSleepMillis = minSleepMillis;
+            this.maxSleepMillis = maxSleepMillis;
+        }
+
+        Callable<Integer> send() {
+            final int latencyMillis = sent.compareAndSet(false, true)
+                    ? sleepMillis
+                    : ThreadLocalRandom.current().nextInt(minSleepMillis, maxSleepMillis);
+            return () -> {
+                LOG.info(() -> String.format("{ '%s will respond after ' : '%.3f seconds' }", name, ((float) latencyMillis) / 1000));
+                Thread.sleep(latencyMillis);
+                LOG.info(() -> String.format("{ '%s Generating Response for value ==> ' : %d }", name, index));
+                return index;
+            };
+        }
+    }
+
+    /**
+     * CVV and Address verifications are independent of each other, so
+     * they run concurrently on the issuing bank's lane and the
+     * check takes as long as the slower of the two.
+     * <p>
+     * As soon as the outcome is decided, the remaining verification is
+     * not waited upon:
+     * - A card whose CVV failed recently fails without contacting the
+     *   issuing bank, see {@link KnownBadCards}.
+     * - A failed CVV cancels the address verification if it is still
+     *   in-flight.
+     * - An open circuit for the issuing bank answers from the local
+     *   signals only, see {@link IssuerCircuitBreakers}.
+     * - A check of the same card and charge that is already in-flight
+     *   is joined, see {@link InFlightVerifications}.
+     * - A recent outcome of the issuing bank for the card is reused, see
+     *   {@link IssuerResponseCache}.
+     * - A verification rejected as the issuing bank's lane is full is
+     *   not waited upon, see {@link IssuerBulkheads}.
+     * A verification that did not complete is reported as unverified,
+     * never with a status the issuing bank did not answer with.  An
+     * expired card is still verified with the issuing bank, and fails
+     * whatever it answers.
+     */
     @Override
     public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
                                                      @NotNull @Valid Money charge) throws InterruptedException {
-        return new FraudStatus(verifyCVV(card), verifyAddressWithIssuingBank(card), card.hasExpired());
+        return await(verifyTransactionAuthenticityAsync(card, charge));
+    }
+
+    /**
+     * Same as {@link #verifyTransactionAuthenticity(CreditCard, Money)},
+     * but answers by the deadline.  A verification that exceeds its share
+     * of the deadline is cancelled and the check is answered with the
+     * degraded status.
+     *
+     * @see VerificationBudgets
+     */
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                     @NotNull @Valid Money charge,
+                                                     @NotNull Deadline deadline) throws InterruptedException {
+        return await(verifyTransactionAuthenticityAsync(card, charge, deadline));
+    }
+
+    private FraudStatus await(CompletableFuture<FraudStatus> fraudStatus) throws InterruptedException {
+        try {
+            return fraudStatus.get();
+        } catch (InterruptedException e) {
+            fraudStatus.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+
+            throw new IllegalStateException("Issuer verification failed!", e.getCause());
+        }
+    }
+
+    /**
+     * Does not block the caller.  Completing the returned future
+     * before the verifications do (for example, on a timeout or a
+     * cancellation) cancels the in-flight verifications.
+     */
+    @Override
+    public CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(@NotNull @Valid CreditCard card,
+                                                                            @NotNull @Valid Money charge) {
+        return verifyTransactionAuthenticityAsync(card, charge, Deadline.none());
+    }
+
+    @Override
+    public CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(@NotNull @Valid CreditCard card,
+                                                                            @NotNull @Valid Money charge,
+                                                                            @NotNull Deadline deadline) {
+        return inFlightVerifications.coalesce(card, charge, deadline, () -> verify(card, charge, deadline),
+                joined -> byDeadline(joined, deadline));
+    }
+
+    // The joined verification may be working to a later deadline than
+    // this caller's, or to none.  It is never working to an earlier one,
+    // see InFlightVerifications.
+    private CompletableFuture<FraudStatus> byDeadline(CompletableFuture<FraudStatus> joined, Deadline deadline) {
+        if (!deadline.isBounded())
+            return joined;
+
+        return joined.completeOnTimeout(FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+                        verificationBudgets.degradedStatus(), "Deadline expired awaiting verification"),
+                deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private CompletableFuture<FraudStatus> verify(CreditCard card, Money charge, Deadline deadline) {
+        if (knownBadCards.isKnownBad(card)) {
+            LOG.info(() -> "{ 'verifyTransactionAuthenticity()' : 'CVV failed recently, skipping issuer verifications' }");
+            return CompletableFuture.completedFuture(FraudStatus.degraded(FraudStatus.FAIL, FraudStatus.UNVERIFIED,
+                    FraudStatus.FAIL, "CVV verification failed recently for this card"));
+        }
+
+        if (deadline.hasExpired()) {
+            LOG.info(() -> "{ 'verifyTransactionAuthenticity()' : 'Deadline expired, skipping issuer verifications' }");
+            return CompletableFuture.completedFuture(FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+                    card.hasExpired() ? FraudStatus.FAIL : verificationBudgets.degradedStatus(), "Deadline expired before verification"));
+        }
+
+        final CompletableFuture<Integer> cvvVerification = withinBudget(VerificationStep.CVV,
+                issuerResponseCache.verified(card, VerificationStep.CVV,
+                        () -> callIssuer(card.issuingBank, VerificationStep.CVV, () -> verifyCVV(card))), deadline);
+        if (isCircuitOpen(cvvVerification))
+            return decidedLocally(card, VerificationStep.CVV);
+        cvvVerification.thenAccept(cvvStatus -> {
+            if (cvvStatus == CVV_STATUS_FAIL)
+                knownBadCards.remember(card);
+        });
+
+        final CompletableFuture<Integer> addressVerification = withinBudget(VerificationStep.ADDRESS,
+                issuerResponseCache.verified(card, VerificationStep.ADDRESS,
+                        () -> callIssuer(card.issuingBank, VerificationStep.ADDRESS, () -> verifyAddressWithIssuingBank(card))), deadline);
+        if (isCircuitOpen(addressVerification)) {
+            cvvVerification.cancel(true);
+            return decidedLocally(card, VerificationStep.ADDRESS);
+        }
+
+        final CompletableFuture<FraudStatus> fraudStatus = cvvVerification.thenCompose(cvvStatus -> {
+            if (cvvStatus == CVV_STATUS_FAIL
+                    && (addressVerification.cancel(true) || addressVerification.isCompletedExceptionally())) {
+                LOG.info(() -> "{ 'verifyTransactionAuthenticity()' : 'CVV failed, not waiting for address verification' }");
+                return CompletableFuture.completedFuture(FraudStatus.degraded(FraudStatus.FAIL, FraudStatus.UNVERIFIED,
+                        FraudStatus.FAIL, "Address verification skipped as CVV failed"));
+            }
+            return addressVerification.thenApply(addressStatus -> FraudStatus.of(cvvStatus, addressStatus, card.hasExpired()));
+        }).handle((status, e) -> {
+            if (e == null)
+                return status;
+
+            // The address verification is waited upon only after the CVV
+            // passed, so a timed-out address verification means a passed CVV.
+            if (hasExceededBudget(cvvVerification)) {
+                addressVerification.cancel(true);
+                return degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED, card, VerificationStep.CVV);
+            }
+            if (hasExceededBudget(addressVerification))
+                return degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED, card, VerificationStep.ADDRESS);
+            if (isLaneSaturated(cvvVerification)) {
+                addressVerification.cancel(true);
+                return laneSaturated(FraudStatus.UNVERIFIED, card, VerificationStep.CVV);
+            }
+            if (isLaneSaturated(addressVerification))
+                return laneSaturated(FraudStatus.PASS, card, VerificationStep.ADDRESS);
+
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        });
+        fraudStatus.whenComplete((status, e) -> {
+            if (e != null) {
+                cvvVerification.cancel(true);
+                addressVerification.cancel(true);
+            }
+        });
+        return fraudStatus;
+    }
+
+    // Times out the verification when it exceeds its share of the
+    // deadline, which also cancels it.
+    private CompletableFuture<Integer> withinBudget(VerificationStep step,
+                                                    CompletableFuture<Integer> verification,
+                                                    Deadline deadline) {
+        if (!deadline.isBounded())
+            return verification;
+
+        final Deadline budget = verificationBudgets.budgetFor(step, deadline);
+        verification.orTimeout(budget.remainingMillis(), TimeUnit.MILLISECONDS);
+        verification.whenComplete((status, e) -> {
+            if (e instanceof TimeoutException) {
+                verificationBudgets.budgetExceeded(step);
+                LOG.info(() -> String.format("{ 'verifyTransactionAuthenticity()' : '%s exceeded its budget' }", step.description));
+            }
+        });
+        return verification;
+    }
+
+    private static boolean hasExceededBudget(CompletableFuture<Integer> verification) {
+        return verification.state() == Future.State.FAILED
+                && verification.exceptionNow() instanceof TimeoutException;
+    }
+
+    // An expired card fails, whether or not it was verified in time
+    private FraudStatus degraded(String cvvStatus, String avStatus, CreditCard card, VerificationStep exceededStep) {
+        return FraudStatus.degraded(cvvStatus, avStatus, card.hasExpired() ? FraudStatus.FAIL : verificationBudgets.degradedStatus(),
+                String.format("%s exceeded its latency budget", exceededStep.description));
+    }
+
+    private static boolean isLaneSaturated(CompletableFuture<Integer> verification) {
+        return verification.state() == Future.State.FAILED
+                && verification.exceptionNow() instanceof RejectedExecutionException;
+    }
+
+    // The issuing bank was not called, so the check is answered as one
+    // that exceeded its budget is, and the bank is not held to account
+    // for it, see IssuerCircuitBreakers.
+    private FraudStatus laneSaturated(String cvvStatus, CreditCard card, VerificationStep rejectedStep) {
+        LOG.info(() -> String.format("{ 'verifyTransactionAuthenticity()' : '%s lane saturated for %s' }",
+                rejectedStep.description, card.issuingBank));
+        return FraudStatus.degraded(cvvStatus, FraudStatus.UNVERIFIED, card.hasExpired() ? FraudStatus.FAIL : verificationBudgets.degradedStatus(),
+                String.format("%s lane saturated for %s", rejectedStep.description, card.issuingBank));
+    }
+
+    // A hedge of a slow verification sends the same request again, so
+    // whichever attempt answers first, the response is the same.
+    //
+    // The breaker's permission is released if the verification could not
+    // even be started, else a half-open breaker would wait on its trial
+    // forever.
+    private CompletableFuture<Integer> callIssuer(String issuingBank, VerificationStep step,
+                                                  Supplier<SimulatedIssuerRequest> verification) {
+        if (!issuerCircuitBreakers.tryAcquirePermission(issuingBank, step))
+            return CompletableFuture.failedFuture(new IssuerCircuitBreakers.CircuitOpenException(issuingBank, step));
+
+        final CompletableFuture<Integer> response;
+        try {
+            final SimulatedIssuerRequest request = verification.get();
+            response = issuerHedging.hedged(issuingBank, step, () -> submit(issuingBank, request.send()));
+        } catch (RuntimeException e) {
+            issuerCircuitBreakers.release(issuingBank, step);
+            throw e;
+        }
+        return issuerCircuitBreakers.record(issuingBank, step, response);
+    }
+
+    private static boolean isCircuitOpen(CompletableFuture<Integer> verification) {
+        return verification.state() == Future.State.FAILED
+                && verification.exceptionNow() instanceof IssuerCircuitBreakers.CircuitOpenException;
+    }
+
+    // Without the issuing bank, a card with an invalid number or an expired
+    // card still fails, any other card gets the fallback status.
+    private CompletableFuture<FraudStatus> decidedLocally(CreditCard card, VerificationStep openStep) {
+        LOG.info(() -> String.format("{ 'verifyTransactionAuthenticity()' : 'Circuit open for %s at %s, deciding locally' }",
+                openStep.description, card.issuingBank));
+        final String overall = card.hasValidNumber() && !card.hasExpired() ? issuerCircuitBreakers.fallbackStatus() : FraudStatus.FAIL;
+        return CompletableFuture.completedFuture(FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED, overall,
+                String.format("%s circuit open for %s", openStep.description, card.issuingBank)));
+    }
+
+    // Runs on the issuing bank's lane, so that a slow bank holds up only
+    // its own verifications.
+    //
+    // Cancelling (or timing out) the returned future interrupts the
+    // verification if it is running, or else removes it from the
+    // lane's queue, thus freeing up the lane.
+    private CompletableFuture<Integer> submit(String issuingBank, Callable<Integer> verification) {
+        final var response = new CompletableFuture<Integer>();
+        try {
+            final Future<?> task = issuerBulkheads.laneFor(issuingBank).submit(() -> {
+                try {
+                    response.complete(verification.call());
+                } catch (Exception e) {
+                    response.completeExceptionally(e);
+                }
+            });
+            response.whenComplete((status, e) -> {
+                if (e != null)
+                    task.cancel(true);
+            });
+        } catch (RejectedExecutionException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
     }
-}
\ No newline at end of file
+}
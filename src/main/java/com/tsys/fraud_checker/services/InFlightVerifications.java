@@ -0,0 +1,158 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces identical concurrent fraud checks into a single flight.
+ * <p>
+ * Retries and double-submits arrive with the same card and charge at the
+ * same time.  The first of them verifies with the issuing bank, the
+ * others wait for its Fraud Status instead of paying for another issuer
+ * round-trip.  A flight is removed as soon as it completes, so a later
+ * check of the same card and charge verifies afresh - nothing is cached.
+ * <p>
+ * Each caller gets a future of its own.  Giving up on it (for example,
+ * on a timeout) leaves the flight to the others, and the verification
+ * is cancelled only when all its callers have given up.
+ * <p>
+ * A caller joins a flight only when the flight works to its deadline or
+ * a later one.  A flight with an earlier deadline may come back degraded
+ * by that deadline, which is no answer for this caller, so it verifies
+ * on its own instead.
+ */
+@Component
+public class InFlightVerifications {
+
+    private static final Logger LOG = Logger.getLogger(InFlightVerifications.class.getName());
+
+    private final boolean enabled;
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public InFlightVerifications(@Value("${fraud.verification.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static InFlightVerifications disabled() {
+        return new InFlightVerifications(false);
+    }
+
+    /**
+     * Verifies, unless the same card and charge are already being
+     * verified to the same deadline or a later one.  A caller joining
+     * another's verification gets its future through onJoin, say, to
+     * bound it by the caller's own deadline.
+     */
+    public CompletableFuture<FraudStatus> coalesce(CreditCard card, Money charge, Deadline deadline,
+                                                   Supplier<CompletableFuture<FraudStatus>> verification,
+                                                   UnaryOperator<CompletableFuture<FraudStatus>> onJoin) {
+        if (!enabled)
+            return verification.get();
+
+        calls.increment();
+        final var key = new Key(card, charge);
+        final var flight = new Flight(deadline);
+        while (true) {
+            final Flight inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null)
+                break;
+
+            if (inFlight.deadline.isBefore(deadline)) {
+                LOG.info(() -> String.format("{ 'coalesce()' : 'In-flight verification of %s for %s has an earlier deadline, verifying on its own' }", card, charge));
+                return verification.get();
+            }
+
+            final CompletableFuture<FraudStatus> joined = inFlight.join();
+            if (joined != null) {
+                coalesced.increment();
+                LOG.info(() -> String.format("{ 'coalesce()' : 'Joined the in-flight verification of %s for %s' }", card, charge));
+                return onJoin.apply(joined);
+            }
+            // Completed meanwhile and is being removed
+            flights.remove(key, inFlight);
+        }
+
+        // Registered outside of putIfAbsent, as an already completed
+        // verification removes its flight right away.
+        flight.status.whenComplete((status, e) -> flights.remove(key, flight));
+        final CompletableFuture<FraudStatus> caller = flight.caller();
+        final CompletableFuture<FraudStatus> verifying;
+        try {
+            verifying = verification.get();
+        } catch (RuntimeException e) {
+            flight.status.completeExceptionally(e);
+            throw e;
+        }
+        flight.status.whenComplete((status, e) -> {
+            if (e != null)
+                verifying.cancel(true);
+        });
+        verifying.whenComplete((status, e) -> {
+            if (e == null)
+                flight.status.complete(status);
+            else
+                flight.status.completeExceptionally(e);
+        });
+        return caller;
+    }
+
+    public Map<String, Object> coalescingCounts() {
+        final Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("calls", calls.sum());
+        counts.put("coalesced", coalesced.sum());
+        counts.put("inFlight", flights.size());
+        return counts;
+    }
+
+    private record Key(CreditCard card, Money charge) { }
+
+    private static final class Flight {
+        // Of the caller that verifies
+        private final Deadline deadline;
+        private final CompletableFuture<FraudStatus> status = new CompletableFuture<>();
+        // The caller that verifies is counted from the start
+        private final AtomicInteger callers = new AtomicInteger(1);
+
+        Flight(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        // A future for another caller, or null when the flight has
+        // completed or has been given up by all its callers.
+        CompletableFuture<FraudStatus> join() {
+            int joined;
+            do {
+                joined = callers.get();
+                if (joined <= 0 || status.isDone())
+                    return null;
+            } while (!callers.compareAndSet(joined, joined + 1));
+            return caller();
+        }
+
+        CompletableFuture<FraudStatus> caller() {
+            final CompletableFuture<FraudStatus> caller = status.copy();
+            caller.whenComplete((fraudStatus, e) -> {
+                if (!status.isDone() && callers.decrementAndGet() == 0)
+                    status.cancel(true);
+            });
+            return caller;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.tsys.fraud_checker.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Isolated execution lanes for the issuer verifications, keyed by the
+ * issuing bank.
+ * <p>
+ * A bank with a lane of its own gets a bounded executor of its own, so
+ * a slow bank fills up and is rejected from its own lane only, while
+ * the other banks carry on.  The long tail of banks without a lane
+ * share the overflow lane.
+ */
+public class IssuerBulkheads {
+
+    public static final String OVERFLOW_LANE = "overflow";
+
+    private final Map<String, Lane> lanes;
+    private final Lane overflowLane;
+
+    public IssuerBulkheads(Map<String, Lane> bankLanes, Lane overflowLane) {
+        this.lanes = Collections.unmodifiableMap(new LinkedHashMap<>(bankLanes));
+        this.overflowLane = overflowLane;
+    }
+
+    // All banks share the given executor
+    public static IssuerBulkheads overflowOnly(ExecutorService executor) {
+        return new IssuerBulkheads(Map.of(), new Lane(OVERFLOW_LANE, executor, -1));
+    }
+
+    public Lane laneFor(String issuingBank) {
+        return lanes.getOrDefault(issuingBank, overflowLane);
+    }
+
+    public Map<String, Map<String, Object>> laneCounts() {
+        final Map<String, Map<String, Object>> counts = new LinkedHashMap<>();
+        lanes.forEach((bank, lane) -> counts.put(bank, lane.counts()));
+        counts.put(OVERFLOW_LANE, overflowLane.counts());
+        return counts;
+    }
+
+    // Only the bank lanes, the overflow lane is the issuerVerificationExecutor bean.
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    public static class Lane {
+        private final String name;
+        private final ExecutorService executor;
+        // -1 when the concurrency is not bounded by the lane
+        private final int maxConcurrent;
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        public Lane(String name, ExecutorService executor, int maxConcurrent) {
+            this.name = name;
+            this.executor = executor;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Future<?> submit(Runnable verification) {
+            try {
+                final Future<?> task = executor.submit(() -> {
+                    running.incrementAndGet();
+                    try {
+                        verification.run();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+                submitted.increment();
+                return task;
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new RejectedExecutionException(String.format("Issuer verification lane %s is full", name), e);
+            }
+        }
+
+        Map<String, Object> counts() {
+            final Map<String, Object> counts = new LinkedHashMap<>();
+            final int runningNow = running.get();
+            counts.put("maxConcurrent", maxConcurrent);
+            counts.put("running", runningNow);
+            if (executor instanceof ThreadPoolExecutor pool)
+                counts.put("queued", pool.getQueue().size());
+            if (maxConcurrent > 0)
+                counts.put("saturation", (double) runningNow / maxConcurrent);
+            counts.put("submitted", submitted.sum());
+            counts.put("rejected", rejected.sum());
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breakers around the issuer verifications, one per issuing
+ * bank and verification step.
+ * <p>
+ * A breaker is CLOSED to begin with, and trips OPEN once, over its
+ * last window-size verifications (and at least min-calls of them),
+ * either the failure rate or the slow-call rate reaches its threshold.
+ * A verification that exceeded its latency budget counts as slow.
+ * <p>
+ * While OPEN, the bank is not called for that step.  After the
+ * cool-down it is HALF_OPEN and lets through half-open-calls trial
+ * verifications: if all of them are fine it is CLOSED again, else it
+ * is OPEN for another cool-down.
+ * <p>
+ * Only max-banks banks get breakers of their own, the other banks share
+ * the overflow breakers, see {@link TrackedBanks}.
+ */
+@Component
+public class IssuerCircuitBreakers {
+
+    private static final Logger LOG = Logger.getLogger(IssuerCircuitBreakers.class.getName());
+    private static final Set<String> OVERALL_STATUSES = Set.of(FraudStatus.PASS, FraudStatus.FAIL, FraudStatus.SUSPICIOUS);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Outcome { SUCCESS, SLOW, FAILURE }
+
+    // A verification not made as the circuit is open
+    public static final class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String issuingBank, VerificationStep step) {
+            super(String.format("%s circuit open for %s", step.description, issuingBank), null, false, false);
+        }
+    }
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallMillis;
+    private final long coolDownMillis;
+    private final int halfOpenCalls;
+    private final String fallbackStatus;
+    private final TrackedBanks trackedBanks;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IssuerCircuitBreakers(@Value("${fraud.verification.circuit-breaker.enabled:true}") boolean enabled,
+                                 @Value("${fraud.verification.circuit-breaker.window-size:20}") int windowSize,
+                                 @Value("${fraud.verification.circuit-breaker.min-calls:10}") int minCalls,
+                                 @Value("${fraud.verification.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                 @Value("${fraud.verification.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                                 @Value("${fraud.verification.circuit-breaker.slow-call-millis:4500}") long slowCallMillis,
+                                 @Value("${fraud.verification.circuit-breaker.cool-down-millis:30000}") long coolDownMillis,
+                                 @Value("${fraud.verification.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                                 @Value("${fraud.verification.circuit-breaker.fallback-status:suspicious}") String fallbackStatus,
+                                 @Value("${fraud.verification.circuit-breaker.max-banks:1000}") int maxBanks) {
+        if (minCalls < 1 || minCalls > windowSize)
+            throw new IllegalArgumentException(String.format("Circuit breaker min calls must be between 1 and window size %d, got %d", windowSize, minCalls));
+        if (halfOpenCalls < 1)
+            throw new IllegalArgumentException(String.format("Circuit breaker half open calls must be at least 1, got %d", halfOpenCalls));
+        if (!OVERALL_STATUSES.contains(fallbackStatus))
+            throw new IllegalArgumentException(String.format("Circuit breaker fallback status must be one of %s, got %s", OVERALL_STATUSES, fallbackStatus));
+
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.coolDownMillis = coolDownMillis;
+        this.halfOpenCalls = halfOpenCalls;
+        this.fallbackStatus = fallbackStatus;
+        this.trackedBanks = new TrackedBanks(maxBanks);
+    }
+
+    public static IssuerCircuitBreakers disabled() {
+        return new IssuerCircuitBreakers(false, 1, 1, 1, 1, Long.MAX_VALUE, 0, 1, FraudStatus.SUSPICIOUS, 0);
+    }
+
+    /**
+     * Whether the bank may be called for the step now.  A caller that is
+     * permitted must either {@link #record} the verification or
+     * {@link #release} the permission.
+     */
+    public boolean tryAcquirePermission(String issuingBank, VerificationStep step) {
+        return !enabled || breakerFor(issuingBank, step).tryAcquirePermission();
+    }
+
+    public void release(String issuingBank, VerificationStep step) {
+        if (enabled)
+            breakerFor(issuingBank, step).release();
+    }
+
+    /**
+     * Records the outcome of the verification when it completes.  A
+     * cancelled verification (for example, of the address after a failed
+     * CVV), or one rejected as the bank's lane is full, says nothing about
+     * the bank and only releases its permission.
+     */
+    public CompletableFuture<Integer> record(String issuingBank, VerificationStep step, CompletableFuture<Integer> verification) {
+        if (!enabled)
+            return verification;
+
+        final CircuitBreaker breaker = breakerFor(issuingBank, step);
+        final long startedAt = System.nanoTime();
+        verification.whenComplete((status, e) -> {
+            final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof CancellationException || cause instanceof RejectedExecutionException) {
+                breaker.release();
+                return;
+            }
+            final long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (cause instanceof TimeoutException || (cause == null && tookMillis >= slowCallMillis))
+                breaker.record(Outcome.SLOW);
+            else if (cause != null)
+                breaker.record(Outcome.FAILURE);
+            else
+                breaker.record(Outcome.SUCCESS);
+        });
+        return verification;
+    }
+
+    public String fallbackStatus() {
+        return fallbackStatus;
+    }
+
+    public Map<String, Map<String, Object>> states() {
+        final Map<String, Map<String, Object>> states = new TreeMap<>();
+        breakers.forEach((key, breaker) -> states.put(key, breaker.state()));
+        return states;
+    }
+
+    // Closes all the breakers, or only those of the given bank
+    public void reset(String issuingBank) {
+        final String bank = issuingBank == null ? null : trackedBanks.of(issuingBank);
+        breakers.forEach((key, breaker) -> {
+            if (bank == null || breaker.issuingBank.equals(bank))
+                breaker.reset();
+        });
+    }
+
+    private CircuitBreaker breakerFor(String issuingBank, VerificationStep step) {
+        final String bank = trackedBanks.track(issuingBank);
+        return breakers.computeIfAbsent(bank + '/' + step.key, key -> new CircuitBreaker(bank, step));
+    }
+
+    private final class CircuitBreaker {
+        private final String issuingBank;
+        private final VerificationStep step;
+        // Ring buffer of the last outcomes, while CLOSED
+        private final Outcome[] outcomes = new Outcome[windowSize];
+        private int next;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private int trialsStarted;
+        private int trialsSucceeded;
+
+        CircuitBreaker(String issuingBank, VerificationStep step) {
+            this.issuingBank = issuingBank;
+            this.step = step;
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(coolDownMillis))
+                    return false;
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted == halfOpenCalls)
+                    return false;
+                trialsStarted++;
+            }
+            return true;
+        }
+
+        synchronized void release() {
+            if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded)
+                trialsStarted--;
+        }
+
+        synchronized void record(Outcome outcome) {
+            switch (state) {
+                case CLOSED -> {
+                    remember(outcome);
+                    if (calls >= minCalls
+                            && ((double) failures / calls >= failureRateThreshold
+                                || (double) slowCalls / calls >= slowCallRateThreshold))
+                        transitionTo(State.OPEN);
+                }
+                case HALF_OPEN -> {
+                    if (outcome != Outcome.SUCCESS)
+                        transitionTo(State.OPEN);
+                    else if (++trialsSucceeded == halfOpenCalls)
+                        transitionTo(State.CLOSED);
+                }
+                case OPEN -> { }
+            }
+        }
+
+        private void remember(Outcome outcome) {
+            if (calls == outcomes.length)
+                forget(outcomes[next]);
+            else
+                calls++;
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            if (outcome == Outcome.FAILURE)
+                failures++;
+            if (outcome == Outcome.SLOW)
+                slowCalls++;
+        }
+
+        private void forget(Outcome outcome) {
+            if (outcome == Outcome.FAILURE)
+                failures--;
+            if (outcome == Outcome.SLOW)
+                slowCalls--;
+        }
+
+        synchronized void reset() {
+            transitionTo(State.CLOSED);
+        }
+
+        private void transitionTo(State newState) {
+            final State oldState = state;
+            state = newState;
+            next = calls = failures = slowCalls = 0;
+            trialsStarted = trialsSucceeded = 0;
+            if (newState == State.OPEN)
+                openedAtNanos = System.nanoTime();
+            if (oldState != newState)
+                LOG.info(() -> String.format("{ 'circuitBreaker' : '%s at %s %s -> %s' }", step.description, issuingBank, oldState, newState));
+        }
+
+        synchronized Map<String, Object> state() {
+            final Map<String, Object> state = new LinkedHashMap<>();
+            state.put("state", this.state);
+            state.put("calls", calls);
+            state.put("failureRate", calls == 0 ? 0.0 : (double) failures / calls);
+            state.put("slowCallRate", calls == 0 ? 0.0 : (double) slowCalls / calls);
+            if (this.state == State.OPEN)
+                state.put("openForMillis", Math.max(0, coolDownMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAtNanos)));
+            return state;
+        }
+    }
+}
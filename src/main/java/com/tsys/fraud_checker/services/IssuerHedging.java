@@ -0,0 +1,184 @@
+package com.tsys.fraud_checker.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Hedges issuer verifications against the heavy tail of issuer latency.
+ * <p>
+ * When an attempt has not answered by its bank's observed percentile
+ * latency (p95 by default), one speculative duplicate is sent and the
+ * first answer is taken.  The attempt that lost is cancelled.
+ * <p>
+ * Hedges are limited by a global budget: each attempt earns
+ * max-extra-load of a hedge, and a hedge is sent only if a whole one
+ * has been earned.  Hence, hedges add at most max-extra-load to the
+ * issuer traffic, even when all the banks are slow.
+ */
+@Component
+public class IssuerHedging {
+
+    private static final Logger LOG = Logger.getLogger(IssuerHedging.class.getName());
+
+    // Budget is kept in thousandths of a hedge
+    private static final long HEDGE = 1000;
+    private static final long MAX_SAVED_HEDGES = 10 * HEDGE;
+
+    private final IssuerLatencies issuerLatencies;
+    private final ScheduledExecutorService hedgingScheduler;
+    private final boolean enabled;
+    private final double percentile;
+    private final long earnedPerAttempt;
+
+    private final AtomicLong budget = new AtomicLong();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    @Autowired
+    public IssuerHedging(IssuerLatencies issuerLatencies,
+                         @Qualifier("hedgingScheduler") ScheduledExecutorService hedgingScheduler,
+                         @Value("${fraud.verification.hedging.enabled:true}") boolean enabled,
+                         @Value("${fraud.verification.hedging.percentile:0.95}") double percentile,
+                         @Value("${fraud.verification.hedging.max-extra-load:0.05}") double maxExtraLoad) {
+        if (percentile <= 0 || percentile >= 1)
+            throw new IllegalArgumentException(String.format("Hedging percentile must be in (0, 1), got %s", percentile));
+        if (maxExtraLoad < 0 || maxExtraLoad > 1)
+            throw new IllegalArgumentException(String.format("Hedging max extra load must be in [0, 1], got %s", maxExtraLoad));
+
+        this.issuerLatencies = issuerLatencies;
+        this.hedgingScheduler = hedgingScheduler;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.earnedPerAttempt = Math.round(maxExtraLoad * HEDGE);
+    }
+
+    public static IssuerHedging disabled() {
+        return new IssuerHedging(new IssuerLatencies(1, 1, 0), null, false, 0.95, 0);
+    }
+
+    /**
+     * Makes the attempt, and if it does not answer in time, hedges it
+     * with another one.  Cancelling the returned future cancels the
+     * attempts in flight.
+     */
+    public CompletableFuture<Integer> hedged(String issuingBank,
+                                             VerificationStep step,
+                                             Supplier<CompletableFuture<Integer>> attempt) {
+        if (!enabled)
+            return attempt.get();
+
+        attempts.increment();
+        earn();
+        final OptionalLong hedgeAfterMillis = issuerLatencies.percentile(issuingBank, step, percentile);
+        if (hedgeAfterMillis.isEmpty())
+            return timed(issuingBank, step, attempt.get(), () -> false);
+
+        final var answer = new CompletableFuture<Integer>();
+        final CompletableFuture<Integer> primary = timed(issuingBank, step, attempt.get(), () -> !answer.isCancelled());
+        final var hedge = new AtomicReference<CompletableFuture<Integer>>();
+        final var outstanding = new AtomicInteger(1);
+        relay(primary, answer, outstanding, () -> { });
+        final var hedgeTimer = hedgingScheduler.schedule(() -> {
+            if (answer.isDone() || !trySpendHedge())
+                return;
+
+            outstanding.incrementAndGet();
+            hedges.increment();
+            LOG.info(() -> String.format("{ 'hedged()' : '%s at %s not answered in %d ms, hedging' }", step.description, issuingBank, hedgeAfterMillis.getAsLong()));
+            final CompletableFuture<Integer> duplicate = timed(issuingBank, step, attempt.get(), () -> false);
+            hedge.set(duplicate);
+            relay(duplicate, answer, outstanding, hedgeWins::increment);
+            if (answer.isDone())
+                duplicate.cancel(true);
+        }, hedgeAfterMillis.getAsLong(), TimeUnit.MILLISECONDS);
+
+        answer.whenComplete((status, e) -> {
+            hedgeTimer.cancel(false);
+            primary.cancel(true);
+            final CompletableFuture<Integer> duplicate = hedge.get();
+            if (duplicate != null)
+                duplicate.cancel(true);
+        });
+        return answer;
+    }
+
+    // The first answer wins.  A failed attempt fails the answer only
+    // when there is no other attempt outstanding.
+    private static void relay(CompletableFuture<Integer> attempt,
+                              CompletableFuture<Integer> answer,
+                              AtomicInteger outstanding,
+                              Runnable onWin) {
+        attempt.whenComplete((status, e) -> {
+            if (e == null) {
+                if (answer.complete(status))
+                    onWin.run();
+            } else if (outstanding.decrementAndGet() == 0)
+                answer.completeExceptionally(e);
+        });
+    }
+
+    // An attempt that answered, failed or timed out is recorded.  A
+    // cancelled one is recorded, as a lower bound, only when it is a primary
+    // that lost to its hedge or was given up on as the verification timed
+    // out.  A hedge that lost, an attempt the caller no longer needed, or
+    // one rejected by a full lane says nothing of the bank's latency, and
+    // would only pull the percentile down.
+    private CompletableFuture<Integer> timed(String issuingBank, VerificationStep step,
+                                             CompletableFuture<Integer> attempt,
+                                             BooleanSupplier isLowerBoundWhenCancelled) {
+        final long startedAt = System.nanoTime();
+        attempt.whenComplete((status, e) -> {
+            final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof RejectedExecutionException
+                    || (cause instanceof CancellationException && !isLowerBoundWhenCancelled.getAsBoolean()))
+                return;
+            issuerLatencies.record(issuingBank, step, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        });
+        return attempt;
+    }
+
+    private void earn() {
+        budget.accumulateAndGet(earnedPerAttempt, (saved, earned) -> Math.min(saved + earned, MAX_SAVED_HEDGES));
+    }
+
+    private boolean trySpendHedge() {
+        long saved;
+        do {
+            saved = budget.get();
+            if (saved < HEDGE)
+                return false;
+        } while (!budget.compareAndSet(saved, saved - HEDGE));
+        return true;
+    }
+
+    public Map<String, Object> hedgingCounts() {
+        final long attempted = attempts.sum();
+        final long hedged = hedges.sum();
+        final Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("attempts", attempted);
+        counts.put("hedges", hedged);
+        counts.put("hedgeWins", hedgeWins.sum());
+        counts.put("hedgeRate", attempted == 0 ? 0.0 : (double) hedged / attempted);
+        return counts;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tsys.fraud_checker.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recently observed latencies of the issuer verifications, per issuing
+ * bank and verification step.
+ * <p>
+ * Only the last window-size latencies are kept, so that the percentiles
+ * follow a bank whose latency changes.  A percentile is known only once
+ * min-samples latencies are observed.
+ * <p>
+ * Only max-banks banks get windows of their own, the other banks share
+ * the overflow windows, see {@link TrackedBanks}.
+ */
+@Component
+public class IssuerLatencies {
+
+    private final int windowSize;
+    private final int minSamples;
+    private final TrackedBanks trackedBanks;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IssuerLatencies(@Value("${fraud.verification.latency.window-size:256}") int windowSize,
+                           @Value("${fraud.verification.latency.min-samples:20}") int minSamples,
+                           @Value("${fraud.verification.latency.max-banks:1000}") int maxBanks) {
+        if (minSamples < 1 || minSamples > windowSize)
+            throw new IllegalArgumentException(String.format("Min samples must be between 1 and window size %d, got %d", windowSize, minSamples));
+
+        this.windowSize = windowSize;
+        this.minSamples = minSamples;
+        this.trackedBanks = new TrackedBanks(maxBanks);
+    }
+
+    public void record(String issuingBank, VerificationStep step, long millis) {
+        windows.computeIfAbsent(key(trackedBanks.track(issuingBank), step), k -> new Window(windowSize)).record(millis);
+    }
+
+    public OptionalLong percentile(String issuingBank, VerificationStep step, double percentile) {
+        final Window window = windows.get(key(trackedBanks.of(issuingBank), step));
+        return window == null ? OptionalLong.empty() : window.percentile(percentile, minSamples);
+    }
+
+    private static String key(String issuingBank, VerificationStep step) {
+        return issuingBank + '/' + step.key;
+    }
+
+    // Ring buffer of the last latencies.  Percentiles are computed on a
+    // sorted copy, which is cheap for a window of a few hundred.
+    private static final class Window {
+        private final long[] latencies;
+        private int next;
+        private int size;
+
+        Window(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        synchronized void record(long millis) {
+            latencies[next] = millis;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+        }
+
+        OptionalLong percentile(double percentile, int minSamples) {
+            final long[] sorted;
+            synchronized (this) {
+                if (size < minSamples)
+                    return OptionalLong.empty();
+                sorted = Arrays.copyOf(latencies, size);
+            }
+            Arrays.sort(sorted);
+            final int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+            return OptionalLong.of(sorted[Math.max(0, Math.min(rank, sorted.length - 1))]);
+        }
+    }
+}
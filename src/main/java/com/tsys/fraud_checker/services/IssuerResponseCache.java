@@ -0,0 +1,194 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Size-bounded cache of the issuer verification outcomes, per
+ * verification step.
+ * <p>
+ * An issuer's verdict on a card rarely changes within the hour, so a
+ * repeat customer's verification is answered from the cache until its
+ * entry is older than the step's ttl.  The least recently used entry is
+ * evicted when the cache is full.  A hit older than refresh-ahead of
+ * the ttl is still answered from the cache, but also refreshes the entry
+ * from the issuing bank in the background, so that busy cards do not
+ * wait on the bank when their entry expires.
+ * <p>
+ * Entries are keyed by a {@link CardTokens token} of the issuing bank
+ * and the card number (and the CVV, for the CVV verification), so
+ * neither the raw card number nor the CVV is held by the cache.
+ */
+@Component
+public class IssuerResponseCache {
+
+    private static final Logger LOG = Logger.getLogger(IssuerResponseCache.class.getName());
+
+    private final CardTokens cardTokens;
+    private final Map<VerificationStep, StepCache> caches = new EnumMap<>(VerificationStep.class);
+
+    @Autowired
+    public IssuerResponseCache(CardTokens cardTokens,
+                               @Value("${fraud.verification.cache.cvv.max-size:0}") int cvvMaxSize,
+                               @Value("${fraud.verification.cache.cvv.ttl-millis:900000}") long cvvTtlMillis,
+                               @Value("${fraud.verification.cache.cvv.refresh-ahead:0}") double cvvRefreshAhead,
+                               @Value("${fraud.verification.cache.address.max-size:0}") int addressMaxSize,
+                               @Value("${fraud.verification.cache.address.ttl-millis:3600000}") long addressTtlMillis,
+                               @Value("${fraud.verification.cache.address.refresh-ahead:0}") double addressRefreshAhead) {
+        this.cardTokens = cardTokens;
+        caches.put(VerificationStep.CVV, new StepCache(VerificationStep.CVV, cvvMaxSize, cvvTtlMillis, cvvRefreshAhead));
+        caches.put(VerificationStep.ADDRESS, new StepCache(VerificationStep.ADDRESS, addressMaxSize, addressTtlMillis, addressRefreshAhead));
+    }
+
+    public static IssuerResponseCache disabled() {
+        return new IssuerResponseCache(new CardTokens(""), 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * The cached outcome of the step for the card, else the issuer's, which
+     * is cached once it succeeds.  On a miss, the issuer's future is
+     * returned as is, so cancelling it cancels the issuer verification.
+     */
+    public CompletableFuture<Integer> verified(CreditCard card, VerificationStep step,
+                                               Supplier<CompletableFuture<Integer>> issuer) {
+        final StepCache cache = caches.get(step);
+        if (!cache.isEnabled())
+            return issuer.get();
+
+        final CardTokens.Token key = keyFor(card, step);
+        final Entry entry = cache.lookup(key);
+        if (entry == null) {
+            final CompletableFuture<Integer> verification = issuer.get();
+            verification.thenAccept(status -> cache.store(key, status));
+            return verification;
+        }
+
+        if (cache.claimRefresh(entry)) {
+            LOG.info(() -> String.format("{ 'verified()' : 'Refreshing ahead cached %s at %s' }", step.description, card.issuingBank));
+            issuer.get().whenComplete((status, e) -> {
+                if (e == null)
+                    cache.store(key, status);
+                else
+                    entry.refreshing = false;
+            });
+        }
+        return CompletableFuture.completedFuture(entry.status);
+    }
+
+    public Map<String, Map<String, Object>> cacheCounts() {
+        final Map<String, Map<String, Object>> counts = new LinkedHashMap<>();
+        caches.forEach((step, cache) -> counts.put(step.key, cache.counts()));
+        return counts;
+    }
+
+    private CardTokens.Token keyFor(CreditCard card, VerificationStep step) {
+        final String number = CardTokens.digitsOf(card.number);
+        return step == VerificationStep.CVV
+                ? cardTokens.tokenOf(step.key, card.issuingBank, number, card.cvv)
+                : cardTokens.tokenOf(step.key, card.issuingBank, number);
+    }
+
+    private static final class Entry {
+        private final int status;
+        private final long storedAtNanos;
+        private volatile boolean refreshing;
+
+        Entry(int status, long storedAtNanos) {
+            this.status = status;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+
+    private static final class StepCache {
+        private final int maxSize;
+        private final long ttlNanos;
+        // 0 when not refreshing ahead
+        private final long refreshAfterNanos;
+        private final LinkedHashMap<CardTokens.Token, Entry> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+        private final LongAdder refreshes = new LongAdder();
+
+        StepCache(VerificationStep step, int maxSize, long ttlMillis, double refreshAhead) {
+            if (maxSize < 0)
+                throw new IllegalArgumentException(String.format("%s cache max size must not be negative, got %d", step.description, maxSize));
+            if (refreshAhead < 0 || refreshAhead >= 1)
+                throw new IllegalArgumentException(String.format("%s cache refresh ahead must be in [0, 1), got %s", step.description, refreshAhead));
+
+            this.maxSize = maxSize;
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            this.refreshAfterNanos = (long) (ttlNanos * refreshAhead);
+            // In access order, so the eldest is the least recently used
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CardTokens.Token, Entry> eldest) {
+                    if (size() <= StepCache.this.maxSize)
+                        return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        boolean isEnabled() {
+            return maxSize > 0 && ttlNanos > 0;
+        }
+
+        synchronized Entry lookup(CardTokens.Token key) {
+            final Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.storedAtNanos >= ttlNanos) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            if (entry == null)
+                misses.increment();
+            else
+                hits.increment();
+            return entry;
+        }
+
+        synchronized void store(CardTokens.Token key, int status) {
+            entries.put(key, new Entry(status, System.nanoTime()));
+        }
+
+        // Only one refresh at a time per entry
+        synchronized boolean claimRefresh(Entry entry) {
+            if (refreshAfterNanos == 0 || entry.refreshing
+                    || System.nanoTime() - entry.storedAtNanos < refreshAfterNanos)
+                return false;
+            entry.refreshing = true;
+            refreshes.increment();
+            return true;
+        }
+
+        synchronized Map<String, Object> counts() {
+            final long hitCount = hits.sum();
+            final long lookups = hitCount + misses.sum();
+            final Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("maxSize", maxSize);
+            counts.put("size", entries.size());
+            counts.put("hits", hitCount);
+            counts.put("misses", misses.sum());
+            counts.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+            counts.put("evictions", evictions.sum());
+            counts.put("expirations", expirations.sum());
+            counts.put("refreshes", refreshes.sum());
+            return counts;
+        }
+    }
+}
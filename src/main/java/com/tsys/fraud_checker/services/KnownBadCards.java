@@ -0,0 +1,268 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Cards that recently failed their CVV verification, for rejecting
+ * card-testing bursts before they reach the issuing bank.
+ * <p>
+ * A failed card (its number, CVV and expiry) is remembered as a
+ * {@link CardTokens token} in a Bloom filter sized for expected-entries
+ * at false-positive-rate.  A filter hit is confirmed against a table of
+ * 32-bit token fingerprints, open-addressed in an int[] with room for
+ * expected-entries at a load of 0.75, so a filter false positive does
+ * not reject a good card (but for a fingerprint collision, about one in
+ * a billion of them).
+ * <p>
+ * Both are allocated up front, hence the memory is fixed however many
+ * cards fail: about 1.2 bytes per expected entry for the filter at 1%,
+ * and 5.3 bytes for the fingerprints, per window.  For 10 million
+ * expected entries, that is about 65 MB per window, 130 MB in all.
+ * <p>
+ * Generations rotate every window, and a card is remembered for at most
+ * two windows.  A window in which expected-entries cards failed ends
+ * early, so that the latest failed cards are always remembered and the
+ * filter stays at its false positive rate.
+ */
+@Component
+public class KnownBadCards {
+
+    private static final Logger LOG = Logger.getLogger(KnownBadCards.class.getName());
+
+    private static final double MAX_LOAD = 0.75;
+
+    private final CardTokens cardTokens;
+    private final boolean enabled;
+    private final int bits;
+    private final int hashes;
+    private final int slots;
+    private final int maxEntries;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder remembered = new LongAdder();
+
+    @Autowired
+    public KnownBadCards(CardTokens cardTokens,
+                         @Value("${fraud.verification.known-bad.enabled:false}") boolean enabled,
+                         @Value("${fraud.verification.known-bad.expected-entries:10000000}") long expectedEntries,
+                         @Value("${fraud.verification.known-bad.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${fraud.verification.known-bad.window-millis:3600000}") long windowMillis) {
+        this(cardTokens, enabled, expectedEntries, falsePositiveRate, windowMillis, System::nanoTime);
+    }
+
+    KnownBadCards(CardTokens cardTokens, boolean enabled, long expectedEntries, double falsePositiveRate,
+                  long windowMillis, LongSupplier nanoTime) {
+        if (expectedEntries < 1)
+            throw new IllegalArgumentException(String.format("Known bad cards expected entries must be at least 1, got %d", expectedEntries));
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException(String.format("Known bad cards false positive rate must be in (0, 1), got %s", falsePositiveRate));
+
+        this.cardTokens = cardTokens;
+        this.enabled = enabled;
+        // Optimal Bloom filter for n entries at false positive rate p:
+        // m = -n ln(p) / (ln 2)^2 bits and k = (m / n) ln 2 hashes
+        final double optimalBits = -expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bits = (int) Math.min(Math.ceil(optimalBits / Long.SIZE) * Long.SIZE, Integer.MAX_VALUE - Long.SIZE + 1);
+        this.hashes = Math.max(1, (int) Math.round(optimalBits / expectedEntries * Math.log(2)));
+        this.slots = (int) Math.min(Math.ceil(expectedEntries / MAX_LOAD), Integer.MAX_VALUE - 8);
+        this.maxEntries = (int) Math.min(expectedEntries, (long) (slots * MAX_LOAD));
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoTime = nanoTime;
+        if (enabled) {
+            this.current = new Generation(nanoTime.getAsLong());
+            this.previous = new Generation(nanoTime.getAsLong() - windowNanos);
+            LOG.info(() -> String.format("{ 'knownBadCards' : '%d bits with %d hashes and %d fingerprints (%d MB per window)' }",
+                    bits, hashes, slots, ((long) bits / 8 + (long) slots * Integer.BYTES) / 1024 / 1024));
+        }
+    }
+
+    public static KnownBadCards disabled() {
+        return new KnownBadCards(new CardTokens(""), false, 1, 0.5, 0);
+    }
+
+    public boolean isKnownBad(CreditCard card) {
+        if (!enabled)
+            return false;
+
+        checks.increment();
+        final CardTokens.Token token = tokenOf(card);
+        final Generation now = rotated();
+        for (Generation generation : new Generation[]{now, previous}) {
+            if (!generation.mightContain(token))
+                continue;
+            if (generation.isConfirmed(token)) {
+                rejections.increment();
+                return true;
+            }
+            falsePositives.increment();
+        }
+        return false;
+    }
+
+    public void remember(CreditCard card) {
+        if (!enabled)
+            return;
+
+        final CardTokens.Token token = tokenOf(card);
+        Generation now = rotated();
+        while (!now.put(token))
+            now = rotatedAsFull(now);
+        remembered.increment();
+    }
+
+    public Map<String, Object> knownBadCounts() {
+        final Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("checks", checks.sum());
+        counts.put("rejections", rejections.sum());
+        counts.put("falsePositives", falsePositives.sum());
+        counts.put("remembered", remembered.sum());
+        counts.put("bitsPerWindow", bits);
+        counts.put("hashes", hashes);
+        counts.put("fingerprintsPerWindow", slots);
+        return counts;
+    }
+
+    private CardTokens.Token tokenOf(CreditCard card) {
+        return cardTokens.tokenOf("known-bad", CardTokens.digitsOf(card.number), card.cvv, card.validUntil.getTime());
+    }
+
+    // After an idle gap of two windows or more, the current generation
+    // is as expired as the previous one, and both are started afresh.
+    private Generation rotated() {
+        final Generation now = current;
+        final long elapsedNanos = nanoTime.getAsLong() - now.startedAtNanos;
+        if (elapsedNanos < windowNanos)
+            return now;
+
+        synchronized (this) {
+            if (current == now) {
+                final long startedAtNanos = nanoTime.getAsLong();
+                previous = elapsedNanos < 2 * windowNanos ? now : new Generation(startedAtNanos - windowNanos);
+                current = new Generation(startedAtNanos);
+            }
+            return current;
+        }
+    }
+
+    private Generation rotatedAsFull(Generation full) {
+        synchronized (this) {
+            if (current == full) {
+                LOG.info(() -> String.format("{ 'knownBadCards' : '%d cards remembered, ending the window early' }", maxEntries));
+                previous = full;
+                current = new Generation(nanoTime.getAsLong());
+            }
+            return current;
+        }
+    }
+
+    private final class Generation {
+        private final long startedAtNanos;
+        private final AtomicLongArray words = new AtomicLongArray(bits / Long.SIZE);
+        // 0 marks an empty slot
+        private final AtomicIntegerArray fingerprints = new AtomicIntegerArray(slots);
+        private final AtomicInteger entries = new AtomicInteger();
+
+        Generation(long startedAtNanos) {
+            this.startedAtNanos = startedAtNanos;
+        }
+
+        // False when the generation is full and the token is not in it
+        boolean put(CardTokens.Token token) {
+            if (!confirm(token))
+                return false;
+
+            // Double hashing, the i-th bit index is h1 + i * h2 (mod bits)
+            for (int i = 0; i < hashes; i++) {
+                final int bit = bitFor(token, i);
+                final int word = bit >>> 6;
+                final long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(word);
+                } while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask));
+            }
+            return true;
+        }
+
+        // Linear probing from the token's slot, up to an empty slot
+        private boolean confirm(CardTokens.Token token) {
+            final int fingerprint = fingerprintOf(token);
+            boolean reserved = false;
+            for (int slot = slotFor(token); ; slot = (slot + 1) % slots) {
+                final int found = fingerprints.get(slot);
+                if (found == fingerprint) {
+                    if (reserved)
+                        entries.decrementAndGet();
+                    return true;
+                }
+                if (found != 0)
+                    continue;
+
+                if (!reserved) {
+                    if (entries.incrementAndGet() > maxEntries) {
+                        entries.decrementAndGet();
+                        return false;
+                    }
+                    reserved = true;
+                }
+                if (fingerprints.compareAndSet(slot, 0, fingerprint))
+                    return true;
+                // Taken meanwhile, look at it again
+                slot = (slot + slots - 1) % slots;
+            }
+        }
+
+        boolean isConfirmed(CardTokens.Token token) {
+            final int fingerprint = fingerprintOf(token);
+            for (int slot = slotFor(token); ; slot = (slot + 1) % slots) {
+                final int found = fingerprints.get(slot);
+                if (found == fingerprint)
+                    return true;
+                if (found == 0)
+                    return false;
+            }
+        }
+
+        boolean mightContain(CardTokens.Token token) {
+            for (int i = 0; i < hashes; i++) {
+                final int bit = bitFor(token, i);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private int bitFor(CardTokens.Token token, int i) {
+            return (int) Long.remainderUnsigned(token.high() + i * token.low(), bits);
+        }
+
+        private int slotFor(CardTokens.Token token) {
+            return (int) Long.remainderUnsigned(token.high(), slots);
+        }
+
+        private int fingerprintOf(CardTokens.Token token) {
+            final int fingerprint = (int) (token.low() >>> 32);
+            return fingerprint == 0 ? 1 : fingerprint;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveVerificationService {
+    Mono<FraudStatus> verifyTransactionAuthenticity(CreditCard card, Money charge);
+}
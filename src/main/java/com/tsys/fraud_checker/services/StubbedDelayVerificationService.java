@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Profile("development")
 @Service
@@ -34,6 +36,17 @@ public class StubbedDelayVerificationService implements VerificationService {
     public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
                                                      @NotNull @Valid Money charge) throws InterruptedException {
         Thread.sleep(timeInMillis);
+        return matchingStubResponse(card, charge);
+    }
+
+    @Override
+    public CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(@NotNull @Valid CreditCard card,
+                                                                            @NotNull @Valid Money charge) {
+        return CompletableFuture.supplyAsync(() -> matchingStubResponse(card, charge),
+                CompletableFuture.delayedExecutor(timeInMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private FraudStatus matchingStubResponse(CreditCard card, Money charge) {
         final Optional<StubProvider<FraudCheckPayload, FraudStatus>> stubProvider = stubs.get("/check");
         return stubProvider
                 .filter(sp -> {
@@ -0,0 +1,46 @@
+package com.tsys.fraud_checker.services;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The issuing banks that get state of their own, such as a latency
+ * window or a circuit breaker.
+ * <p>
+ * The issuing bank is sent by the client, so only the first max-banks
+ * banks seen are tracked, and the long tail of banks share the overflow
+ * entry, as banks without a bulkhead lane share the overflow lane.
+ * Hence, made up bank names cannot grow that state without limit.
+ */
+final class TrackedBanks {
+
+    static final String OVERFLOW = "overflow";
+
+    private final int maxBanks;
+    private final Set<String> banks = ConcurrentHashMap.newKeySet();
+
+    TrackedBanks(int maxBanks) {
+        if (maxBanks < 0)
+            throw new IllegalArgumentException(String.format("Max banks must not be negative, got %d", maxBanks));
+
+        this.maxBanks = maxBanks;
+    }
+
+    // The bank, tracking it if there is still room, else the overflow
+    String track(String issuingBank) {
+        if (banks.contains(issuingBank))
+            return issuingBank;
+        synchronized (banks) {
+            if (banks.size() < maxBanks) {
+                banks.add(issuingBank);
+                return issuingBank;
+            }
+        }
+        return OVERFLOW;
+    }
+
+    // The bank if it is tracked, else the overflow, without tracking it
+    String of(String issuingBank) {
+        return banks.contains(issuingBank) ? issuingBank : OVERFLOW;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+
+/**
+ * A card and charge that the caller has already validated against their
+ * constraints, for example, Spring MVC validating a request body.  The
+ * {@link VerificationService} verifies it without validating the card
+ * and charge all over again.
+ * <p>
+ * Creating one is the caller's word that the card and charge are valid,
+ * it is not checked.  Callers that have not validated them must use the
+ * verifications that take the card and charge instead.
+ */
+public final class ValidatedTransaction {
+
+    public final CreditCard card;
+    public final Money charge;
+
+    private ValidatedTransaction(CreditCard card, Money charge) {
+        this.card = card;
+        this.charge = charge;
+    }
+
+    public static ValidatedTransaction alreadyValidated(CreditCard card, Money charge) {
+        return new ValidatedTransaction(card, charge);
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatedTransaction{" +
+                "card=" + card +
+                ", charge=" + charge +
+                '}';
+    }
+}
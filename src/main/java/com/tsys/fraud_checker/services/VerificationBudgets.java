@@ -0,0 +1,69 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency budgets of the verification steps of a fraud check.
+ * <p>
+ * The steps run concurrently, so each gets its share of the budget
+ * remaining when it starts, and the rest is left for responding.  A
+ * check with a step that exceeds its budget is answered with the
+ * degraded overall status instead of a late one.
+ */
+@Component
+public class VerificationBudgets {
+
+    private static final Set<String> OVERALL_STATUSES = Set.of(FraudStatus.PASS, FraudStatus.FAIL, FraudStatus.SUSPICIOUS);
+
+    private final Map<VerificationStep, Double> shares = new EnumMap<>(VerificationStep.class);
+    private final Map<VerificationStep, LongAdder> exceeded = new EnumMap<>(VerificationStep.class);
+    private final String degradedStatus;
+
+    @Autowired
+    public VerificationBudgets(@Value("${fraud.verification.budget.cvv-share:0.9}") double cvvShare,
+                               @Value("${fraud.verification.budget.address-share:0.9}") double addressShare,
+                               @Value("${fraud.verification.budget.degraded-status:suspicious}") String degradedStatus) {
+        if (!OVERALL_STATUSES.contains(degradedStatus))
+            throw new IllegalArgumentException(String.format("Degraded status must be one of %s, got %s", OVERALL_STATUSES, degradedStatus));
+
+        shares.put(VerificationStep.CVV, requireShare(cvvShare));
+        shares.put(VerificationStep.ADDRESS, requireShare(addressShare));
+        for (VerificationStep step : VerificationStep.values())
+            exceeded.put(step, new LongAdder());
+        this.degradedStatus = degradedStatus;
+    }
+
+    private static double requireShare(double share) {
+        if (share <= 0 || share > 1)
+            throw new IllegalArgumentException(String.format("Budget share must be in (0, 1], got %s", share));
+
+        return share;
+    }
+
+    public Deadline budgetFor(VerificationStep step, Deadline deadline) {
+        return deadline.share(shares.get(step));
+    }
+
+    public String degradedStatus() {
+        return degradedStatus;
+    }
+
+    void budgetExceeded(VerificationStep step) {
+        exceeded.get(step).increment();
+    }
+
+    public Map<String, Long> budgetExceededCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        exceeded.forEach((step, count) -> counts.put(step.key, count.sum()));
+        return counts;
+    }
+}
@@ -6,8 +6,37 @@ import com.tsys.fraud_checker.domain.Money;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.util.concurrent.CompletableFuture;
 
 public interface VerificationService {
     FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
                                               @NotNull @Valid Money charge) throws InterruptedException;
+
+    CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(@NotNull @Valid CreditCard card,
+                                                                     @NotNull @Valid Money charge);
+
+    // Implementations without latency budgets ignore the deadline.
+    default FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                      @NotNull @Valid Money charge,
+                                                      @NotNull Deadline deadline) throws InterruptedException {
+        return verifyTransactionAuthenticity(card, charge);
+    }
+
+    default CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(@NotNull @Valid CreditCard card,
+                                                                             @NotNull @Valid Money charge,
+                                                                             @NotNull Deadline deadline) {
+        return verifyTransactionAuthenticityAsync(card, charge);
+    }
+
+    // For a transaction the caller has already validated, so that a
+    // validating implementation does not validate it again.  There are
+    // no constraints here, the service's @Validated proxy has nothing to
+    // validate and the default calls the implementation directly.
+    default FraudStatus verifyValidated(ValidatedTransaction transaction, Deadline deadline) throws InterruptedException {
+        return verifyTransactionAuthenticity(transaction.card, transaction.charge, deadline);
+    }
+
+    default CompletableFuture<FraudStatus> verifyValidatedAsync(ValidatedTransaction transaction, Deadline deadline) {
+        return verifyTransactionAuthenticityAsync(transaction.card, transaction.charge, deadline);
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 @Profile("development")
@@ -36,4 +37,44 @@ public class VerificationServiceRouter implements VerificationService {
         else
             return stubbedDelayVerificationService.verifyTransactionAuthenticity(card, charge);
     }
+
+    public CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(CreditCard card, Money charge) {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyTransactionAuthenticityAsync(card, charge);
+        else
+            return stubbedDelayVerificationService.verifyTransactionAuthenticityAsync(card, charge);
+    }
+
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Deadline deadline) throws InterruptedException {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyTransactionAuthenticity(card, charge, deadline);
+        else
+            return stubbedDelayVerificationService.verifyTransactionAuthenticity(card, charge, deadline);
+    }
+
+    public CompletableFuture<FraudStatus> verifyTransactionAuthenticityAsync(CreditCard card, Money charge, Deadline deadline) {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyTransactionAuthenticityAsync(card, charge, deadline);
+        else
+            return stubbedDelayVerificationService.verifyTransactionAuthenticityAsync(card, charge, deadline);
+    }
+
+    public FraudStatus verifyValidated(ValidatedTransaction transaction, Deadline deadline) throws InterruptedException {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyValidated(transaction, deadline);
+        else
+            return stubbedDelayVerificationService.verifyValidated(transaction, deadline);
+    }
+
+    public CompletableFuture<FraudStatus> verifyValidatedAsync(ValidatedTransaction transaction, Deadline deadline) {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyValidatedAsync(transaction, deadline);
+        else
+            return stubbedDelayVerificationService.verifyValidatedAsync(transaction, deadline);
+    }
 }
@@ -0,0 +1,17 @@
+package com.tsys.fraud_checker.services;
+
+/**
+ * The issuer verifications that make up a fraud check.
+ */
+public enum VerificationStep {
+    CVV("cvv", "CVV verification"),
+    ADDRESS("address", "Address verification");
+
+    public final String key;
+    public final String description;
+
+    VerificationStep(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CardNetwork;
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * A card number of min to max characters, that passes the Luhn check
+ * ignoring non-digit characters, and is of one of the networks, if any
+ * are given.  In place of @Length, @CreditCardNumber and @LuhnCheck,
+ * with a violation for each of those that would fail.
+ */
+@Target({FIELD, PARAMETER})
+@Retention(RUNTIME)
+@Documented
+@Constraint(validatedBy = {CardNumberValidator.class})
+public @interface CardNumber {
+    String message() default "{org.hibernate.validator.constraints.CreditCardNumber.message}";
+
+    String lengthMessage() default "{org.hibernate.validator.constraints.Length.message}";
+
+    String luhnMessage() default "failed Luhn check";
+
+    String networkMessage() default "card network is not accepted";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    int min() default 0;
+
+    int max() default Integer.MAX_VALUE;
+
+    // Any network, known or not, when none are given
+    CardNetwork[] networks() default {};
+}
@@ -0,0 +1,68 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CardNetwork;
+import com.tsys.fraud_checker.domain.CardNumbers;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Checks the length, Luhn checksum and network of a card number in a
+ * single {@link CardNumbers#scan(CharSequence) scan}.
+ */
+public class CardNumberValidator implements ConstraintValidator<CardNumber, CharSequence> {
+
+    private int min;
+    private int max;
+    private Set<CardNetwork> networks;
+    private String message;
+    private String lengthMessage;
+    private String luhnMessage;
+    private String networkMessage;
+
+    public void initialize(CardNumber parameters) {
+        min = parameters.min();
+        max = parameters.max();
+        networks = parameters.networks().length == 0
+                ? EnumSet.allOf(CardNetwork.class)
+                : EnumSet.of(parameters.networks()[0], parameters.networks());
+        message = parameters.message();
+        lengthMessage = parameters.lengthMessage();
+        luhnMessage = parameters.luhnMessage();
+        networkMessage = parameters.networkMessage();
+        validateParameters();
+    }
+
+    private void validateParameters() {
+        if (min < 0)
+            throw new IllegalArgumentException("min must not be negative");
+        if (max < min)
+            throw new IllegalArgumentException("max must not be less than min");
+    }
+
+    @Override
+    public boolean isValid(CharSequence number, ConstraintValidatorContext context) {
+        if (number == null)
+            return true;
+
+        final int scan = CardNumbers.scan(number);
+        final boolean validLength = number.length() >= min && number.length() <= max;
+        final boolean luhnValid = CardNumbers.isLuhnValid(scan);
+        final boolean acceptedNetwork = networks.contains(CardNumbers.networkOf(scan));
+        if (validLength && luhnValid && acceptedNetwork)
+            return true;
+
+        context.disableDefaultConstraintViolation();
+        if (!validLength)
+            context.buildConstraintViolationWithTemplate(lengthMessage).addConstraintViolation();
+        if (!luhnValid) {
+            context.buildConstraintViolationWithTemplate(luhnMessage).addConstraintViolation();
+            context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        }
+        if (!acceptedNetwork)
+            context.buildConstraintViolationWithTemplate(networkMessage).addConstraintViolation();
+        return false;
+    }
+}
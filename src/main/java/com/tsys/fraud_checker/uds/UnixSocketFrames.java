@@ -0,0 +1,49 @@
+package com.tsys.fraud_checker.uds;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The framing on the Unix domain socket, all integers big-endian:
+ * <pre>
+ *   request:  length (4 bytes) | correlation id (4 bytes) | body
+ *   response: length (4 bytes) | correlation id (4 bytes) | status (2 bytes) | body
+ * </pre>
+ * The length is of what follows it.  A request body is a /check payload
+ * in JSON, a response body is what /check answers with that status,
+ * in JSON.  The correlation id is the client's, the server echoes it, as
+ * it answers each request when its check completes.
+ */
+final class UnixSocketFrames {
+
+    static final int CORRELATION_ID_LENGTH = 4;
+    static final int STATUS_LENGTH = 2;
+
+    private UnixSocketFrames() {}
+
+    // Called with the stream locked by the caller, as frames must not interleave
+    static void writeRequest(DataOutputStream out, int correlationId, byte[] body) throws IOException {
+        out.writeInt(CORRELATION_ID_LENGTH + body.length);
+        out.writeInt(correlationId);
+        out.write(body);
+        out.flush();
+    }
+
+    static void writeResponse(DataOutputStream out, int correlationId, int status, byte[] body) throws IOException {
+        out.writeInt(CORRELATION_ID_LENGTH + STATUS_LENGTH + body.length);
+        out.writeInt(correlationId);
+        out.writeShort(status);
+        out.write(body);
+        out.flush();
+    }
+
+    // The length of the frame that follows, checked against maxFrameLength
+    static int readLength(DataInputStream in, int minLength, int maxFrameLength) throws IOException {
+        final int length = in.readInt();
+        if (length < minLength || length > maxFrameLength)
+            throw new IOException(String.format("Frame of %d bytes, expected %d to %d", length, minLength, maxFrameLength));
+
+        return length;
+    }
+}
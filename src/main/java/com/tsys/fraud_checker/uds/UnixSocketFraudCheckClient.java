@@ -0,0 +1,128 @@
+package com.tsys.fraud_checker.uds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.web.FraudCheckJsonCodec;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A client of the {@link UnixSocketFraudCheckServer}, for a gateway in
+ * the same pod.  Checks are pipelined on a single connection - any number
+ * of threads may check at a time, each check completes when its response
+ * arrives, correlated by its id.
+ * <pre>
+ *   try (var client = new UnixSocketFraudCheckClient(Path.of("/var/run/fraud-checker/fraud-checker.sock"), objectMapper)) {
+ *       final var response = client.check(payload).join();
+ *       if (response.status() == 200) ...
+ *   }
+ * </pre>
+ */
+public class UnixSocketFraudCheckClient implements Closeable {
+
+    // The status and the JSON body /check answers with
+    public record Response(int status, String body) {}
+
+    private static final int MAX_RESPONSE_LENGTH = 64 * 1024;
+
+    private final FraudCheckJsonCodec codec;
+    private final SocketChannel channel;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final Map<Integer, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger correlationIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    public UnixSocketFraudCheckClient(Path path, ObjectMapper objectMapper) throws IOException {
+        this.codec = new FraudCheckJsonCodec(objectMapper);
+        this.channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        Thread.ofVirtual().name("fraud-uds-client").start(this::readResponses);
+    }
+
+    public CompletableFuture<Response> check(FraudCheckPayload payload) {
+        final var body = new ByteArrayOutputStream(256);
+        try {
+            codec.writePayload(payload, body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return check(body.toByteArray());
+    }
+
+    // For a payload already in JSON
+    public CompletableFuture<Response> check(byte[] jsonPayload) {
+        final int correlationId = correlationIds.incrementAndGet();
+        final var response = new CompletableFuture<Response>();
+        pending.put(correlationId, response);
+        if (closed) {
+            failPending(new EOFException("Connection closed by the server"));
+            return response;
+        }
+        try {
+            synchronized (out) {
+                UnixSocketFrames.writeRequest(out, correlationId, jsonPayload);
+            }
+        } catch (IOException e) {
+            pending.remove(correlationId);
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readResponses() {
+        try {
+            while (true) {
+                final int length = UnixSocketFrames.readLength(in,
+                        UnixSocketFrames.CORRELATION_ID_LENGTH + UnixSocketFrames.STATUS_LENGTH, MAX_RESPONSE_LENGTH);
+                final int correlationId = in.readInt();
+                final int status = in.readUnsignedShort();
+                final byte[] body = new byte[length - UnixSocketFrames.CORRELATION_ID_LENGTH - UnixSocketFrames.STATUS_LENGTH];
+                in.readFully(body);
+                final CompletableFuture<Response> response = pending.remove(correlationId);
+                if (response != null)
+                    response.complete(new Response(status, new String(body, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            closed = true;
+            failPending(e);
+        }
+    }
+
+    private void failPending(IOException e) {
+        for (Integer correlationId : pending.keySet()) {
+            final CompletableFuture<Response> response = pending.remove(correlationId);
+            if (response != null)
+                response.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.tsys.fraud_checker.uds;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.FraudCheckJsonCodec;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayloadValidator;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import org.springframework.validation.DirectFieldBindingResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves /check on a Unix domain socket, for a gateway in the same pod,
+ * without going through the loopback TCP stack and HTTP.  See
+ * {@link UnixSocketFrames} for the framing.
+ * <p>
+ * A request is answered as /check answers it, with the same status and
+ * JSON body: 200 and the Fraud Status, 400 and the validation errors of
+ * the same rules (see {@link FraudCheckPayloadValidator}), 400 for a
+ * malformed payload, 503 for a check not completed within timeoutMillis,
+ * and 500 when its Fraud Status could not be determined.
+ * <p>
+ * Each connection is read on a virtual thread of its own, and requests
+ * are pipelined - a request is read while the earlier ones are checked,
+ * and each is answered when its check completes, hence not in the order
+ * of the requests.  As in /check/stream, at most maxInFlight checks are
+ * in flight on a connection, beyond that nothing more is read from it
+ * until one completes.
+ */
+public class UnixSocketFraudCheckServer implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(UnixSocketFraudCheckServer.class.getName());
+
+    private final VerificationService verificationService;
+    private final FraudCheckPayloadValidator validator = new FraudCheckPayloadValidator();
+    private final FraudCheckJsonCodec codec;
+    private final ObjectMapper objectMapper;
+    private final byte[] malformedPayload;
+    private final byte[] undetermined;
+    private final Path path;
+    private final int maxFrameLength;
+    private final int maxInFlight;
+    private final long timeoutMillis;
+    private final ServerSocketChannel serverChannel;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    public UnixSocketFraudCheckServer(VerificationService verificationService,
+                                      ObjectMapper objectMapper,
+                                      Path path,
+                                      int maxFrameLength,
+                                      int maxInFlight,
+                                      long timeoutMillis) throws IOException {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException(String.format("Max in flight must be at least 1, got %d", maxInFlight));
+
+        this.verificationService = verificationService;
+        this.codec = new FraudCheckJsonCodec(objectMapper);
+        this.objectMapper = objectMapper;
+        this.malformedPayload = objectMapper.writeValueAsBytes(Map.of("error", "Malformed Fraud Check Payload!"));
+        this.undetermined = objectMapper.writeValueAsBytes(Map.of("error", "Fraud Status could not be determined!"));
+        this.path = path;
+        this.maxFrameLength = maxFrameLength;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMillis = timeoutMillis;
+        deleteStaleSocket(path);
+        this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            serverChannel.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+        Thread.ofVirtual().name("fraud-uds-acceptor").start(this::accept);
+        LOG.info(() -> String.format("Unix Socket Fraud Check Server listening on %s", path));
+    }
+
+    // The socket file of an earlier run, which was not closed, fails the bind
+    private static void deleteStaleSocket(Path path) throws IOException {
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)
+                && Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther())
+            Files.delete(path);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        for (SocketChannel connection : connections)
+            connection.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void accept() {
+        try {
+            while (serverChannel.isOpen()) {
+                final SocketChannel connection = serverChannel.accept();
+                connections.add(connection);
+                Thread.ofVirtual().name("fraud-uds-connection").start(() -> serve(connection));
+            }
+        } catch (AsynchronousCloseException e) {
+            LOG.fine("Unix Socket Fraud Check Server closed");
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Unix Socket Fraud Check Server stopped accepting connections", e);
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        try (connection) {
+            final var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            final var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+            try {
+                while (writeFailure.get() == null) {
+                    final int length;
+                    try {
+                        length = UnixSocketFrames.readLength(in, UnixSocketFrames.CORRELATION_ID_LENGTH, maxFrameLength);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    final int correlationId = in.readInt();
+                    final byte[] body = in.readNBytes(length - UnixSocketFrames.CORRELATION_ID_LENGTH);
+                    if (body.length < length - UnixSocketFrames.CORRELATION_ID_LENGTH)
+                        throw new EOFException("Connection closed within a frame");
+
+                    check(correlationId, body, out, inFlight, writeFailure);
+                }
+            } finally {
+                // Answer the checks still in flight before closing
+                inFlight.acquireUninterruptibly(maxInFlight);
+            }
+        } catch (IOException e) {
+            LOG.warning(() -> String.format("{ 'uds' : 'Closing a connection: %s'}", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(connection);
+        }
+        if (writeFailure.get() != null)
+            LOG.warning(() -> String.format("{ 'uds' : 'Closed a connection, failed writing responses with %s'}", writeFailure.get()));
+    }
+
+    private void check(int correlationId, byte[] body, DataOutputStream out, Semaphore inFlight,
+                       AtomicReference<IOException> writeFailure) throws InterruptedException {
+        final FraudCheckPayload payload;
+        try {
+            payload = codec.readPayload(new ByteArrayInputStream(body));
+        } catch (IOException | RuntimeException e) {
+            LOG.fine(() -> String.format("{ 'uds' : 'Request %d is malformed: %s'}", correlationId, e));
+            write(out, correlationId, 400, malformedPayload, writeFailure);
+            return;
+        }
+        if (payload == null) {
+            write(out, correlationId, 400, malformedPayload, writeFailure);
+            return;
+        }
+
+        final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+        validator.validate(payload, errors);
+        if (errors.hasErrors()) {
+            write(out, correlationId, 400, json(ValidationErrorsResponse.from(errors)), writeFailure);
+            return;
+        }
+
+        // Blocks reading the next request until a check in flight completes
+        inFlight.acquire();
+        final CompletableFuture<FraudStatus> verification;
+        try {
+            // Validated above, so the service need not validate it again
+            verification = verificationService.verifyValidatedAsync(ValidatedTransaction.alreadyValidated(payload.creditCard, payload.charge), Deadline.none())
+                    .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            LOG.warning(() -> String.format("{ 'uds' : 'Request %d not verified: %s'}", correlationId, e));
+            write(out, correlationId, 500, undetermined, writeFailure);
+            return;
+        }
+        verification.whenComplete((fraudStatus, e) -> {
+            try {
+                if (e == null)
+                    write(out, correlationId, 200, json(fraudStatus), writeFailure);
+                else
+                    write(out, correlationId, e instanceof TimeoutException ? 503 : 500, undetermined, writeFailure);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private byte[] json(FraudStatus fraudStatus) {
+        try {
+            final var body = new ByteArrayOutputStream(128);
+            codec.writeFraudStatus(fraudStatus, body);
+            return body.toByteArray();
+        } catch (IOException e) {
+            return undetermined;
+        }
+    }
+
+    private byte[] json(ValidationErrorsResponse validationErrors) {
+        try {
+            return objectMapper.writeValueAsBytes(validationErrors);
+        } catch (JsonProcessingException e) {
+            return undetermined;
+        }
+    }
+
+    private static void write(DataOutputStream out, int correlationId, int status, byte[] body,
+                              AtomicReference<IOException> writeFailure) {
+        if (writeFailure.get() != null)
+            return;
+        try {
+            synchronized (out) {
+                UnixSocketFrames.writeResponse(out, correlationId, status, body);
+            }
+        } catch (IOException e) {
+            writeFailure.compareAndSet(null, e);
+        }
+    }
+}
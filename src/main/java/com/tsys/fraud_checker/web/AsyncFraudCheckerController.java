@@ -0,0 +1,110 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+@Tag(name = "Async Fraud Check Controller", description = "Checks for Credit Card Frauds using CVV and Address Check, without holding on to the request thread.")
+// NOTE:
+// =====
+// Returning a CompletableFuture puts the request in async mode.  The
+// Servlet container thread is released as soon as this method returns
+// and the response is written when the future completes, so a small
+// connector pool can serve many in-flight checks.
+//
+// As for FraudCheckerController, @Validated at class level is needed for
+// the constraint on the deadline header to be evaluated.
+@Controller
+@Validated
+@RequestMapping("/async")
+public class AsyncFraudCheckerController {
+
+    private static final Logger LOG = Logger.getLogger(AsyncFraudCheckerController.class.getName());
+
+    private final VerificationService verificationService;
+    private final long timeoutMillis;
+
+    @Autowired
+    public AsyncFraudCheckerController(VerificationService verificationService,
+                                       @Value("${fraud.check.async.timeout-millis:10000}") long timeoutMillis) {
+        this.verificationService = verificationService;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Operation(summary = "Check possibility of a fradulent transaction and return a status to the caller asynchronously.",
+        parameters = {
+            @Parameter(name = FraudCheckerController.DEADLINE_HEADER,
+                schema = @Schema(implementation = Long.class),
+                description = "Optional latency budget in millis.  When the verifications cannot complete within it, a degraded Fraud Status with a reason is returned.")
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody (content = {
+                        @Content(schema = @Schema(implementation = FraudCheckPayload.class),
+                            mediaType = "application/json") }))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Got Fraud Status for the check", content = { @Content(schema = @Schema(title = "Fraud Status", implementation = FraudStatus.class), mediaType = "application/json") }),
+        @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = "application/json")
+        }),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error"),
+        @ApiResponse(responseCode = "503", description = "Fraud Status could not be determined in time")
+    })
+    @PostMapping(value = "check", consumes = "application/json", produces = "application/json")
+    public CompletableFuture<ResponseEntity<FraudStatus>> checkFraud(
+            @RequestBody @Valid FraudCheckPayload payload,
+            @RequestHeader(value = FraudCheckerController.DEADLINE_HEADER, required = false)
+            @Min(value = 1, message = "Deadline must be at least 1 ms") Long deadlineMillis) {
+        LOG.info(() -> String.format("{ 'checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
+        // Already validated when bound, see FraudCheckPayloadValidator
+        final var transaction = ValidatedTransaction.alreadyValidated(payload.creditCard, payload.charge);
+        final CompletableFuture<FraudStatus> verification = verificationService.verifyValidatedAsync(transaction,
+                deadlineMillis == null ? Deadline.none() : Deadline.after(deadlineMillis));
+        // On a timeout, orTimeout completes the verification exceptionally
+        // and that cancels the in-flight issuer verifications.
+        return verification
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((fraudStatus, e) -> {
+                    if (e == null) {
+                        LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus));
+                        return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(fraudStatus);
+                    }
+
+                    final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        LOG.info(() -> String.format("{ 'checkFraud' : 'Timed out after %d ms'}", timeoutMillis));
+                        return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+                    }
+                    LOG.severe(() -> String.format("{ 'checkFraud' : 'Failed with %s'}", cause));
+                    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                });
+    }
+}
@@ -0,0 +1,134 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+@Tag(name = "Batch Fraud Check Controller", description = "Checks many transactions for Credit Card Frauds in a single request.")
+// NOTE:
+// =====
+// There is no @Valid on the payloads, as one invalid payload must not
+// fail the whole batch.  Instead, each payload is validated on its own
+// and gets either its FraudStatus or its ValidationErrors, in the same
+// order as the payloads.  Likewise, a payload whose verification failed
+// gets a degraded FraudStatus, and the rest of the batch is answered.
+@Controller
+@RequestMapping("/check")
+public class BatchFraudCheckerController {
+
+    private static final Logger LOG = Logger.getLogger(BatchFraudCheckerController.class.getName());
+
+    private final VerificationService verificationService;
+    private final FraudCheckPayloadValidator validator = new FraudCheckPayloadValidator();
+    private final ForkJoinPool batchVerificationPool;
+    private final int maxBatchSize;
+
+    @Autowired
+    public BatchFraudCheckerController(VerificationService verificationService,
+                                       @Qualifier("batchVerificationPool") ForkJoinPool batchVerificationPool,
+                                       @Value("${fraud.check.batch.max-size:500}") int maxBatchSize) {
+        this.verificationService = verificationService;
+        this.batchVerificationPool = batchVerificationPool;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Operation(summary = "Check a batch of transactions for possible frauds and return a result for each, in the same order.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody (content = {
+                        @Content(array = @ArraySchema(schema = @Schema(implementation = FraudCheckPayload.class)),
+                            mediaType = "application/json") }))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Got a result for each check in the batch", content = { @Content(array = @ArraySchema(schema = @Schema(implementation = FraudCheckResult.class)), mediaType = "application/json") }),
+        @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = "application/json")
+        }),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PostMapping(value = "batch", consumes = "application/json", produces = "application/json")
+    public CompletableFuture<ResponseEntity<?>> checkFraudInBatch(
+            @RequestBody List<FraudCheckPayload> payloads) {
+        LOG.info(() -> String.format("{ 'checkFraudInBatch' : ' for %d payloads'}", payloads.size()));
+        if (payloads.size() > maxBatchSize) {
+            final var errors = new ValidationErrorsResponse();
+            errors.add(new ValidationError("payloads", String.format("A maximum of %d checks can be batched", maxBatchSize)));
+            return CompletableFuture.completedFuture(new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST));
+        }
+
+        // The same card occurring many times in the batch is verified with
+        // its issuing bank only once, whatever its charges: the CVV and the
+        // address verifications depend on the card alone, so each of its
+        // payloads gets the same FraudStatus.
+        final Map<CreditCard, CompletableFuture<FraudStatus>> verifications = new ConcurrentHashMap<>();
+        final List<CompletableFuture<FraudCheckResult>> results = payloads.stream()
+                .map(payload -> CompletableFuture.supplyAsync(() -> validate(payload), batchVerificationPool)
+                        .thenCompose(validationErrors -> validationErrors.validationErrors.isEmpty()
+                                ? verifications.computeIfAbsent(payload.creditCard,
+                                        card -> verify(card, payload))
+                                    .thenApply(FraudCheckResult::of)
+                                : CompletableFuture.completedFuture(FraudCheckResult.of(validationErrors)))
+                        .exceptionally(e -> undetermined(payload, e)))
+                .toList();
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(allChecked -> {
+                    LOG.info(() -> String.format("{ 'checkFraudInBatch' : '%d payloads, %d distinct cards verified'}", payloads.size(), verifications.size()));
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(results.stream().map(CompletableFuture::join).toList());
+                });
+    }
+
+    // Neither passed nor failed, as the issuing bank did not answer, for
+    // example, when its lane is full
+    private static FraudCheckResult undetermined(FraudCheckPayload payload, Throwable e) {
+        LOG.warning(() -> String.format("{ 'checkFraudInBatch' : 'Fraud Status of %s could not be determined: %s'}",
+                payload == null ? null : payload.creditCard, e));
+        return FraudCheckResult.of(FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Fraud Status could not be determined"));
+    }
+
+    // With the same rules as /check, see FraudCheckPayloadValidator
+    private ValidationErrorsResponse validate(FraudCheckPayload payload) {
+        if (payload == null) {
+            final var errors = new ValidationErrorsResponse();
+            errors.add(new ValidationError("payload", "Require Fraud Check Payload!"));
+            return errors;
+        }
+        final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+        validator.validate(payload, errors);
+        return ValidationErrorsResponse.from(errors);
+    }
+
+    // Validated above, so the service need not validate it again
+    private CompletableFuture<FraudStatus> verify(CreditCard card, FraudCheckPayload payload) {
+        return verificationService.verifyValidatedAsync(ValidatedTransaction.alreadyValidated(card, payload.charge), Deadline.none());
+    }
+}
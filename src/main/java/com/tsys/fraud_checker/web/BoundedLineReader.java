@@ -0,0 +1,95 @@
+package com.tsys.fraud_checker.web;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines, as BufferedReader.readLine() does, but of at most
+ * maxLineLength characters, so that a line without an end is never
+ * buffered whole.
+ * <p>
+ * An over-long line is read up to its end and dropped, and is reported
+ * with a {@link LineTooLongException}.  The next call reads the line
+ * after it.
+ */
+final class BoundedLineReader implements Closeable {
+
+    private final Reader in;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+
+    BoundedLineReader(Reader in, int maxLineLength) {
+        if (maxLineLength < 1)
+            throw new IllegalArgumentException(String.format("Max line length must be at least 1, got %d", maxLineLength));
+
+        this.in = in;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * The next line without its line terminator, or null at the end of
+     * the stream.
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        while (true) {
+            if (position == limit) {
+                final int read = in.read(buffer, 0, buffer.length);
+                if (read < 0)
+                    return lastLine(tooLong);
+                position = 0;
+                limit = read;
+            }
+
+            int end = position;
+            while (end < limit && buffer[end] != '\n')
+                end++;
+            // One more than the max, for the '\r' of a "\r\n"
+            if (!tooLong) {
+                line.append(buffer, position, Math.min(end - position, maxLineLength + 2 - line.length()));
+                tooLong = line.length() > maxLineLength + 1;
+            }
+            if (end == limit) {
+                position = limit;
+                continue;
+            }
+
+            position = end + 1;
+            return completeLine(tooLong);
+        }
+    }
+
+    // The last line of the stream need not end with a line terminator
+    private String lastLine(boolean tooLong) throws LineTooLongException {
+        if (!tooLong && line.isEmpty())
+            return null;
+
+        return completeLine(tooLong);
+    }
+
+    private String completeLine(boolean tooLong) throws LineTooLongException {
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r')
+            line.setLength(line.length() - 1);
+        if (tooLong || line.length() > maxLineLength) {
+            line.setLength(0);
+            throw new LineTooLongException(maxLineLength);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    static final class LineTooLongException extends IOException {
+        LineTooLongException(int maxLineLength) {
+            super(String.format("Line longer than %d characters", maxLineLength));
+        }
+    }
+}
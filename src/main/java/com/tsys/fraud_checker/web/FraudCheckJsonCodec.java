@@ -0,0 +1,425 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Reads and writes the JSON of a {@link FraudCheckPayload} (with its
+ * {@link CreditCard} and {@link Money}) and of a {@link FraudStatus}
+ * token by token, with Jackson's streaming parser and generator, instead
+ * of Jackson's reflective data binding.
+ * <p>
+ * The JSON is the same as the ObjectMapper reads and writes.  The common
+ * shapes - strings, numbers, nulls and ISO-8601 dates with an offset -
+ * are handled here, and any other shape of a value (a date without an
+ * offset, a number given as a string and so on) is read or written by
+ * the ObjectMapper, so that it is accepted or rejected exactly as before.
+ * Unknown properties are skipped or rejected as the ObjectMapper is
+ * configured to.
+ * <p>
+ * With the ObjectMapper of a binary format, CBOR or Smile, the same
+ * fields are read and written in that format instead.
+ */
+public final class FraudCheckJsonCodec {
+
+    private static final SerializedString CREDIT_CARD = new SerializedString("creditCard");
+    private static final SerializedString CHARGE = new SerializedString("charge");
+    private static final SerializedString NUMBER = new SerializedString("number");
+    private static final SerializedString HOLDER_NAME = new SerializedString("holderName");
+    private static final SerializedString ISSUING_BANK = new SerializedString("issuingBank");
+    private static final SerializedString VALID_UNTIL = new SerializedString("validUntil");
+    private static final SerializedString CVV = new SerializedString("cvv");
+    private static final SerializedString CURRENCY = new SerializedString("currency");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString CVV_STATUS = new SerializedString("cvvStatus");
+    private static final SerializedString AV_STATUS = new SerializedString("avStatus");
+    private static final SerializedString OVERALL = new SerializedString("overall");
+    private static final SerializedString REASON = new SerializedString("reason");
+
+    private final JsonFactory jsonFactory;
+    private final boolean textJson;
+    private final boolean failOnUnknownProperties;
+    private final boolean indentOutput;
+    private final boolean writeDatesAsTimestamps;
+    private final boolean readsIsoDates;
+    private final boolean writesIsoDatesInUtc;
+
+    // For the values off the fast path
+    private final ObjectReader creditCardReader;
+    private final ObjectReader moneyReader;
+    private final ObjectReader stringReader;
+    private final ObjectReader dateReader;
+    private final ObjectReader integerReader;
+    private final ObjectReader currencyReader;
+    private final ObjectReader amountReader;
+    private final ObjectWriter dateWriter;
+
+    // Canonical Fraud Statuses, pre-encoded in a binary format
+    private final Map<FraudStatus, byte[]> preEncoded = new IdentityHashMap<>();
+
+    public FraudCheckJsonCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.textJson = JsonFactory.FORMAT_NAME_JSON.equals(jsonFactory.getFormatName());
+        this.failOnUnknownProperties = objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.indentOutput = objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT);
+        this.writeDatesAsTimestamps = objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Unless a date format is configured (spring.jackson.date-format),
+        // dates are read and written by StdDateFormat
+        this.readsIsoDates = objectMapper.getDeserializationConfig().getDateFormat() instanceof StdDateFormat;
+        this.writesIsoDatesInUtc = objectMapper.getSerializationConfig().getDateFormat() instanceof StdDateFormat dateFormat
+                && dateFormat.isColonIncludedInTimeZone()
+                && isUtc(objectMapper.getSerializationConfig().getTimeZone());
+        this.creditCardReader = objectMapper.readerFor(CreditCard.class);
+        this.moneyReader = objectMapper.readerFor(Money.class);
+        this.stringReader = objectMapper.readerFor(String.class);
+        this.dateReader = objectMapper.readerFor(Date.class);
+        this.integerReader = objectMapper.readerFor(Integer.class);
+        this.currencyReader = objectMapper.readerFor(Currency.class);
+        this.amountReader = objectMapper.readerFor(BigDecimal.class);
+        this.dateWriter = objectMapper.writerFor(Date.class);
+        if (!textJson)
+            preEncodeCanonicalFraudStatuses();
+    }
+
+    // In the binary format, as FraudStatus pre-encodes them in JSON
+    private void preEncodeCanonicalFraudStatuses() {
+        for (int cvvStatusCode = 0; cvvStatusCode < 2; cvvStatusCode++)
+            for (int avStatusCode = 0; avStatusCode < 2; avStatusCode++)
+                for (boolean expired : new boolean[]{false, true}) {
+                    final FraudStatus fraudStatus = FraudStatus.of(cvvStatusCode, avStatusCode, expired);
+                    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                    try {
+                        writeFraudStatusFields(fraudStatus, encoded);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    preEncoded.put(fraudStatus, encoded.toByteArray());
+                }
+    }
+
+    // Always UTC, and never had another offset in the past
+    private static boolean isUtc(TimeZone timeZone) {
+        return ZoneOffset.UTC.equals(timeZone.toZoneId().normalized());
+    }
+
+    // False for a binary format
+    public boolean isTextual() {
+        return textJson;
+    }
+
+    public FraudCheckPayload readPayload(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readPayload(parser);
+        }
+    }
+
+    public FraudCheckPayload readPayload(Reader in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readPayload(parser);
+        }
+    }
+
+    public FraudCheckPayload readPayload(String json) throws JsonProcessingException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readPayload(parser);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // Not from reading a String
+            throw JsonMappingException.fromUnexpectedIOE(e);
+        }
+    }
+
+    private FraudCheckPayload readPayload(JsonParser parser) throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null)
+            throw MismatchedInputException.from(parser, FraudCheckPayload.class, "No content to map due to end-of-input");
+
+        if (token == JsonToken.VALUE_NULL)
+            return null;
+
+        if (token != JsonToken.START_OBJECT)
+            throw MismatchedInputException.from(parser, FraudCheckPayload.class,
+                    String.format("Cannot deserialize value of type `%s` from %s", FraudCheckPayload.class.getName(), token));
+
+        CreditCard creditCard = null;
+        Money charge = null;
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            final JsonToken value = parser.nextToken();
+            switch (name) {
+                case "creditCard" -> creditCard = readCreditCard(parser, value);
+                case "charge" -> charge = readMoney(parser, value);
+                default -> skipUnknown(parser, FraudCheckPayload.class, name, List.of("creditCard", "charge"));
+            }
+        }
+        return new FraudCheckPayload(creditCard, charge);
+    }
+
+    private CreditCard readCreditCard(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL)
+            return null;
+
+        if (token != JsonToken.START_OBJECT)
+            return creditCardReader.readValue(parser);
+
+        String number = null;
+        String holderName = null;
+        String issuingBank = null;
+        Date validUntil = null;
+        Integer cvv = null;
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            final JsonToken value = parser.nextToken();
+            switch (name) {
+                case "number" -> number = readString(parser, value);
+                case "holderName" -> holderName = readString(parser, value);
+                case "issuingBank" -> issuingBank = readString(parser, value);
+                case "validUntil" -> validUntil = readDate(parser, value);
+                case "cvv" -> cvv = readInteger(parser, value);
+                default -> skipUnknown(parser, CreditCard.class, name,
+                        List.of("number", "holderName", "issuingBank", "validUntil", "cvv"));
+            }
+        }
+        return new CreditCard(number, holderName, issuingBank, validUntil, cvv);
+    }
+
+    private Money readMoney(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL)
+            return null;
+
+        if (token != JsonToken.START_OBJECT)
+            return moneyReader.readValue(parser);
+
+        Currency currency = null;
+        BigDecimal amount = null;
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            final JsonToken value = parser.nextToken();
+            switch (name) {
+                case "currency" -> currency = readCurrency(parser, value);
+                case "amount" -> amount = readAmount(parser, value);
+                default -> skipUnknown(parser, Money.class, name, List.of("currency", "amount"));
+            }
+        }
+        try {
+            return Money.of(currency, amount);
+        } catch (IllegalArgumentException e) {
+            throw JsonMappingException.from(parser, String.format("Cannot construct instance of `%s`, problem: %s",
+                    Money.class.getName(), e.getMessage()), e);
+        }
+    }
+
+    private String readString(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING)
+            return parser.getText();
+
+        return token == JsonToken.VALUE_NULL ? null : stringReader.readValue(parser);
+    }
+
+    private Integer readInteger(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT)
+            return parser.getIntValue();
+
+        return token == JsonToken.VALUE_NULL ? null : integerReader.readValue(parser);
+    }
+
+    private Date readDate(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER)
+            return new Date(parser.getLongValue());
+
+        if (token == JsonToken.VALUE_STRING && readsIsoDates) {
+            final long epochMillis = Iso8601Dates.parse(parser.getText());
+            if (epochMillis != Iso8601Dates.NOT_PARSED)
+                return new Date(epochMillis);
+        }
+        return token == JsonToken.VALUE_NULL ? null : dateReader.readValue(parser);
+    }
+
+    private Currency readCurrency(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING && parser.getTextLength() == 3) {
+            try {
+                return Currency.getInstance(parser.getText());
+            } catch (IllegalArgumentException e) {
+                // Rejected by the ObjectMapper, with its message
+            }
+        }
+        return token == JsonToken.VALUE_NULL ? null : currencyReader.readValue(parser);
+    }
+
+    private BigDecimal readAmount(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT)
+            return parser.getDecimalValue();
+
+        return token == JsonToken.VALUE_NULL ? null : amountReader.readValue(parser);
+    }
+
+    private void skipUnknown(JsonParser parser, Class<?> type, String name, List<Object> known) throws IOException {
+        if (failOnUnknownProperties)
+            throw UnrecognizedPropertyException.from(parser, type, name, known);
+
+        parser.skipChildren();
+    }
+
+    public void writePayload(FraudCheckPayload payload, OutputStream out) throws IOException {
+        try (JsonGenerator generator = generatorFor(out)) {
+            if (payload == null) {
+                generator.writeNull();
+                return;
+            }
+
+            generator.writeStartObject();
+            generator.writeFieldName(CREDIT_CARD);
+            writeCreditCard(payload.creditCard, generator);
+            generator.writeFieldName(CHARGE);
+            writeMoney(payload.charge, generator);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeCreditCard(CreditCard card, JsonGenerator generator) throws IOException {
+        if (card == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartObject();
+        writeString(NUMBER, card.number, generator);
+        writeString(HOLDER_NAME, card.holderName, generator);
+        writeString(ISSUING_BANK, card.issuingBank, generator);
+        generator.writeFieldName(VALID_UNTIL);
+        writeDate(card.validUntil, generator);
+        generator.writeFieldName(CVV);
+        if (card.cvv == null)
+            generator.writeNull();
+        else
+            generator.writeNumber(card.cvv);
+        generator.writeEndObject();
+    }
+
+    private void writeMoney(Money money, JsonGenerator generator) throws IOException {
+        if (money == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartObject();
+        writeString(CURRENCY, money.hasCurrency() ? money.getCurrency().getCurrencyCode() : null, generator);
+        generator.writeFieldName(AMOUNT);
+        if (money.hasAmount())
+            generator.writeNumber(money.getAmount());
+        else
+            generator.writeNull();
+        generator.writeEndObject();
+    }
+
+    private void writeDate(Date date, JsonGenerator generator) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+            return;
+        }
+
+        if (writeDatesAsTimestamps) {
+            generator.writeNumber(date.getTime());
+            return;
+        }
+
+        final char[] text = new char[Iso8601Dates.FORMATTED_LENGTH];
+        if (writesIsoDatesInUtc && Iso8601Dates.formatUtc(date.getTime(), text))
+            generator.writeString(text, 0, text.length);
+        else
+            dateWriter.writeValue(generator, date);
+    }
+
+    /**
+     * Length of the pre-encoded Fraud Status, or -1 for a degraded one,
+     * which has none.
+     */
+    public int preEncodedLength(FraudStatus fraudStatus) {
+        if (textJson)
+            return fraudStatus.jsonLength();
+
+        final byte[] encoded = preEncoded.get(fraudStatus);
+        return encoded == null ? -1 : encoded.length;
+    }
+
+    /**
+     * Writes the pre-encoded bytes of a canonical Fraud Status, and a
+     * degraded one, which has none, token by token.
+     */
+    public void writeFraudStatus(FraudStatus fraudStatus, OutputStream out) throws IOException {
+        if (textJson && fraudStatus.jsonLength() >= 0) {
+            fraudStatus.writeJsonTo(out);
+            return;
+        }
+
+        final byte[] encoded = textJson ? null : preEncoded.get(fraudStatus);
+        if (encoded != null)
+            out.write(encoded);
+        else
+            writeFraudStatusFields(fraudStatus, out);
+    }
+
+    private void writeFraudStatusFields(FraudStatus fraudStatus, OutputStream out) throws IOException {
+        try (JsonGenerator generator = generatorFor(out)) {
+            generator.writeStartObject();
+            writeString(CVV_STATUS, fraudStatus.cvvStatus, generator);
+            writeString(AV_STATUS, fraudStatus.avStatus, generator);
+            writeString(OVERALL, fraudStatus.overall, generator);
+            // Left out when absent, as FraudStatus is @JsonInclude(NON_NULL)
+            if (fraudStatus.reason != null)
+                writeString(REASON, fraudStatus.reason, generator);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeString(SerializableString name, String value, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null)
+            generator.writeNull();
+        else
+            generator.writeString(value);
+    }
+
+    // The container closes the response body, not the generator
+    private JsonGenerator generatorFor(OutputStream out) throws IOException {
+        final JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (indentOutput && textJson)
+            generator.useDefaultPrettyPrinter();
+        return generator;
+    }
+}
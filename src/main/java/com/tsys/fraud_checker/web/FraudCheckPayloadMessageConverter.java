@@ -0,0 +1,74 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * Reads (and writes) a {@link FraudCheckPayload} request body with the
+ * streaming {@link FraudCheckJsonCodec}, instead of having Jackson bind
+ * it by reflection on every /check.  The payload is then validated as
+ * before, by the validator of the binder.
+ * <p>
+ * Spring Boot puts a converter bean ahead of its default ones, so this
+ * one gets FraudCheckPayload bodies before the Jackson converter does.
+ * A list of payloads, as for a batch, is still read by Jackson.  For a
+ * binary format, CBOR or Smile, one is made with the ObjectMapper of
+ * that format, see BinaryContentConfiguration.
+ */
+// Ahead of the converters of the binary formats, so that a client that
+// accepts anything still gets JSON
+@Order(0)
+@Component
+public class FraudCheckPayloadMessageConverter extends AbstractHttpMessageConverter<FraudCheckPayload> {
+
+    private final FraudCheckJsonCodec codec;
+
+    @Autowired
+    public FraudCheckPayloadMessageConverter(ObjectMapper objectMapper) {
+        // The same media types as the Jackson converter
+        this(objectMapper, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    public FraudCheckPayloadMessageConverter(ObjectMapper objectMapper, MediaType... mediaTypes) {
+        super(mediaTypes);
+        this.codec = new FraudCheckJsonCodec(objectMapper);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FraudCheckPayload.class == clazz;
+    }
+
+    @Override
+    protected FraudCheckPayload readInternal(Class<? extends FraudCheckPayload> clazz, HttpInputMessage inputMessage) throws IOException {
+        final MediaType contentType = inputMessage.getHeaders().getContentType();
+        final Charset charset = contentType == null ? null : contentType.getCharset();
+        try {
+            // Jackson detects the UTF encoding of the bytes by itself, and
+            // a binary format has no charset
+            if (charset == null || charset.name().startsWith("UTF-") || !codec.isTextual())
+                return codec.readPayload(inputMessage.getBody());
+
+            return codec.readPayload(new InputStreamReader(inputMessage.getBody(), charset));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(FraudCheckPayload payload, HttpOutputMessage outputMessage) throws IOException {
+        codec.writePayload(payload, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,341 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.CardNetwork;
+import com.tsys.fraud_checker.domain.CardNumbers;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.spring.validators.CardNumber;
+import com.tsys.fraud_checker.spring.validators.NumberOfDigits;
+import jakarta.validation.Constraint;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.Validator;
+
+import java.beans.Introspector;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Validates a FraudCheckPayload, its CreditCard and its Money with the
+ * same constraints as their Bean Validation annotations, for Spring MVC
+ * to use in place of Hibernate Validator on a @Validated payload.
+ * <p>
+ * The constraints are read off the annotations once, when this is
+ * created, and their messages resolved then, so validating a payload is
+ * just reading its fields - no metadata walk, no reflection and no
+ * message interpolation per request.  Messages are resolved in the
+ * default locale, not in that of the request.
+ * <p>
+ * A constraint annotation added to, or removed from, these types must be
+ * checked here too, else creating this validator fails.
+ */
+public class FraudCheckPayloadValidator implements Validator {
+
+    // Of a FraudCheckPayload request body, as Spring MVC names it
+    static final String OBJECT_NAME = "fraudCheckPayload";
+    private static final MessageCodesResolver MESSAGE_CODES = new DefaultMessageCodesResolver();
+
+    // The constraint annotations checked here, by type and field
+    private static final Map<Class<?>, Map<String, Set<Class<? extends Annotation>>>> CHECKED = Map.of(
+            FraudCheckPayload.class, Map.of(
+                    "creditCard", Set.of(Valid.class, NotNull.class),
+                    "charge", Set.of(Valid.class, NotNull.class)),
+            CreditCard.class, Map.of(
+                    "number", Set.of(NotBlank.class, CardNumber.class),
+                    "holderName", Set.of(NotBlank.class),
+                    "issuingBank", Set.of(NotBlank.class),
+                    "validUntil", Set.of(NotNull.class),
+                    "cvv", Set.of(NotNull.class, NumberOfDigits.class)),
+            Money.class, Map.of(
+                    "currency", Set.of(NotNull.class),
+                    "amount", Set.of(NotNull.class),
+                    "amountInMinorUnits", Set.of(AssertTrue.class)));
+
+    private final Rule creditCardRequired;
+    private final Rule chargeRequired;
+
+    private final Rule numberRequired;
+    private final int numberMinLength;
+    private final int numberMaxLength;
+    private final Set<CardNetwork> numberNetworks;
+    private final Rule numberLength;
+    private final Rule numberLuhn;
+    private final Rule numberInvalid;
+    private final Rule numberNetwork;
+    private final Rule holderNameRequired;
+    private final Rule issuingBankRequired;
+    private final Rule validUntilRequired;
+    private final Rule cvvRequired;
+    private final int cvvDigits;
+    private final Rule cvvDigitsInvalid;
+
+    private final Rule currencyRequired;
+    private final Rule amountRequired;
+    private final Rule amountInMinorUnits;
+
+    public FraudCheckPayloadValidator() {
+        CHECKED.forEach(FraudCheckPayloadValidator::verifyChecked);
+
+        creditCardRequired = rule("creditCard", annotationOn(FraudCheckPayload.class, "creditCard", NotNull.class));
+        chargeRequired = rule("charge", annotationOn(FraudCheckPayload.class, "charge", NotNull.class));
+
+        numberRequired = rule("creditCard.number", annotationOn(CreditCard.class, "number", NotBlank.class));
+        final CardNumber cardNumber = annotationOn(CreditCard.class, "number", CardNumber.class);
+        numberMinLength = cardNumber.min();
+        numberMaxLength = cardNumber.max();
+        numberNetworks = cardNumber.networks().length == 0
+                ? EnumSet.allOf(CardNetwork.class)
+                : EnumSet.copyOf(Arrays.asList(cardNumber.networks()));
+        numberLength = Rule.of("creditCard.number", "CardNumber", resolve(cardNumber.lengthMessage(), cardNumber));
+        numberLuhn = Rule.of("creditCard.number", "CardNumber", resolve(cardNumber.luhnMessage(), cardNumber));
+        numberInvalid = Rule.of("creditCard.number", "CardNumber", resolve(cardNumber.message(), cardNumber));
+        numberNetwork = Rule.of("creditCard.number", "CardNumber", resolve(cardNumber.networkMessage(), cardNumber));
+        holderNameRequired = rule("creditCard.holderName", annotationOn(CreditCard.class, "holderName", NotBlank.class));
+        issuingBankRequired = rule("creditCard.issuingBank", annotationOn(CreditCard.class, "issuingBank", NotBlank.class));
+        validUntilRequired = rule("creditCard.validUntil", annotationOn(CreditCard.class, "validUntil", NotNull.class));
+        cvvRequired = rule("creditCard.cvv", annotationOn(CreditCard.class, "cvv", NotNull.class));
+        final NumberOfDigits numberOfDigits = annotationOn(CreditCard.class, "cvv", NumberOfDigits.class);
+        cvvDigits = numberOfDigits.value();
+        cvvDigitsInvalid = rule("creditCard.cvv", numberOfDigits);
+
+        currencyRequired = rule("charge.currency", annotationOn(Money.class, "currency", NotNull.class));
+        amountRequired = rule("charge.amount", annotationOn(Money.class, "amount", NotNull.class));
+        amountInMinorUnits = rule("charge.amountInMinorUnits", annotationOn(Money.class, "amountInMinorUnits", AssertTrue.class));
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return FraudCheckPayload.class == clazz;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        final FraudCheckPayload payload = (FraudCheckPayload) target;
+        if (payload.creditCard == null)
+            creditCardRequired.rejectIn(errors, null);
+        else
+            validate(payload.creditCard, errors);
+
+        if (payload.charge == null)
+            chargeRequired.rejectIn(errors, null);
+        else
+            validate(payload.charge, errors);
+    }
+
+    private void validate(CreditCard card, Errors errors) {
+        if (isBlank(card.number))
+            numberRequired.rejectIn(errors, card.number);
+        if (card.number != null)
+            validateNumber(card.number, errors);
+
+        if (isBlank(card.holderName))
+            holderNameRequired.rejectIn(errors, card.holderName);
+
+        if (isBlank(card.issuingBank))
+            issuingBankRequired.rejectIn(errors, card.issuingBank);
+
+        if (card.validUntil == null)
+            validUntilRequired.rejectIn(errors, null);
+
+        // As NumberOfDigitsValidator, a missing cvv also has the wrong
+        // number of digits
+        if (card.cvv == null)
+            cvvRequired.rejectIn(errors, null);
+        if (card.cvv == null || digitsOf(card.cvv) != cvvDigits)
+            cvvDigitsInvalid.rejectIn(errors, card.cvv);
+    }
+
+    private void validateNumber(String number, Errors errors) {
+        final int scan = CardNumbers.scan(number);
+        if (number.length() < numberMinLength || number.length() > numberMaxLength)
+            numberLength.rejectIn(errors, number);
+        if (!CardNumbers.isLuhnValid(scan)) {
+            numberLuhn.rejectIn(errors, number);
+            numberInvalid.rejectIn(errors, number);
+        }
+        if (!numberNetworks.contains(CardNumbers.networkOf(scan)))
+            numberNetwork.rejectIn(errors, number);
+    }
+
+    private void validate(Money charge, Errors errors) {
+        if (!charge.hasCurrency())
+            currencyRequired.rejectIn(errors, null);
+
+        if (!charge.hasAmount())
+            amountRequired.rejectIn(errors, null);
+        else if (!charge.isAmountInMinorUnits())
+            amountInMinorUnits.rejectIn(errors, false);
+    }
+
+    // As @NotBlank, blank when nothing is left after a String.trim()
+    private static boolean isBlank(String value) {
+        if (value == null)
+            return true;
+
+        for (int i = 0; i < value.length(); i++)
+            if (value.charAt(i) > ' ')
+                return false;
+        return true;
+    }
+
+    private static int digitsOf(Number number) {
+        long value = number.longValue();
+        int count = 0;
+        while (value != 0) {
+            value = value / 10;
+            count++;
+        }
+        return count;
+    }
+
+    // The message codes of a request body's error are resolved up front,
+    // so that rejecting a payload only adds the field errors.
+    private record Rule(String field, String code, String message, String[] codes) {
+        static Rule of(String field, String code, String message) {
+            return new Rule(field, code, message, MESSAGE_CODES.resolveMessageCodes(code, OBJECT_NAME, field, null));
+        }
+
+        // The error is added as is, without reading the field back from the
+        // payload, which field access cannot do for Money's properties.
+        void rejectIn(Errors errors, Object rejectedValue) {
+            if (!(errors instanceof BindingResult bindingResult) || !bindingResult.getNestedPath().isEmpty()) {
+                errors.rejectValue(field, code, message);
+                return;
+            }
+
+            final String objectName = bindingResult.getObjectName();
+            final String[] fieldCodes = OBJECT_NAME.equals(objectName) ? codes : bindingResult.resolveMessageCodes(code, field);
+            bindingResult.addError(new FieldError(objectName, field, rejectedValue, false, fieldCodes, null, message));
+        }
+    }
+
+    private static Rule rule(String field, Annotation constraint) {
+        return Rule.of(field, constraint.annotationType().getSimpleName(), resolve(messageOf(constraint), constraint));
+    }
+
+    // Of the property's field, or else of its getter, as Bean Validation
+    // reads constraints from either
+    private static <A extends Annotation> A annotationOn(Class<?> type, String property, Class<A> annotationType) {
+        final A annotation = propertyOf(type, property).getAnnotation(annotationType);
+        if (annotation == null)
+            throw new IllegalStateException(String.format("%s.%s is no longer annotated with @%s", type.getSimpleName(), property, annotationType.getSimpleName()));
+
+        return annotation;
+    }
+
+    private static AnnotatedElement propertyOf(Class<?> type, String property) {
+        try {
+            return type.getDeclaredField(property);
+        } catch (NoSuchFieldException e) {
+            for (String prefix : new String[]{"get", "is"}) {
+                try {
+                    return type.getDeclaredMethod(getterOf(prefix, property));
+                } catch (NoSuchMethodException noGetter) {
+                    // Not this getter, try the next
+                }
+            }
+            throw new IllegalStateException(String.format("%s has no property %s to validate", type.getSimpleName(), property));
+        }
+    }
+
+    private static String getterOf(String prefix, String property) {
+        return prefix + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+    }
+
+    // Fails when a field or getter has constraints other than those
+    // checked here
+    private static void verifyChecked(Class<?> type, Map<String, Set<Class<? extends Annotation>>> checked) {
+        final Map<String, Set<Class<? extends Annotation>>> constrained = new HashMap<>();
+        for (Field field : type.getDeclaredFields())
+            if (!Modifier.isStatic(field.getModifiers()))
+                constrained.computeIfAbsent(field.getName(), property -> new HashSet<>()).addAll(constraintsOn(field));
+        for (Method method : type.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0)
+                continue;
+            final String name = method.getName();
+            final int prefix = name.startsWith("get") ? 3 : name.startsWith("is") && method.getReturnType() == boolean.class ? 2 : 0;
+            if (prefix > 0 && name.length() > prefix)
+                constrained.computeIfAbsent(Introspector.decapitalize(name.substring(prefix)), property -> new HashSet<>())
+                        .addAll(constraintsOn(method));
+        }
+
+        final Set<String> properties = new HashSet<>(checked.keySet());
+        properties.addAll(constrained.keySet());
+        for (String property : properties) {
+            final Set<Class<? extends Annotation>> constraints = constrained.getOrDefault(property, Set.of());
+            if (!constraints.equals(checked.getOrDefault(property, Set.of())))
+                throw new IllegalStateException(String.format("Constraints %s on %s.%s are not the ones validated by %s",
+                        constraints, type.getSimpleName(), property, FraudCheckPayloadValidator.class.getSimpleName()));
+        }
+    }
+
+    private static Set<Class<? extends Annotation>> constraintsOn(AnnotatedElement element) {
+        return Arrays.stream(element.getAnnotations())
+                .map(Annotation::annotationType)
+                .filter(annotationType -> annotationType == Valid.class || annotationType.isAnnotationPresent(Constraint.class))
+                .collect(Collectors.toSet());
+    }
+
+    private static String messageOf(Annotation constraint) {
+        return (String) attributeOf(constraint, "message");
+    }
+
+    private static Object attributeOf(Annotation annotation, String name) {
+        try {
+            return annotation.annotationType().getMethod(name).invoke(annotation);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(String.format("Cannot read %s of @%s", name, annotation.annotationType().getSimpleName()), e);
+        }
+    }
+
+    /**
+     * Resolves a message the way Hibernate Validator does for these
+     * constraints: a {key} message is looked up in the ValidationMessages
+     * bundles, then the {attribute} parameters are replaced with the
+     * values of the constraint's attributes.  An unknown key is left as
+     * is, as Hibernate Validator does.
+     */
+    private static String resolve(String template, Annotation constraint) {
+        String message = template;
+        if (message.startsWith("{") && message.endsWith("}"))
+            message = lookup(message.substring(1, message.length() - 1), message);
+
+        for (Method attribute : constraint.annotationType().getDeclaredMethods()) {
+            final String parameter = "{" + attribute.getName() + "}";
+            if (message.contains(parameter))
+                message = message.replace(parameter, String.valueOf(attributeOf(constraint, attribute.getName())));
+        }
+        return message;
+    }
+
+    private static String lookup(String key, String otherwise) {
+        for (String bundle : new String[]{"ValidationMessages", "org.hibernate.validator.ValidationMessages"}) {
+            try {
+                return ResourceBundle.getBundle(bundle).getString(key);
+            } catch (MissingResourceException e) {
+                // Not in this bundle, try the next
+            }
+        }
+        return otherwise;
+    }
+}
@@ -0,0 +1,46 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Outcome of checking one FraudCheckPayload in a batch - either the
+ * FraudStatus of a valid payload or the ValidationErrors of an invalid
+ * one.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FraudCheckResult {
+
+    @Schema(
+        description = "Fraud Status, present only when the payload is valid",
+        implementation = FraudStatus.class)
+    public final FraudStatus fraudStatus;
+
+    @Schema(
+        description = "Validation Errors, present only when the payload is invalid",
+        implementation = ValidationErrorsResponse.class)
+    public final ValidationErrorsResponse validationErrors;
+
+    private FraudCheckResult(FraudStatus fraudStatus, ValidationErrorsResponse validationErrors) {
+        this.fraudStatus = fraudStatus;
+        this.validationErrors = validationErrors;
+    }
+
+    public static FraudCheckResult of(FraudStatus fraudStatus) {
+        return new FraudCheckResult(fraudStatus, null);
+    }
+
+    public static FraudCheckResult of(ValidationErrorsResponse validationErrors) {
+        return new FraudCheckResult(null, validationErrors);
+    }
+
+    @Override
+    public String toString() {
+        return "FraudCheckResult{" +
+                "fraudStatus=" + fraudStatus +
+                ", validationErrors=" + validationErrors +
+                '}';
+    }
+}
@@ -1,6 +1,8 @@
 package com.tsys.fraud_checker.web;
 
 import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
 import com.tsys.fraud_checker.services.VerificationService;
 
 import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
@@ -19,11 +21,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 //import springfox.documentation.annotations.ApiIgnore;
 
-import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import java.util.logging.Logger;
@@ -66,6 +68,21 @@ public class FraudCheckerController {
 
     private static final Logger LOG = Logger.getLogger(FraudCheckerController.class.getName());
 
+    // Latency budget of the client, in millis from when the request is received
+    public static final String DEADLINE_HEADER = "X-Deadline-Ms";
+
+    // Binary formats of checkFraud, besides JSON
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    // Shared by all the responses of checkFraud, hence read-only
+    private static final HttpHeaders JSON_CONTENT;
+    static {
+        final var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_CONTENT = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
     private final VerificationService verificationService;
 
     @Autowired
@@ -180,7 +197,7 @@ public class FraudCheckerController {
     ResponseEntity<String> validateHeaderParameterUsingPost(
             @RequestHeader(value = "param")
             @Min(5) @Max(9999) int param,
-            @RequestBody @Valid FraudCheckPayload fraudCheckPayload) {
+            @RequestBody @Validated FraudCheckPayload fraudCheckPayload) {
         LOG.info(() -> String.format("validateHeaderParameterUsingPost(), Got param = %d", param));
         return ResponseEntity.ok("valid");
     }
@@ -196,7 +213,7 @@ public class FraudCheckerController {
      * There are three things we can validate for any incoming HTTP request:
      * 1. the request body,
      *
-     * @see FraudCheckerController#checkFraud(FraudCheckPayload)
+     * @see FraudCheckerController#checkFraud(FraudCheckPayload, BindingResult, Long, String)
      * 2. variables within the path (e.g. id in /foos/{id})
      * @see FraudCheckerController#validatePathVariable(int)
      * 3. query parameters.
@@ -206,33 +223,90 @@ public class FraudCheckerController {
      * If the Input class contains a field with another complex type that
      * should be validated, this field, too, needs to be annotated with
      * Valid.
+     * <p>
+     * The payload is @Validated and not @Valid: Spring MVC validates it
+     * with the FraudCheckPayloadValidator when binding it, while @Valid
+     * would have the method validation of this @Validated controller
+     * validate it all over again with Hibernate Validator.
+     * <p>
+     * Besides JSON, the payload and the response can be CBOR or Smile,
+     * with the same fields and validation, as given by the Content-Type
+     * and Accept headers.
      */
 
     @Operation(summary = "Check possibility of a fradulent transaction and return a status to the caller.",
+        parameters = {
+            @Parameter(name = DEADLINE_HEADER,
+                schema = @Schema(implementation = Long.class),
+                description = "Optional latency budget in millis.  When the verifications cannot complete within it, a degraded Fraud Status with a reason is returned.")
+        },
         requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody (content = {
                         @Content(schema = @Schema(implementation = FraudCheckPayload.class),
-                            mediaType = "application/json") }))
+                            mediaType = "application/json"),
+                        @Content(schema = @Schema(implementation = FraudCheckPayload.class),
+                            mediaType = MediaType.APPLICATION_CBOR_VALUE),
+                        @Content(schema = @Schema(implementation = FraudCheckPayload.class),
+                            mediaType = APPLICATION_SMILE_VALUE) }))
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Got Fraud Status for the check", content = { @Content(schema = @Schema(title = "Fraud Status", implementation = FraudStatus.class), mediaType = "application/json") }),
+        @ApiResponse(responseCode = "200", description = "Got Fraud Status for the check", content = {
+            @Content(schema = @Schema(title = "Fraud Status", implementation = FraudStatus.class), mediaType = "application/json"),
+            @Content(schema = @Schema(title = "Fraud Status", implementation = FraudStatus.class), mediaType = MediaType.APPLICATION_CBOR_VALUE),
+            @Content(schema = @Schema(title = "Fraud Status", implementation = FraudStatus.class), mediaType = APPLICATION_SMILE_VALUE)
+        }),
         @ApiResponse(responseCode = "400", description = "Bad Request", content = {
-            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = "application/json")
+            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = "application/json"),
+            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = MediaType.APPLICATION_CBOR_VALUE),
+            @Content(schema = @Schema(implementation = ValidationErrorsResponse.class), mediaType = APPLICATION_SMILE_VALUE)
         }),
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
-    @PostMapping(value = "check", consumes = "application/json", produces = "application/json")
-    public ResponseEntity<FraudStatus> checkFraud(
-            @RequestBody @Valid FraudCheckPayload payload) {
+    @PostMapping(value = "check",
+            consumes = { "application/json", MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            produces = { "application/json", MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<?> checkFraud(
+            @RequestBody @Validated FraudCheckPayload payload,
+            BindingResult payloadErrors,
+            @RequestHeader(value = DEADLINE_HEADER, required = false)
+            @Min(value = 1, message = "Deadline must be at least 1 ms") Long deadlineMillis,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final HttpHeaders responseHeaders = responseHeadersFor(accept);
+        // Answered here rather than thrown as a MethodArgumentNotValidException
+        // for the GlobalExceptionAdvice, with the same ValidationErrorsResponse:
+        // most of the traffic of a card-testing attack is invalid payloads.
+        if (payloadErrors.hasErrors())
+            return new ResponseEntity<>(ValidationErrorsResponse.from(payloadErrors), responseHeaders, HttpStatus.BAD_REQUEST);
+
         try {
             LOG.info(() -> String.format("{ 'checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
-            FraudStatus fraudStatus = verificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge);
+            // Already validated when bound, see FraudCheckPayloadValidator
+            final var transaction = ValidatedTransaction.alreadyValidated(payload.creditCard, payload.charge);
+            FraudStatus fraudStatus = verificationService.verifyValidated(transaction,
+                    deadlineMillis == null ? Deadline.none() : Deadline.after(deadlineMillis));
             LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus));
-            final var httpHeaders = new HttpHeaders() {{
-                setContentType(MediaType.APPLICATION_JSON);
-            }};
-
-            return new ResponseEntity<>(fraudStatus, httpHeaders, HttpStatus.OK);
+            return new ResponseEntity<>(fraudStatus, responseHeaders, HttpStatus.OK);
         } catch (InterruptedException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // JSON, as set up front, unless the client accepts a binary format.
+    // Then Spring MVC negotiates the Content-Type from the Accept header,
+    // among the ones checkFraud produces.  As Spring MVC does, the header
+    // is parsed case-insensitively with its quality values, and a wildcard
+    // alone, such as */*, still gets JSON, the first of the produced types.
+    private static HttpHeaders responseHeadersFor(String accept) {
+        if (accept == null)
+            return JSON_CONTENT;
+
+        for (MediaType accepted : MediaType.parseMediaTypes(accept))
+            if (accepted.getQualityValue() > 0 && !accepted.isWildcardSubtype() && isBinary(accepted))
+                return HttpHeaders.EMPTY;
+        return JSON_CONTENT;
+    }
+
+    private static boolean isBinary(MediaType mediaType) {
+        return mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)
+                || mediaType.isCompatibleWith(APPLICATION_SMILE);
+    }
 }
\ No newline at end of file
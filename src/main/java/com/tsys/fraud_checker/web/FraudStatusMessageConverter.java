@@ -0,0 +1,72 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes a canonical {@link FraudStatus} as its pre-encoded JSON bytes,
+ * instead of having Jackson serialize it on every response.  A degraded
+ * Fraud Status, which carries a reason, is written token by token by the
+ * {@link FraudCheckJsonCodec}.
+ * <p>
+ * Spring Boot puts a converter bean ahead of its default ones, so this
+ * one gets FraudStatus bodies before the Jackson converter does.  For a
+ * binary format, CBOR or Smile, one is made with the ObjectMapper of
+ * that format, see BinaryContentConfiguration.
+ */
+// Ahead of the converters of the binary formats, so that a client that
+// accepts anything still gets JSON
+@Order(0)
+@Component
+public class FraudStatusMessageConverter extends AbstractHttpMessageConverter<FraudStatus> {
+
+    private final FraudCheckJsonCodec codec;
+
+    @Autowired
+    public FraudStatusMessageConverter(ObjectMapper objectMapper) {
+        // No default charset, JSON is UTF-8 and the Content-Type stays
+        // application/json, as written by the Jackson converter.
+        this(objectMapper, MediaType.APPLICATION_JSON);
+    }
+
+    public FraudStatusMessageConverter(ObjectMapper objectMapper, MediaType mediaType) {
+        super(mediaType);
+        this.codec = new FraudCheckJsonCodec(objectMapper);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FraudStatus.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected FraudStatus readInternal(Class<? extends FraudStatus> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("FraudStatus is a response only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(FraudStatus fraudStatus, MediaType contentType) {
+        final int length = codec.preEncodedLength(fraudStatus);
+        return length < 0 ? null : (long) length;
+    }
+
+    @Override
+    protected void writeInternal(FraudStatus fraudStatus, HttpOutputMessage outputMessage) throws IOException {
+        codec.writeFraudStatus(fraudStatus, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,180 @@
+package com.tsys.fraud_checker.web;
+
+/**
+ * Parses and formats the dates of the fraud check JSON in the ISO-8601
+ * form Jackson writes them, 2020-10-04T01:00:26.874+00:00, by hand and
+ * without a Calendar.
+ * <p>
+ * Only dates in the Gregorian calendar (from 1600 to 9999) with an
+ * explicit offset are handled here, for them the result does not depend
+ * on the time zone or calendar Jackson is configured with.  Anything
+ * else is left to Jackson.
+ */
+final class Iso8601Dates {
+
+    // Returned when the text is not a date handled here
+    static final long NOT_PARSED = Long.MIN_VALUE;
+
+    // "yyyy-MM-ddTHH:mm:ss.SSS+00:00"
+    static final int FORMATTED_LENGTH = 29;
+
+    private static final int MIN_YEAR = 1600;
+    private static final int MAX_YEAR = 9999;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MIN_MILLIS = millisOf(MIN_YEAR, 1, 1, 0);
+    private static final long MAX_MILLIS = millisOf(MAX_YEAR + 1, 1, 1, 0) - 1;
+
+    private Iso8601Dates() {
+    }
+
+    /**
+     * Millis since the epoch of yyyy-MM-ddTHH:mm:ss[.SSS] followed by Z,
+     * +HH:MM, +HHMM or +HH (or - for the offset), else NOT_PARSED.
+     */
+    static long parse(CharSequence text) {
+        final int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':')
+            return NOT_PARSED;
+
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        if (year < MIN_YEAR || year > MAX_YEAR || month < 1 || month > 12 || day < 1 || day > daysIn(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return NOT_PARSED;
+
+        int at = 19;
+        int millis = 0;
+        if (text.charAt(at) == '.') {
+            millis = length < 24 ? -1 : digits(text, at + 1, 3);
+            if (millis < 0)
+                return NOT_PARSED;
+            at += 4;
+        }
+
+        final int offsetMinutes = offsetMinutes(text, at);
+        if (offsetMinutes == Integer.MIN_VALUE)
+            return NOT_PARSED;
+
+        final long secondOfDay = hour * 3600L + minute * 60L + second;
+        return millisOf(year, month, day, secondOfDay * 1000 + millis) - offsetMinutes * 60_000L;
+    }
+
+    /**
+     * Formats the millis since the epoch in UTC into the 29 chars of
+     * yyyy-MM-ddTHH:mm:ss.SSS+00:00, and answers false, with nothing
+     * formatted, for a date outside 1600 to 9999.
+     */
+    static boolean formatUtc(long epochMillis, char[] text) {
+        if (epochMillis < MIN_MILLIS || epochMillis > MAX_MILLIS)
+            return false;
+
+        final long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+
+        // Days to civil date, after Howard Hinnant's civil_from_days
+        final long shifted = epochDay + 719_468;
+        final long era = Math.floorDiv(shifted, 146_097);
+        final int dayOfEra = (int) (shifted - era * 146_097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        put(text, 0, year, 4);
+        text[4] = '-';
+        put(text, 5, month, 2);
+        text[7] = '-';
+        put(text, 8, day, 2);
+        text[10] = 'T';
+        put(text, 11, millisOfDay / 3_600_000, 2);
+        text[13] = ':';
+        put(text, 14, millisOfDay / 60_000 % 60, 2);
+        text[16] = ':';
+        put(text, 17, millisOfDay / 1000 % 60, 2);
+        text[19] = '.';
+        put(text, 20, millisOfDay % 1000, 3);
+        text[23] = '+';
+        text[24] = '0';
+        text[25] = '0';
+        text[26] = ':';
+        text[27] = '0';
+        text[28] = '0';
+        return true;
+    }
+
+    // Offset from UTC in minutes, of the rest of the text, or
+    // Integer.MIN_VALUE when it is not one.
+    private static int offsetMinutes(CharSequence text, int at) {
+        final int remaining = text.length() - at;
+        if (remaining == 1 && text.charAt(at) == 'Z')
+            return 0;
+
+        if (remaining < 3)
+            return Integer.MIN_VALUE;
+
+        final char sign = text.charAt(at);
+        if (sign != '+' && sign != '-')
+            return Integer.MIN_VALUE;
+
+        final int hours = digits(text, at + 1, 2);
+        final int minutes;
+        if (remaining == 3)
+            minutes = 0;
+        else if (remaining == 5)
+            minutes = digits(text, at + 3, 2);
+        else if (remaining == 6 && text.charAt(at + 3) == ':')
+            minutes = digits(text, at + 4, 2);
+        else
+            return Integer.MIN_VALUE;
+
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59)
+            return Integer.MIN_VALUE;
+
+        final int offset = hours * 60 + minutes;
+        return sign == '+' ? offset : -offset;
+    }
+
+    // Value of the count digits at the index, or -1 for a non-digit
+    private static int digits(CharSequence text, int index, int count) {
+        int value = 0;
+        for (int i = index; i < index + count; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void put(char[] text, int index, int value, int count) {
+        for (int i = index + count - 1; i >= index; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int daysIn(int year, int month) {
+        if (month == 2)
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Civil date to days, after Howard Hinnant's days_from_civil
+    private static long millisOf(int year, int month, int day, long millisOfDay) {
+        final int shiftedYear = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(shiftedYear, 400);
+        final int yearOfEra = shiftedYear - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        final long epochDay = era * 146_097L + dayOfEra - 719_468;
+        return epochDay * MILLIS_PER_DAY + millisOfDay;
+    }
+}
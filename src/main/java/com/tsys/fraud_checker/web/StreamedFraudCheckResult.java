@@ -0,0 +1,49 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One line of the /check/stream response - the FraudCheckResult of a
+ * streamed FraudCheckPayload, tagged with the correlation id of that
+ * payload, that is, its line number in the request (starting at 1).
+ * <p>
+ * As the results are written as soon as they are ready, they need not
+ * be in the order of the payloads.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StreamedFraudCheckResult {
+
+    @Schema(description = "Line number of the payload in the request, starting at 1", example = "1")
+    public final long correlationId;
+
+    @JsonUnwrapped
+    public final FraudCheckResult result;
+
+    @Schema(description = "Error, present only when the Fraud Status could not be determined")
+    public final String error;
+
+    private StreamedFraudCheckResult(long correlationId, FraudCheckResult result, String error) {
+        this.correlationId = correlationId;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static StreamedFraudCheckResult of(long correlationId, FraudCheckResult result) {
+        return new StreamedFraudCheckResult(correlationId, result, null);
+    }
+
+    public static StreamedFraudCheckResult failed(long correlationId, String error) {
+        return new StreamedFraudCheckResult(correlationId, null, error);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamedFraudCheckResult{" +
+                "correlationId=" + correlationId +
+                ", result=" + result +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
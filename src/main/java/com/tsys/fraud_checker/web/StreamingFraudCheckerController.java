@@ -0,0 +1,202 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+@Tag(name = "Streaming Fraud Check Controller", description = "Checks a stream of transactions for Credit Card Frauds, one per line.")
+// NOTE:
+// =====
+// Neither the request nor the response is buffered.  The payloads are
+// read one line at a time, and a payload is read only when there is
+// room for one more verification in flight (fraud.check.stream.max-in-flight).
+// While there is no room, nothing is read from the request and hence
+// the client is held back by TCP flow control.  Each result is written
+// and flushed as soon as it is ready, so memory use depends on the
+// number of verifications in flight and not on the length of the stream.
+// Nor on the length of a line: a line longer than
+// fraud.check.stream.max-line-length is dropped, and answered as such.
+@Controller
+@RequestMapping("/check")
+public class StreamingFraudCheckerController {
+
+    private static final Logger LOG = Logger.getLogger(StreamingFraudCheckerController.class.getName());
+    private static final byte[] NEW_LINE = { '\n' };
+
+    private final VerificationService verificationService;
+    private final FraudCheckPayloadValidator validator = new FraudCheckPayloadValidator();
+    private final FraudCheckJsonCodec codec;
+    private final ObjectWriter resultWriter;
+    private final int maxInFlight;
+    private final int maxLineLength;
+    private final long timeoutMillis;
+
+    @Autowired
+    public StreamingFraudCheckerController(VerificationService verificationService,
+                                           ObjectMapper objectMapper,
+                                           @Value("${fraud.check.stream.max-in-flight:256}") int maxInFlight,
+                                           @Value("${fraud.check.stream.max-line-length:16384}") int maxLineLength,
+                                           @Value("${fraud.check.async.timeout-millis:10000}") long timeoutMillis) {
+        this.verificationService = verificationService;
+        this.codec = new FraudCheckJsonCodec(objectMapper);
+        this.resultWriter = objectMapper.writerFor(StreamedFraudCheckResult.class);
+        this.maxInFlight = maxInFlight;
+        this.maxLineLength = maxLineLength;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Operation(summary = "Check a stream of newline delimited transactions for possible frauds and stream back a newline delimited result for each, as soon as it is ready.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody (content = {
+                        @Content(schema = @Schema(implementation = FraudCheckPayload.class),
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE) }))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Streams a result for each payload, tagged with its line number", content = { @Content(schema = @Schema(implementation = StreamedFraudCheckResult.class), mediaType = MediaType.APPLICATION_NDJSON_VALUE) })
+    })
+    @PostMapping(value = "stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void checkFraudInStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        final OutputStream out = response.getOutputStream();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final Set<CompletableFuture<FraudStatus>> verifications = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean abandoned = new AtomicBoolean();
+        final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        long lineNumber = 0;
+        boolean readToEnd = false;
+
+        try (BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), maxLineLength)) {
+            while (writeFailure.get() == null) {
+                final String line;
+                try {
+                    line = lines.readLine();
+                } catch (BoundedLineReader.LineTooLongException e) {
+                    write(out, StreamedFraudCheckResult.failed(++lineNumber, String.format("Line longer than %d characters!", maxLineLength)), writeFailure);
+                    continue;
+                }
+                if (line == null)
+                    break;
+
+                final long correlationId = ++lineNumber;
+                if (line.isBlank())
+                    continue;
+
+                final FraudCheckPayload payload = readPayload(line);
+                if (payload == null) {
+                    write(out, StreamedFraudCheckResult.failed(correlationId, "Malformed Fraud Check Payload!"), writeFailure);
+                    continue;
+                }
+
+                // With the same rules as /check, see FraudCheckPayloadValidator
+                final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+                validator.validate(payload, errors);
+                if (errors.hasErrors()) {
+                    write(out, StreamedFraudCheckResult.of(correlationId, FraudCheckResult.of(ValidationErrorsResponse.from(errors))), writeFailure);
+                    continue;
+                }
+
+                // Blocks reading the next payload until a verification
+                // in flight completes.
+                inFlight.acquire();
+                final CompletableFuture<FraudStatus> verification;
+                try {
+                    // Validated above, so the service need not validate it again
+                    verification = verificationService.verifyValidatedAsync(ValidatedTransaction.alreadyValidated(payload.creditCard, payload.charge), Deadline.none())
+                            .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    LOG.warning(() -> String.format("{ 'checkFraudInStream' : 'Line %d not verified: %s'}", correlationId, e));
+                    write(out, StreamedFraudCheckResult.failed(correlationId, "Fraud Status could not be determined!"), writeFailure);
+                    continue;
+                }
+                verifications.add(verification);
+                verification.whenComplete((fraudStatus, e) -> {
+                    verifications.remove(verification);
+                    try {
+                        if (!abandoned.get())
+                            write(out, e == null
+                                    ? StreamedFraudCheckResult.of(correlationId, FraudCheckResult.of(fraudStatus))
+                                    : StreamedFraudCheckResult.failed(correlationId, "Fraud Status could not be determined!"),
+                                    writeFailure);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            readToEnd = writeFailure.get() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Once this returns, the response is recycled by the container,
+            // so no result may be written after.  Unless the stream was read
+            // to its end, the client is gone, and the verifications still in
+            // flight are cancelled instead of waited for.
+            if (!readToEnd) {
+                abandoned.set(true);
+                verifications.forEach(verification -> verification.cancel(true));
+            }
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        final long payloads = lineNumber;
+        if (writeFailure.get() != null)
+            LOG.severe(() -> String.format("{ 'checkFraudInStream' : 'Stopped after %d lines, failed writing results with %s'}", payloads, writeFailure.get()));
+        else
+            LOG.info(() -> String.format("{ 'checkFraudInStream' : 'Checked %d lines'}", payloads));
+    }
+
+    private FraudCheckPayload readPayload(String line) {
+        try {
+            return codec.readPayload(line);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void write(OutputStream out, StreamedFraudCheckResult result, AtomicReference<IOException> writeFailure) {
+        if (writeFailure.get() != null)
+            return;
+        try {
+            final byte[] json = resultWriter.writeValueAsBytes(result);
+            synchronized (out) {
+                out.write(json);
+                out.write(NEW_LINE);
+                out.flush();
+            }
+        } catch (IOException e) {
+            writeFailure.compareAndSet(null, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.InFlightVerifications;
+import com.tsys.fraud_checker.services.IssuerBulkheads;
+import com.tsys.fraud_checker.services.IssuerHedging;
+import com.tsys.fraud_checker.services.IssuerResponseCache;
+import com.tsys.fraud_checker.services.KnownBadCards;
+import com.tsys.fraud_checker.services.VerificationBudgets;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Tag(name = "Verification Metrics Controller", description = "Counters of the issuer verifications since the service started.")
+@Controller
+@RequestMapping("/metrics")
+public class VerificationMetricsController {
+
+    private final VerificationBudgets verificationBudgets;
+    private final IssuerHedging issuerHedging;
+    private final IssuerBulkheads issuerBulkheads;
+    private final InFlightVerifications inFlightVerifications;
+    private final IssuerResponseCache issuerResponseCache;
+    private final KnownBadCards knownBadCards;
+
+    @Autowired
+    public VerificationMetricsController(VerificationBudgets verificationBudgets,
+                                         IssuerHedging issuerHedging,
+                                         IssuerBulkheads issuerBulkheads,
+                                         InFlightVerifications inFlightVerifications,
+                                         IssuerResponseCache issuerResponseCache,
+                                         KnownBadCards knownBadCards) {
+        this.verificationBudgets = verificationBudgets;
+        this.issuerHedging = issuerHedging;
+        this.issuerBulkheads = issuerBulkheads;
+        this.inFlightVerifications = inFlightVerifications;
+        this.issuerResponseCache = issuerResponseCache;
+        this.knownBadCards = knownBadCards;
+    }
+
+    @Operation(summary = "Get the verification counters - budgets exceeded per verification step, hedging, saturation and rejections per issuing bank lane, coalesced duplicate checks, issuer response cache statistics per verification step, and known bad card rejections")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Got the verification counters", content = { @Content(mediaType = "application/json") })
+    })
+    @GetMapping(value = "verification", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> verificationMetrics() {
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("budgetExceeded", verificationBudgets.budgetExceededCounts());
+        metrics.put("hedging", issuerHedging.hedgingCounts());
+        metrics.put("bulkheads", issuerBulkheads.laneCounts());
+        metrics.put("coalescing", inFlightVerifications.coalescingCounts());
+        metrics.put("cache", issuerResponseCache.cacheCounts());
+        metrics.put("knownBad", knownBadCards.knownBadCounts());
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -1,5 +1,7 @@
 package com.tsys.fraud_checker.web.advices;
 
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayloadValidator;
 import org.springframework.validation.DataBinder;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.InitBinder;
@@ -40,8 +42,19 @@ import org.springframework.web.bind.annotation.InitBinder;
 @ControllerAdvice
 public class FraudControllerAdvice {
 
+    // Built once, it has the constraints of the payload precompiled
+    private final FraudCheckPayloadValidator fraudCheckPayloadValidator = new FraudCheckPayloadValidator();
+
     @InitBinder
     private void activateDirectFieldAccess(DataBinder dataBinder) {
         dataBinder.initDirectFieldAccess();
     }
+
+    // In place of the generic Bean Validation validator, for a
+    // FraudCheckPayload request body.
+    @InitBinder
+    private void validateFraudCheckPayloads(DataBinder dataBinder) {
+        if (dataBinder.getTarget() instanceof FraudCheckPayload)
+            dataBinder.setValidator(fraudCheckPayloadValidator);
+    }
 }
@@ -66,11 +66,6 @@ public class GlobalExceptionAdvice {
     @ResponseBody
     public ValidationErrorsResponse onMethodArgumentNotValidException(
             MethodArgumentNotValidException e) {
-        final var errors = new ValidationErrorsResponse();
-        e.getBindingResult().getFieldErrors()
-                .stream()
-                .map(fieldError -> new ValidationError(fieldError.getField(), fieldError.getDefaultMessage()))
-                .forEach(validationError -> errors.add(validationError));
-        return errors;
+        return ValidationErrorsResponse.from(e.getBindingResult());
     }
 }
\ No newline at end of file
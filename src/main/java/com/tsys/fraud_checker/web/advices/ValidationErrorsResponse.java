@@ -1,7 +1,11 @@
 package com.tsys.fraud_checker.web.advices;
 
+import jakarta.validation.ConstraintViolation;
+import org.springframework.validation.Errors;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Returning Structured Validation Error Responses
@@ -26,4 +30,29 @@ public class ValidationErrorsResponse {
     public void add(ValidationError validationError) {
         validationErrors.add(validationError);
     }
+
+    /**
+     * For violations of an object validated by hand (without @Valid),
+     * with the same field names as that of @Valid on the object.
+     */
+    public static <T> ValidationErrorsResponse from(Set<ConstraintViolation<T>> violations) {
+        final var errors = new ValidationErrorsResponse();
+        violations.stream()
+                .map(violation -> new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()))
+                .forEach(errors::add);
+        return errors;
+    }
+
+    /**
+     * For the field errors of an object validated by Spring, for example,
+     * a request body with its BindingResult.
+     */
+    public static ValidationErrorsResponse from(Errors errors) {
+        final var response = new ValidationErrorsResponse();
+        errors.getFieldErrors()
+                .stream()
+                .map(fieldError -> new ValidationError(fieldError.getField(), fieldError.getDefaultMessage()))
+                .forEach(response::add);
+        return response;
+    }
 }
@@ -0,0 +1,55 @@
+package com.tsys.fraud_checker.web.internal;
+
+import com.tsys.fraud_checker.services.IssuerCircuitBreakers;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+@Tag(name = "Circuit Breaker Controller", description = "Shows and resets the circuit breakers around the issuer verifications")
+@Controller
+@RequestMapping("/internal/circuitBreakers")
+public class CircuitBreakerController {
+
+    private static final Logger LOG = Logger.getLogger(CircuitBreakerController.class.getName());
+
+    private final IssuerCircuitBreakers issuerCircuitBreakers;
+
+    @Autowired
+    public CircuitBreakerController(IssuerCircuitBreakers issuerCircuitBreakers) {
+        this.issuerCircuitBreakers = issuerCircuitBreakers;
+    }
+
+    @Operation(description = "State of the circuit breakers, keyed by issuing bank and verification")
+    @GetMapping(produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<Map<String, Map<String, Object>>> circuitBreakers() {
+        return ResponseEntity.ok(issuerCircuitBreakers.states());
+    }
+
+    @Operation(description = "Close the circuit breakers",
+        parameters = {
+            @Parameter(name = "issuingBank",
+                schema = @Schema(implementation = String.class),
+                description = "Optional, closes only the circuit breakers of this bank.")
+        }
+    )
+    @PostMapping("/reset")
+    public ResponseEntity<Void> reset(@RequestParam(value = "issuingBank", required = false) String issuingBank) {
+        LOG.info(() -> String.format("Resetting circuit breakers of %s", issuingBank == null ? "all banks" : issuingBank));
+        issuerCircuitBreakers.reset(issuingBank);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
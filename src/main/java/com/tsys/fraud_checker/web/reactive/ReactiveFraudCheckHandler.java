@@ -0,0 +1,70 @@
+package com.tsys.fraud_checker.web.reactive;
+
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional (WebFlux) counterpart of
+ * {@link com.tsys.fraud_checker.web.FraudCheckerController#checkFraud(FraudCheckPayload, org.springframework.validation.BindingResult, Long, String)}.
+ * <p>
+ * There is no @Valid here, so the payload is validated with the same
+ * Bean Validation constraints and the violations are translated into the
+ * same ValidationErrorsResponse that the GlobalExceptionAdvice responds
+ * with for the @Valid FraudCheckPayload.
+ */
+public class ReactiveFraudCheckHandler {
+
+    private static final Logger LOG = Logger.getLogger(ReactiveFraudCheckHandler.class.getName());
+
+    private final ReactiveVerificationService reactiveVerificationService;
+    private final Validator validator;
+
+    public ReactiveFraudCheckHandler(ReactiveVerificationService reactiveVerificationService, Validator validator) {
+        this.reactiveVerificationService = reactiveVerificationService;
+        this.validator = validator;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return route()
+                .POST("/reactive/check",
+                        contentType(MediaType.APPLICATION_JSON).and(accept(MediaType.APPLICATION_JSON)),
+                        this::checkFraud)
+                .build();
+    }
+
+    public Mono<ServerResponse> checkFraud(ServerRequest request) {
+        return request.bodyToMono(FraudCheckPayload.class)
+                .flatMap(payload -> {
+                    final Set<ConstraintViolation<FraudCheckPayload>> violations = validator.validate(payload);
+                    if (!violations.isEmpty())
+                        return ServerResponse.badRequest()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(ValidationErrorsResponse.from(violations));
+
+                    LOG.info(() -> String.format("{ 'checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
+                    return reactiveVerificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge)
+                            .doOnNext(fraudStatus -> LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus)))
+                            .flatMap(fraudStatus -> ServerResponse.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(fraudStatus));
+                })
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.badRequest().build()))
+                .onErrorResume(ServerWebInputException.class, e -> ServerResponse.badRequest().build());
+    }
+}
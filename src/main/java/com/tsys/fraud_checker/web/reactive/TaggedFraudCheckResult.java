@@ -0,0 +1,48 @@
+package com.tsys.fraud_checker.web.reactive;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.tsys.fraud_checker.web.FraudCheckResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A frame the WebSocket check channel answers with - the FraudCheckResult
+ * of a FraudCheckPayload frame, tagged with the id the gateway gave that
+ * frame.  As results are sent as soon as they are ready, they need not
+ * be in the order of the payloads.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaggedFraudCheckResult {
+
+    @Schema(description = "Id of the payload frame, absent when the frame could not be read", example = "gateway-1")
+    public final String id;
+
+    @JsonUnwrapped
+    public final FraudCheckResult result;
+
+    @Schema(description = "Error, present only when the Fraud Status could not be determined")
+    public final String error;
+
+    private TaggedFraudCheckResult(String id, FraudCheckResult result, String error) {
+        this.id = id;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static TaggedFraudCheckResult of(String id, FraudCheckResult result) {
+        return new TaggedFraudCheckResult(id, result, null);
+    }
+
+    public static TaggedFraudCheckResult failed(String id, String error) {
+        return new TaggedFraudCheckResult(id, null, error);
+    }
+
+    @Override
+    public String toString() {
+        return "TaggedFraudCheckResult{" +
+                "id='" + id + '\'' +
+                ", result=" + result +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
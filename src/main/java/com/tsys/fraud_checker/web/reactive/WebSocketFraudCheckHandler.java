@@ -0,0 +1,140 @@
+package com.tsys.fraud_checker.web.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckResult;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * A WebSocket check channel (/reactive/check/ws) for a gateway that keeps
+ * a long-lived session to the fraud checker, instead of making a request
+ * per check.
+ * <p>
+ * The gateway sends a text frame per check, a FraudCheckPayload tagged
+ * with an id of its choice:
+ * <pre>
+ *   { "id" : "gateway-1", "payload" : { "creditCard" : { ... }, "charge" : { ... } } }
+ * </pre>
+ * and is sent a {@link TaggedFraudCheckResult} frame, with the same id,
+ * as soon as that check completes, hence not in the order of the frames.
+ * A payload is validated with the same Bean Validation constraints as
+ * /reactive/check, and one that is not valid is answered with the same
+ * ValidationErrorsResponse.  An id still in flight on the session is
+ * answered as a duplicate, and a check not completed within timeoutMillis
+ * as failed.
+ * <p>
+ * At most maxInFlight checks are in flight on a session.  Beyond that no
+ * more frames are requested from the session, so Reactor Netty stops
+ * reading from the connection, and TCP pushes back on the gateway, until
+ * a check completes.
+ */
+public class WebSocketFraudCheckHandler implements WebSocketHandler {
+
+    private static final Logger LOG = Logger.getLogger(WebSocketFraudCheckHandler.class.getName());
+
+    static final String MALFORMED_PAYLOAD = "Malformed Fraud Check Payload!";
+    static final String DUPLICATE_ID = "A check with this id is already in flight!";
+    static final String UNDETERMINED = "Fraud Status could not be determined!";
+
+    private final ReactiveVerificationService reactiveVerificationService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final WebSocketService webSocketService = new HandshakeWebSocketService();
+
+    public WebSocketFraudCheckHandler(ReactiveVerificationService reactiveVerificationService,
+                                      Validator validator,
+                                      ObjectMapper objectMapper,
+                                      int maxInFlight,
+                                      long timeoutMillis) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException(String.format("Max in flight must be at least 1, got %d", maxInFlight));
+
+        this.reactiveVerificationService = reactiveVerificationService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = maxInFlight;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return route()
+                .GET("/reactive/check/ws",
+                        request -> webSocketService.handleRequest(request.exchange(), this).then(Mono.empty()))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        LOG.info(() -> String.format("{ 'websocket' : 'Opened session %s'}", session.getId()));
+        final Set<String> idsInFlight = ConcurrentHashMap.newKeySet();
+        return session.send(session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .flatMap(frame -> check(frame, idsInFlight), maxInFlight)
+                        .map(result -> session.textMessage(json(result))))
+                .doFinally(signal -> LOG.info(() -> String.format("{ 'websocket' : 'Closed session %s on %s'}", session.getId(), signal)));
+    }
+
+    private Mono<TaggedFraudCheckResult> check(String frame, Set<String> idsInFlight) {
+        final String id;
+        final FraudCheckPayload payload;
+        try {
+            final JsonNode tagged = objectMapper.readTree(frame);
+            id = tagged.path("id").isValueNode() ? tagged.path("id").asText() : null;
+            payload = objectMapper.treeToValue(tagged.get("payload"), FraudCheckPayload.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return Mono.just(TaggedFraudCheckResult.failed(null, MALFORMED_PAYLOAD));
+        }
+        if (id == null || payload == null)
+            return Mono.just(TaggedFraudCheckResult.failed(id, MALFORMED_PAYLOAD));
+
+        final Set<ConstraintViolation<FraudCheckPayload>> violations = validator.validate(payload);
+        if (!violations.isEmpty())
+            return Mono.just(TaggedFraudCheckResult.of(id, FraudCheckResult.of(ValidationErrorsResponse.from(violations))));
+
+        if (!idsInFlight.add(id))
+            return Mono.just(TaggedFraudCheckResult.failed(id, DUPLICATE_ID));
+
+        LOG.info(() -> String.format("{ 'checkFraud' : '%s for chargedAmount %s on %s'}", id, payload.charge, payload.creditCard));
+        return reactiveVerificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge)
+                .timeout(timeout)
+                .map(fraudStatus -> TaggedFraudCheckResult.of(id, FraudCheckResult.of(fraudStatus)))
+                .switchIfEmpty(Mono.fromSupplier(() -> TaggedFraudCheckResult.failed(id, UNDETERMINED)))
+                .onErrorResume(e -> {
+                    LOG.warning(() -> String.format("{ 'websocket' : 'Check %s failed with %s'}", id, e));
+                    return Mono.just(TaggedFraudCheckResult.failed(id, UNDETERMINED));
+                })
+                // Before the result is sent, so that the gateway may reuse the id on it
+                .doOnNext(result -> idsInFlight.remove(id))
+                .doOnCancel(() -> idsInFlight.remove(id));
+    }
+
+    private String json(TaggedFraudCheckResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            return objectMapper.createObjectNode().put("id", result.id).put("error", UNDETERMINED).toString();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.tsys.fraud_checker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Benchmarks the maximum sustainable concurrency of /check in the
+// platform-thread and the virtual-thread execution modes.
+//
+// Fires CONCURRENT_CHECKS requests at once against a freshly started
+// service.  As the simulated issuer latency is the same in both modes,
+// by Little's Law (concurrency = throughput x latency), the concurrency
+// the service sustains is proportional to its throughput.
+//
+// The platform-thread model cannot go beyond the smaller of Tomcat's
+// worker threads and the issuer verification threads, whereas parked
+// virtual threads don't hold on to any platform thread.
+//
+// Coalescing, the issuer response cache and known bad cards are
+// disabled, else the identical checks would share a single issuer
+// round-trip and there would be nothing to measure.
+//
+// NOTE: Starts the Web-Server twice and waits on the simulated issuer
+// latencies, hence not tagged as a UnitTest.
+@Tags({
+        @Tag("In-Process"),
+        @Tag("PerformanceTest")
+})
+public class ExecutionModeConcurrencyTest {
+
+    private static final int CONCURRENT_CHECKS = 500;
+    private static final String PAYLOAD = "{\n" +
+            "    \"creditCard\" : {\n" +
+            "        \"number\": \"4485-2847-2013-4093\",\n" +
+            "        \"holderName\" : \"Jumping Jack\",\n" +
+            "        \"issuingBank\" : \"Bank of Test\",\n" +
+            "        \"validUntil\" : \"4000-12-30T00:00:00.000+00:00\",\n" +
+            "        \"cvv\" : 123\n" +
+            "    },\n" +
+            "    \"charge\" : {\n" +
+            "        \"currency\" : \"INR\",\n" +
+            "        \"amount\" : 1235.45\n" +
+            "    }\n" +
+            "}";
+
+    @Test
+    public void virtualThreadsSustainMoreConcurrentChecksThanPlatformThreads() throws Exception {
+        final double platformThreads = checksPerSecond(false);
+        final double virtualThreads = checksPerSecond(true);
+
+        System.out.printf("Throughput for %d concurrent checks: platform threads = %.1f checks/s, virtual threads = %.1f checks/s%n",
+                CONCURRENT_CHECKS, platformThreads, virtualThreads);
+        assertThat(virtualThreads).isGreaterThan(platformThreads);
+    }
+
+    private double checksPerSecond(boolean virtualThreadsEnabled) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FraudCheckerApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreadsEnabled,
+                        "--server.tomcat.threads.max=200",
+                        "--fraud.verification.executor.threads=200",
+                        "--fraud.verification.coalescing.enabled=false",
+                        "--fraud.verification.cache.cvv.max-size=0",
+                        "--fraud.verification.cache.address.max-size=0",
+                        "--fraud.verification.known-bad.enabled=false")) {
+            final var port = context.getEnvironment().getProperty("local.server.port");
+            final var client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            final var request = HttpRequest.newBuilder(URI.create(String.format("http://localhost:%s/check", port)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+                    .build();
+
+            final long startedAt = System.nanoTime();
+            final List<CompletableFuture<Integer>> checks = IntStream.range(0, CONCURRENT_CHECKS)
+                    .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                            .thenApply(HttpResponse::statusCode))
+                    .toList();
+            CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+            final long elapsedNanos = System.nanoTime() - startedAt;
+
+            assertThat(checks).allSatisfy(check -> assertThat(check.join()).isEqualTo(200));
+            return CONCURRENT_CHECKS / (elapsedNanos / 1e9);
+        }
+    }
+}
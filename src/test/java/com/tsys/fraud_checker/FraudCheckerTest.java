@@ -33,7 +33,14 @@ import static org.mockito.BDDMockito.given;
 // @RunWith(SpringRunner.class)
 // For Junit5, use @ExtendWith
 @ExtendWith(SpringExtension.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// The same card is checked by every test, so the issuer responses and
+// failed CVVs are not remembered across them.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "fraud.verification.cache.cvv.max-size=0",
+                "fraud.verification.cache.address.max-size=0",
+                "fraud.verification.known-bad.enabled=false"
+        })
 @Tags({
         @Tag("In-Process"),
         @Tag("ComponentTest")
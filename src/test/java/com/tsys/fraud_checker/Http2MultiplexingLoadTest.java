@@ -0,0 +1,150 @@
+package com.tsys.fraud_checker;
+
+import org.apache.coyote.AbstractProtocol;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Load tests /check the way the gateway calls it - CONCURRENT_CHECKS at
+// once - over HTTP/1.1 on the GATEWAY_CONNECTIONS it keeps to a fraud
+// node, against HTTP/2 (h2c) on a single connection.
+//
+// On HTTP/1.1 a connection carries one check at a time, so checks queue
+// for a connection behind checks waiting seconds on the issuers, and
+// the tail latency grows with CONCURRENT_CHECKS / GATEWAY_CONNECTIONS.
+// On HTTP/2 the checks are streams multiplexed on one connection, each
+// only as slow as its issuers.  The connections are counted by Tomcat,
+// at their peak during each run.
+//
+// Coalescing, hedging, the circuit breaker, the issuer response cache
+// and known bad cards are disabled, so that each of the identical checks
+// waits on the simulated issuer latency, in both runs.  Else the HTTP/2
+// run would be answered from the cache filled by the HTTP/1.1 run.
+//
+// NOTE: Starts the Web-Server and waits on the simulated issuer
+// latencies, hence not tagged as a UnitTest.
+@Tags({
+        @Tag("In-Process"),
+        @Tag("PerformanceTest")
+})
+public class Http2MultiplexingLoadTest {
+
+    private static final int CONCURRENT_CHECKS = 32;
+    private static final int GATEWAY_CONNECTIONS = 4;
+    private static final String PAYLOAD = "{\n" +
+            "    \"creditCard\" : {\n" +
+            "        \"number\": \"4485-2847-2013-4093\",\n" +
+            "        \"holderName\" : \"Jumping Jack\",\n" +
+            "        \"issuingBank\" : \"Bank of Test\",\n" +
+            "        \"validUntil\" : \"4000-12-30T00:00:00.000+00:00\",\n" +
+            "        \"cvv\" : 123\n" +
+            "    },\n" +
+            "    \"charge\" : {\n" +
+            "        \"currency\" : \"INR\",\n" +
+            "        \"amount\" : 1235.45\n" +
+            "    }\n" +
+            "}";
+
+    private record LoadTestRun(long peakConnections, double p99Millis) {}
+
+    @Test
+    public void http2MultiplexesConcurrentChecksOnFewerConnectionsWithALowerTailLatency() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FraudCheckerApplication.class)
+                .run("--server.port=0",
+                        "--server.http2.enabled=true",
+                        "--fraud.http2.max-concurrent-streams=" + CONCURRENT_CHECKS,
+                        "--fraud.http2.max-concurrent-stream-execution=" + CONCURRENT_CHECKS,
+                        "--spring.threads.virtual.enabled=true",
+                        "--fraud.verification.coalescing.enabled=false",
+                        "--fraud.verification.hedging.enabled=false",
+                        "--fraud.verification.circuit-breaker.enabled=false",
+                        "--fraud.verification.cache.cvv.max-size=0",
+                        "--fraud.verification.cache.address.max-size=0",
+                        "--fraud.verification.known-bad.enabled=false")) {
+            final var webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+            final var protocol = (AbstractProtocol<?>) webServer.getTomcat().getConnector().getProtocolHandler();
+            final var port = webServer.getPort();
+
+            final LoadTestRun http11 = loadTest(HttpClient.Version.HTTP_1_1, GATEWAY_CONNECTIONS, port, protocol);
+            final LoadTestRun http2 = loadTest(HttpClient.Version.HTTP_2, CONCURRENT_CHECKS, port, protocol);
+
+            System.out.printf("%d concurrent checks: HTTP/1.1 on %d connections p99 = %.0f ms, HTTP/2 on %d connections p99 = %.0f ms%n",
+                    CONCURRENT_CHECKS, http11.peakConnections, http11.p99Millis, http2.peakConnections, http2.p99Millis);
+            assertThat(http2.peakConnections).isLessThan(http11.peakConnections);
+            assertThat(http2.p99Millis).isLessThan(http11.p99Millis);
+        }
+    }
+
+    // Each check is timed from when the gateway has it, so the time it
+    // waits for a connection (a permit of maxInFlight) counts.
+    private LoadTestRun loadTest(HttpClient.Version version, int maxInFlight, int port, AbstractProtocol<?> protocol) throws Exception {
+        awaitNoConnections(protocol);
+        final var peakConnections = new AtomicLong();
+        final var sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(protocol.getConnectionCount(), Math::max),
+                0, 5, TimeUnit.MILLISECONDS);
+
+        try (HttpClient client = HttpClient.newBuilder().version(version).build();
+             ExecutorService gateway = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Upgrades the connection to h2c before the checks share it
+            final var ping = client.send(HttpRequest.newBuilder(URI.create(String.format("http://localhost:%d/ping", port))).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            assertThat(ping.version()).isEqualTo(version);
+
+            final var request = HttpRequest.newBuilder(URI.create(String.format("http://localhost:%d/check", port)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+                    .build();
+            final var connections = new Semaphore(maxInFlight);
+            final List<CompletableFuture<Long>> checks = IntStream.range(0, CONCURRENT_CHECKS)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        final long startedAt = System.nanoTime();
+                        connections.acquireUninterruptibly();
+                        try {
+                            final var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            assertThat(response.statusCode()).isEqualTo(200);
+                            assertThat(response.version()).isEqualTo(version);
+                            return System.nanoTime() - startedAt;
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        } finally {
+                            connections.release();
+                        }
+                    }, gateway))
+                    .toList();
+            CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+
+            final long[] latencies = checks.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+            final long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+            return new LoadTestRun(peakConnections.get(), p99 / 1e6);
+        } finally {
+            sampler.shutdownNow();
+        }
+    }
+
+    private void awaitNoConnections(AbstractProtocol<?> protocol) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (protocol.getConnectionCount() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertThat(protocol.getConnectionCount()).as("Connections left open by the previous run").isZero();
+    }
+}
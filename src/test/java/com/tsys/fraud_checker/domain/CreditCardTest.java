@@ -29,4 +29,27 @@ public class CreditCardTest {
 
         assertThat(creditCard.hasExpired()).isTrue();
     }
+
+    @Test
+    public void knowsTheNetworkOfItsNumber() {
+        assertThat(CreditCardBuilder.make().withNumber("4485-2847-2013-4093").build().network()).isEqualTo(CardNetwork.VISA);
+        assertThat(CreditCardBuilder.make().withNumber("5555 5555 5555 4444").build().network()).isEqualTo(CardNetwork.MASTERCARD);
+        assertThat(CreditCardBuilder.make().withNumber("3782 822463 10005").build().network()).isEqualTo(CardNetwork.AMEX);
+        assertThat(CreditCardBuilder.make().withNumber("6011111111111117").build().network()).isEqualTo(CardNetwork.DISCOVER);
+        assertThat(CreditCardBuilder.make().withNumber("3530111333300000").build().network()).isEqualTo(CardNetwork.JCB);
+        assertThat(CreditCardBuilder.make().withNumber("30569309025904").build().network()).isEqualTo(CardNetwork.DINERS);
+        assertThat(CreditCardBuilder.make().withNumber("1234567812345670").build().network()).isEqualTo(CardNetwork.UNKNOWN);
+    }
+
+    @Test
+    public void hasAValidNumberOnlyWhenItPassesTheLuhnCheck() {
+        assertThat(CreditCardBuilder.make().withNumber("4485-2847-2013-4093").build().hasValidNumber()).isTrue();
+        assertThat(CreditCardBuilder.make().withNumber("1234 5678 9012 3456").build().hasValidNumber()).isFalse();
+    }
+
+    @Test
+    public void hasAValidNumberOnlyWhenItsLengthIsThatAcceptedByTheValidator() {
+        assertThat(CreditCardBuilder.make().withNumber("4485 - 2847 - 2013 - 4093").build().hasValidNumber()).isFalse();
+        assertThat(CreditCardBuilder.make().withNumber("30569309025904").build().hasValidNumber()).isFalse();
+    }
 }
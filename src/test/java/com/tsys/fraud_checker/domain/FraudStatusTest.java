@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 @Tags({
         @Tag("StandAlone"),
@@ -19,7 +20,7 @@ public class FraudStatusTest {
         final int validCvv = 0;
         final int validAddress = 0;
         final boolean cardExpired = false;
-        final FraudStatus pass = new FraudStatus(validCvv, validAddress, cardExpired);
+        final FraudStatus pass = FraudStatus.of(validCvv, validAddress, cardExpired);
 
         // When-Then
         assertThat(pass.overall, is(FraudStatus.PASS));
@@ -31,7 +32,7 @@ public class FraudStatusTest {
         final int validCvv = 0;
         final int validAddress = 0;
         final boolean cardExpired = true;
-        final FraudStatus fail = new FraudStatus(validCvv, validAddress, cardExpired);
+        final FraudStatus fail = FraudStatus.of(validCvv, validAddress, cardExpired);
 
         // When-Then
         assertThat(fail.overall, is(FraudStatus.FAIL));
@@ -43,7 +44,7 @@ public class FraudStatusTest {
         final int invalidCvv = 1;
         final int validAddress = 0;
         final boolean cardExpired = false;
-        final FraudStatus fail = new FraudStatus(invalidCvv, validAddress, cardExpired);
+        final FraudStatus fail = FraudStatus.of(invalidCvv, validAddress, cardExpired);
 
         // When-Then
         assertThat(fail.overall, is(FraudStatus.FAIL));
@@ -55,9 +56,15 @@ public class FraudStatusTest {
         final int validCvv = 0;
         final int incorrectAddress = 1;
         final boolean cardExpired = false;
-        final FraudStatus suspicious = new FraudStatus(validCvv, incorrectAddress, cardExpired);
+        final FraudStatus suspicious = FraudStatus.of(validCvv, incorrectAddress, cardExpired);
 
         // When-Then
         assertThat(suspicious.overall, is(FraudStatus.SUSPICIOUS));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fraudStatusesOfTheSameOutcomesAreTheSameInstance() {
+        // When-Then
+        assertThat(FraudStatus.of(0, 1, false), is(sameInstance(FraudStatus.of(0, 1, false))));
+    }
+}
@@ -1,13 +1,18 @@
 package com.tsys.fraud_checker.domain;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Tags;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.Currency;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Tags({
@@ -17,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class MoneyTest {
     private final Money inr_100_253 = new Money(Currency.getInstance("INR"), 100.253);
     private final Money usd5 = new Money(Currency.getInstance("USD"), 5d);
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
     public void stringRepresentedBySymbolWithAmount2HavingPlacesOfDecimal() {
@@ -28,6 +34,77 @@ public class MoneyTest {
         assertThat(inr_100_253.add(inr_100_253), is(new Money(Currency.getInstance("INR"), 200.506)));
     }
 
+    @Test
+    public void keepsAnAmountWithMoreDecimalPlacesThanItsCurrencyWithoutRounding() {
+        assertThat(inr_100_253.getAmount(), is(new BigDecimal("100.253")));
+        assertThat(inr_100_253.isAmountInMinorUnits(), is(false));
+        assertThrows(IllegalStateException.class, inr_100_253::minorUnits);
+        assertThat(new Money(Currency.getInstance("JPY"), 1234.5).isAmountInMinorUnits(), is(false));
+    }
+
+    @Test
+    public void isInMinorUnitsWhenItHasNoMoreDecimalPlacesThanItsCurrency() {
+        final Money inr_100_10 = new Money(Currency.getInstance("INR"), 100.10);
+        assertThat(inr_100_10.isAmountInMinorUnits(), is(true));
+        assertThat(inr_100_10.minorUnits(), is(10010L));
+        assertThat(Money.of(Currency.getInstance("INR"), new BigDecimal("100.1000")), is(inr_100_10));
+        assertThat(new Money(Currency.getInstance("JPY"), 1234d).minorUnits(), is(1234L));
+        assertThat(new Money(Currency.getInstance("INR"), null).isAmountInMinorUnits(), is(true));
+    }
+
+    @Test
+    public void addsExactly() {
+        final Currency usd = Currency.getInstance("USD");
+        assertThat(new Money(usd, 0.1).add(new Money(usd, 0.2)), is(new Money(usd, 0.3)));
+        assertThat(Money.ofMinorUnits(usd, 1).add(Money.ofMinorUnits(usd, 2)).getAmount(), is(new BigDecimal("0.03")));
+    }
+
+    @Test
+    public void shoutsWhenTheSumIsOutOfRange() {
+        final Money most = Money.ofMinorUnits(Currency.getInstance("USD"), Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> most.add(usd5));
+    }
+
+    @Test
+    public void comparesAmountsOfTheSameCurrency() {
+        assertThat(usd5.compareTo(new Money(Currency.getInstance("USD"), 5.01)), is(lessThan(0)));
+        assertThat(usd5.compareTo(new Money(Currency.getInstance("USD"), 4.99)), is(greaterThan(0)));
+        assertThat(usd5.compareTo(Money.ofMinorUnits(Currency.getInstance("USD"), 500)), is(0));
+        assertThrows(IllegalArgumentException.class, () -> usd5.compareTo(inr_100_253));
+    }
+
+    @Test
+    public void stringRepresentsAmountsBelowOneMajorUnitAndNegativeAmounts() {
+        assertThat(Money.ofMinorUnits(Currency.getInstance("INR"), 5).toString(), is("₹ 0.05"));
+        assertThat(Money.ofMinorUnits(Currency.getInstance("INR"), -1234).toString(), is("₹ -12.34"));
+        assertThat(new Money(null, null).toString(), is("? ?"));
+    }
+
+    @Test
+    public void knowsWhetherItsCurrencyAndAmountArePresent() {
+        final Money noAmount = new Money(Currency.getInstance("INR"), null);
+        assertThat(noAmount.hasCurrency(), is(true));
+        assertThat(noAmount.hasAmount(), is(false));
+        assertThat(noAmount.getAmount() == null, is(true));
+        assertThrows(IllegalStateException.class, noAmount::minorUnits);
+    }
+
+    @Test
+    public void readsAndWritesJsonWithTheAmountInMajorUnits() throws JsonProcessingException {
+        final Money charge = objectMapper.readValue("{ \"currency\" : \"INR\", \"amount\" : 1234.56 }", Money.class);
+
+        assertThat(charge, is(Money.ofMinorUnits(Currency.getInstance("INR"), 123456)));
+        assertThat(objectMapper.writeValueAsString(charge), is("{\"currency\":\"INR\",\"amount\":1234.56}"));
+    }
+
+    @Test
+    public void readsJsonWithoutTheCurrencyOrTheAmount() throws JsonProcessingException {
+        final Money charge = objectMapper.readValue("{}", Money.class);
+
+        assertThat(charge.hasCurrency(), is(false));
+        assertThat(charge.hasAmount(), is(false));
+    }
+
     @Test
     public void shoutsWhenAddingDifferentCurrencies() {
         assertThrows(IllegalArgumentException.class,
@@ -0,0 +1,116 @@
+package com.tsys.fraud_checker.iso8583;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class Iso8583CodecTest {
+
+    private final Iso8583Message authorizationRequest = new Iso8583Message("0100")
+            .with(Iso8583Fields.PAN, "4485284720134093")
+            .with(Iso8583Fields.PROCESSING_CODE, "000000")
+            .with(Iso8583Fields.AMOUNT, "000000123545")
+            .with(Iso8583Fields.STAN, "000001")
+            .with(Iso8583Fields.EXPIRY_DATE, "3012")
+            .with(Iso8583Fields.CURRENCY_CODE, "356")
+            .with(Iso8583Fields.HOLDER_NAME, "Jumping Jack")
+            .with(Iso8583Fields.ISSUING_BANK, "Bank of Test")
+            .with(Iso8583Fields.CVV, "123");
+
+    @Test
+    public void encodesTheFieldsAfterTheMtiAndBitmaps() {
+        final var message = new Iso8583Message("0100")
+                .with(Iso8583Fields.PAN, "4485284720134093")
+                .with(Iso8583Fields.AMOUNT, "000000123545")
+                .with(Iso8583Fields.STAN, "000001");
+
+        final byte[] encoded = Iso8583Codec.encode(message);
+
+        final var frame = ByteBuffer.wrap(encoded);
+        assertThat(new String(encoded, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("0100");
+        // Fields 2, 4 and 11, no secondary bitmap
+        assertThat(frame.getLong(4)).isEqualTo(0x5020000000000000L);
+        assertThat(new String(encoded, 12, encoded.length - 12, StandardCharsets.US_ASCII))
+                .isEqualTo("164485284720134093000000123545000001");
+    }
+
+    @Test
+    public void encodesASecondaryBitmapForFieldsAbove64() {
+        final byte[] encoded = Iso8583Codec.encode(authorizationRequest);
+
+        final var frame = ByteBuffer.wrap(encoded);
+        assertThat(frame.getLong(4)).isNegative();
+        // Fields 120, 121 and 122
+        assertThat(frame.getLong(12)).isEqualTo(0x00000000000001C0L);
+        assertThat(new String(encoded, encoded.length - 36, 36, StandardCharsets.US_ASCII))
+                .isEqualTo("012Jumping Jack012Bank of Test003123");
+    }
+
+    @Test
+    public void decodesWhatItEncodes() {
+        final var decoded = Iso8583Codec.decode(ByteBuffer.wrap(Iso8583Codec.encode(authorizationRequest)));
+
+        assertThat(decoded.mti).isEqualTo("0100");
+        for (int field = 2; field <= Iso8583Message.MAX_FIELD; field++)
+            assertThat(decoded.get(field)).as("Field %d", field).isEqualTo(authorizationRequest.get(field));
+    }
+
+    @Test
+    public void rejectsMessagesItCannotDecode() {
+        final byte[] encoded = Iso8583Codec.encode(new Iso8583Message("0100")
+                .with(Iso8583Fields.AMOUNT, "000000123545")
+                .with(Iso8583Fields.STAN, "000001"));
+        final byte[] unsupportedField = encoded.clone();
+        // Field 8, which the codec does not know
+        unsupportedField[4] |= 0x01;
+        final byte[] notNumeric = encoded.clone();
+        notNumeric[12] = 'X';
+        final byte[] trailingBytes = Arrays.copyOf(encoded, encoded.length + 1);
+
+        assertThatThrownBy(() -> Iso8583Codec.decode(ByteBuffer.wrap(unsupportedField)))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("Field 8 is not supported");
+        assertThatThrownBy(() -> Iso8583Codec.decode(ByteBuffer.wrap(notNumeric)))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("Field 4 must be numeric");
+        assertThatThrownBy(() -> Iso8583Codec.decode(ByteBuffer.wrap(encoded, 0, encoded.length - 1)))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("Message ends before its last field");
+        assertThatThrownBy(() -> Iso8583Codec.decode(ByteBuffer.wrap(trailingBytes)))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("1 bytes after the last field");
+        assertThatThrownBy(() -> Iso8583Codec.decode(ByteBuffer.wrap("01X0".getBytes(StandardCharsets.US_ASCII))))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("MTI must be 4 digits, got 01X0");
+    }
+
+    @Test
+    public void rejectsFieldsOfTheWrongLengthWhenEncoding() {
+        assertThatThrownBy(() -> Iso8583Codec.encode(new Iso8583Message("0110").with(Iso8583Fields.STAN, "1")))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("Field 11 must be exactly 6 long, got 1");
+        assertThatThrownBy(() -> Iso8583Codec.encode(new Iso8583Message("0110").with(Iso8583Fields.PAN, "4".repeat(20))))
+                .isInstanceOf(Iso8583FormatException.class)
+                .hasMessage("Field 2 must be at most 19 long, got 20");
+    }
+
+    @Test
+    public void masksTheCardDataWhenLogged() {
+        assertThat(authorizationRequest.toString())
+                .contains("2=448528******4093")
+                .contains("122=***")
+                .doesNotContain("4485284720134093")
+                .doesNotContain("122=123");
+    }
+}
@@ -0,0 +1,260 @@
+package com.tsys.fraud_checker.iso8583;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// The listener is started on an ephemeral port and driven over loopback
+// by a test client, as a switch would.
+//
+// NOTE: No Web-Server is deployed
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class Iso8583ListenerTest {
+
+    private final String futureExpiry = YearMonth.now().plusYears(2).format(DateTimeFormatter.ofPattern("yyMM"));
+
+    @Mock
+    private VerificationService verificationService;
+
+    private Iso8583Listener listener;
+    private Iso8583TestClient client;
+
+    @BeforeEach
+    public void startListener() throws IOException {
+        final var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        final var handler = new Iso8583FraudCheckHandler(verificationService, validator, 10000);
+        listener = new Iso8583Listener(handler, 0, 8192, 2);
+        client = new Iso8583TestClient(listener.port());
+    }
+
+    @AfterEach
+    public void stopListener() throws IOException {
+        client.close();
+        listener.close();
+    }
+
+    @Test
+    public void answersAnAuthorizationRequestWithItsFraudStatus() throws IOException {
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(FraudStatus.of(0, 1, false)));
+
+        client.send(authorizationRequest("000001"));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.mti).isEqualTo("0110");
+        assertThat(response.get(Iso8583Fields.STAN)).isEqualTo("000001");
+        assertThat(response.get(Iso8583Fields.AMOUNT)).isEqualTo("000000123545");
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.SUSPECTED_FRAUD);
+        assertThat(response.get(Iso8583Fields.FRAUD_CHECK_RESULT))
+                .isEqualTo("cvvStatus=pass;avStatus=incorrect address;overall=suspicious");
+        assertThat(response.has(Iso8583Fields.CVV)).isFalse();
+        assertThat(response.has(Iso8583Fields.HOLDER_NAME)).isFalse();
+
+        final var transaction = ArgumentCaptor.forClass(ValidatedTransaction.class);
+        verify(verificationService).verifyValidatedAsync(transaction.capture(), any(Deadline.class));
+        assertThat(transaction.getValue().card.number).isEqualTo("4485284720134093");
+        assertThat(transaction.getValue().card.holderName).isEqualTo("Jumping Jack");
+        assertThat(transaction.getValue().card.issuingBank).isEqualTo("Bank of Test");
+        assertThat(transaction.getValue().card.cvv).isEqualTo(123);
+        assertThat(transaction.getValue().card.hasExpired()).isFalse();
+        assertThat(transaction.getValue().charge).isEqualTo(new Money(Currency.getInstance("INR"), 1235.45d));
+    }
+
+    @Test
+    public void answersAFinancialRequestWithA0210() throws IOException {
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(FraudStatus.of(0, 0, false)));
+        final var request = authorizationRequest("000001");
+        final var financialRequest = new Iso8583Message("0200");
+        for (int field = 2; field <= Iso8583Message.MAX_FIELD; field++)
+            if (request.has(field))
+                financialRequest.with(field, request.get(field));
+
+        client.send(financialRequest);
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.mti).isEqualTo("0210");
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.APPROVED);
+    }
+
+    @Test
+    public void answersTheRequestsInFlightAsTheyCompleteCorrelatedByStan() throws IOException {
+        final List<CompletableFuture<FraudStatus>> inFlight = new CopyOnWriteArrayList<>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willAnswer(invocation -> {
+                    final var verification = new CompletableFuture<FraudStatus>();
+                    inFlight.add(verification);
+                    return verification;
+                });
+
+        client.send(authorizationRequest("000001"));
+        client.send(authorizationRequest("000002"));
+        verify(verificationService, timeout(1000).times(2)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+
+        inFlight.get(1).complete(FraudStatus.of(0, 0, false));
+        final Iso8583Message second = client.receive();
+        inFlight.get(0).complete(FraudStatus.of(1, 0, false));
+        final Iso8583Message first = client.receive();
+
+        assertThat(second.get(Iso8583Fields.STAN)).isEqualTo("000002");
+        assertThat(second.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.APPROVED);
+        assertThat(first.get(Iso8583Fields.STAN)).isEqualTo("000001");
+        assertThat(first.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.DO_NOT_HONOUR);
+    }
+
+    @Test
+    public void stopsReadingWhenMaxRequestsAreInFlight() throws IOException {
+        final List<CompletableFuture<FraudStatus>> inFlight = new CopyOnWriteArrayList<>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willAnswer(invocation -> {
+                    final var verification = new CompletableFuture<FraudStatus>();
+                    inFlight.add(verification);
+                    return verification;
+                });
+
+        client.send(authorizationRequest("000001"));
+        client.send(authorizationRequest("000002"));
+        client.send(authorizationRequest("000003"));
+
+        verify(verificationService, timeout(1000).times(2)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+        verify(verificationService, after(200).times(2)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+
+        inFlight.get(0).complete(FraudStatus.of(0, 0, false));
+        assertThat(client.receive().get(Iso8583Fields.STAN)).isEqualTo("000001");
+        verify(verificationService, timeout(1000).times(3)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+        inFlight.forEach(verification -> verification.complete(FraudStatus.of(0, 0, false)));
+    }
+
+    @Test
+    public void answersAStanAlreadyInFlightAsADuplicate() throws IOException {
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(new CompletableFuture<>());
+
+        client.send(authorizationRequest("000001"));
+        client.send(authorizationRequest("000001"));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.get(Iso8583Fields.STAN)).isEqualTo("000001");
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.DUPLICATE_TRANSMISSION);
+    }
+
+    @Test
+    public void answersAnInvalidRequestWithItsValidationErrorsWithoutVerifyingIt() throws IOException {
+        final var request = authorizationRequest("000001").with(Iso8583Fields.CVV, null);
+
+        client.send(request);
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.FORMAT_ERROR);
+        assertThat(response.get(Iso8583Fields.FRAUD_CHECK_RESULT)).isEqualTo("errors=creditCard.cvv: is mandatory!");
+        verify(verificationService, never()).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+    }
+
+    @Test
+    public void answersAnUnknownCurrencyAsAFormatError() throws IOException {
+        client.send(authorizationRequest("000001").with(Iso8583Fields.CURRENCY_CODE, "999"));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.FORMAT_ERROR);
+        assertThat(response.get(Iso8583Fields.FRAUD_CHECK_RESULT))
+                .isEqualTo("errors=charge.currency: Field 49 is not an ISO 4217 currency: 999");
+    }
+
+    @Test
+    public void doesNotReadTheAmountWithoutItsCurrency() throws IOException {
+        client.send(authorizationRequest("000001").with(Iso8583Fields.CURRENCY_CODE, null));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.FORMAT_ERROR);
+        assertThat(response.get(Iso8583Fields.FRAUD_CHECK_RESULT)).contains("charge.currency: is required!");
+        verify(verificationService, never()).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+    }
+
+    @Test
+    public void answersAFailedVerificationAsASystemMalfunction() throws IOException {
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+
+        client.send(authorizationRequest("000001"));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.SYSTEM_MALFUNCTION);
+        assertThat(response.has(Iso8583Fields.FRAUD_CHECK_RESULT)).isFalse();
+    }
+
+    @Test
+    public void answersOtherRequestsAsInvalidTransactions() throws IOException {
+        client.send(new Iso8583Message("0800").with(Iso8583Fields.STAN, "000001"));
+        final Iso8583Message response = client.receive();
+
+        assertThat(response.mti).isEqualTo("0810");
+        assertThat(response.get(Iso8583Fields.RESPONSE_CODE)).isEqualTo(Iso8583FraudCheckHandler.INVALID_TRANSACTION);
+    }
+
+    @Test
+    public void answersTheRequestsInFlightBeforeClosingWhenTheSwitchStopsSending() throws IOException {
+        final var verification = new CompletableFuture<FraudStatus>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(verification);
+
+        client.send(authorizationRequest("000001"));
+        client.finishSending();
+        verify(verificationService, timeout(1000)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+        verification.complete(FraudStatus.of(0, 0, false));
+
+        assertThat(client.receive().get(Iso8583Fields.STAN)).isEqualTo("000001");
+        assertThat(client.isClosedByListener()).isTrue();
+    }
+
+    @Test
+    public void closesTheConnectionOnAMalformedMessage() throws IOException {
+        client.sendFrame("0100garbage".getBytes());
+
+        assertThat(client.isClosedByListener()).isTrue();
+    }
+
+    private Iso8583Message authorizationRequest(String stan) {
+        return new Iso8583Message("0100")
+                .with(Iso8583Fields.PAN, "4485284720134093")
+                .with(Iso8583Fields.PROCESSING_CODE, "000000")
+                .with(Iso8583Fields.AMOUNT, "000000123545")
+                .with(Iso8583Fields.STAN, stan)
+                .with(Iso8583Fields.EXPIRY_DATE, futureExpiry)
+                .with(Iso8583Fields.CURRENCY_CODE, "356")
+                .with(Iso8583Fields.HOLDER_NAME, "Jumping Jack")
+                .with(Iso8583Fields.ISSUING_BANK, "Bank of Test")
+                .with(Iso8583Fields.CVV, "123");
+    }
+}
@@ -0,0 +1,56 @@
+package com.tsys.fraud_checker.iso8583;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+// A switch, as the listener sees it: sends length-prefixed requests
+// without waiting for their responses, and reads the responses in the
+// order they arrive.
+public class Iso8583TestClient implements Closeable {
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+
+    public Iso8583TestClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setSoTimeout(5000);
+        out = new DataOutputStream(socket.getOutputStream());
+        in = new DataInputStream(socket.getInputStream());
+    }
+
+    public void send(Iso8583Message request) throws IOException {
+        sendFrame(Iso8583Codec.encode(request));
+    }
+
+    public void sendFrame(byte[] frame) throws IOException {
+        out.writeShort(frame.length);
+        out.write(frame);
+        out.flush();
+    }
+
+    public Iso8583Message receive() throws IOException {
+        final byte[] frame = new byte[in.readUnsignedShort()];
+        in.readFully(frame);
+        return Iso8583Codec.decode(ByteBuffer.wrap(frame));
+    }
+
+    public boolean isClosedByListener() throws IOException {
+        return in.read() < 0;
+    }
+
+    // The switch has no more requests, the responses may still be read
+    public void finishSending() throws IOException {
+        socket.shutdownOutput();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
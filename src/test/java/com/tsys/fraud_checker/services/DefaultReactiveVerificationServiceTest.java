@@ -0,0 +1,134 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Currency;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+
+// Mono.delay runs on a virtual clock with StepVerifier.withVirtualTime,
+// so these tests do not wait for the simulated issuer latencies.
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class DefaultReactiveVerificationServiceTest {
+
+    private static final int CVV_STATUS_PASS = 0;
+    private static final int CVV_STATUS_FAIL = 1;
+    private static final int ADDRESS_VERIFICATION_STATUS_PASS = 0;
+    private static final int ADDRESS_VERIFICATION_STATUS_FAIL = 1;
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private Random random;
+
+    @InjectMocks
+    private DefaultReactiveVerificationService reactiveVerificationService;
+
+    @Test
+    public void aValidCardPassesFraudCheckAfterTheSlowerVerification() {
+        given(random.nextInt(anyInt()))
+                .willReturn(1000) // for CVV delayMillis
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+                .willReturn(1000); // for address verification delayMillis
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(2999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext(FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, false))
+                .verifyComplete();
+    }
+
+    @Test
+    public void aValidCardWithIncorrectAddressIsSuspicious() {
+        given(random.nextInt(anyInt()))
+                .willReturn(0) // for CVV delayMillis
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_FAIL)
+                .willReturn(500); // for address verification delayMillis
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount))
+                .thenAwait(Duration.ofMillis(2000))
+                .expectNext(FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_FAIL, false))
+                .verifyComplete();
+    }
+
+    @Test
+    public void anIncorrectCVVDoesNotWaitForAddressVerification() {
+        given(random.nextInt(anyInt()))
+                .willReturn(0) // for CVV delayMillis
+                .willReturn(CVV_STATUS_FAIL)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+                .willReturn(2999); // for address verification delayMillis
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(1999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext(FraudStatus.degraded(FraudStatus.FAIL, FraudStatus.UNVERIFIED,
+                        FraudStatus.FAIL, "Address verification skipped as CVV failed"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void anExpiredCardFailsFraudCheckWhateverTheIssuerAnswers() {
+        given(random.nextInt(anyInt()))
+                .willReturn(0) // for CVV delayMillis
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+                .willReturn(0); // for address verification delayMillis
+
+        final CreditCard expiredCard = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withValidNumber()
+                .withValidCVV()
+                .withPastExpiryDate()
+                .build();
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(expiredCard, chargedAmount))
+                .thenAwait(Duration.ofMillis(2000))
+                .expectNext(FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, true))
+                .verifyComplete();
+    }
+
+    @Test
+    public void pendingChecksDoNotHoldOnToThreads() {
+        // statuses are drawn between 0 and 2, delays otherwise
+        given(random.nextInt(anyInt()))
+                .willAnswer(invocation -> invocation.<Integer>getArgument(0) == 2 ? CVV_STATUS_PASS : 1000);
+        final int pendingChecks = 10_000;
+
+        StepVerifier.withVirtualTime(() -> Flux.range(0, pendingChecks)
+                        .flatMap(check -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount), pendingChecks))
+                .thenAwait(Duration.ofMillis(3000))
+                .expectNextCount(pendingChecks)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,88 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.config.FraudConfiguration;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// The seeded Random bean makes the simulated issuer latencies repeatable,
+// so replaying the same seed tells us how long each check would have
+// taken when CVV and Address verifications ran one after the other.
+//
+// NOTE: Takes as long as the simulated issuer round-trips, hence not
+// tagged as a UnitTest.
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("PerformanceTest")
+})
+public class DefaultVerificationServiceLatencyTest {
+
+    private static final int SAMPLES = 5;
+    private static final int CVV_STATUS_FAIL = 1;
+
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    private final ExecutorService issuerVerificationExecutor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void shutdownExecutor() {
+        issuerVerificationExecutor.shutdownNow();
+    }
+
+    @Test
+    public void medianLatencyIsThatOfTheSlowerVerification() throws InterruptedException {
+        final var seededRandom = new FraudConfiguration().random();
+        final var defaultVerificationService = new DefaultVerificationService(seededRandom, IssuerBulkheads.overflowOnly(issuerVerificationExecutor),
+                new VerificationBudgets(0.9, 0.9, FraudStatus.SUSPICIOUS), IssuerHedging.disabled(),
+                IssuerCircuitBreakers.disabled(), InFlightVerifications.disabled(), IssuerResponseCache.disabled(),
+                KnownBadCards.disabled());
+        final long[] tookMillis = new long[SAMPLES];
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            final long startedAt = System.nanoTime();
+            defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
+            tookMillis[sample] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        }
+
+        final var replayedRandom = new FraudConfiguration().random();
+        final long[] concurrentMillis = new long[SAMPLES];
+        final long[] sequentialMillis = new long[SAMPLES];
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            final int cvvMillis = replayedRandom.nextInt(3000) + 2000;
+            final int cvvStatus = replayedRandom.nextInt(2);
+            replayedRandom.nextInt(2); // address verification status
+            final int addressVerificationMillis = replayedRandom.nextInt(3000);
+            concurrentMillis[sample] = cvvStatus == CVV_STATUS_FAIL ? cvvMillis : Math.max(cvvMillis, addressVerificationMillis);
+            sequentialMillis[sample] = cvvMillis + addressVerificationMillis;
+        }
+
+        assertThat(p50(tookMillis)).isCloseTo(p50(concurrentMillis), within(250L));
+        assertThat(p50(tookMillis)).isLessThan(p50(sequentialMillis));
+    }
+
+    private long p50(long[] latencies) {
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
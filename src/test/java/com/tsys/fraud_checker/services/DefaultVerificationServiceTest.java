@@ -14,8 +14,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Currency;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
 
@@ -42,7 +47,14 @@ import static org.mockito.BDDMockito.given;
 // Using this I directly auto-wire the service in the test and I also get it
 // wrapped in the Spring's default validation advice.
 //
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+// The same card is checked by every test, so the issuer responses and
+// failed CVVs are not remembered across them.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+    properties = {
+        "fraud.verification.cache.cvv.max-size=0",
+        "fraud.verification.cache.address.max-size=0",
+        "fraud.verification.known-bad.enabled=false"
+    })
 @Tag("UnitTest")
 // Here’s a validation test at the service level
 public class DefaultVerificationServiceTest {
@@ -64,6 +76,10 @@ public class DefaultVerificationServiceTest {
   private Random random;
   @Autowired
   private DefaultVerificationService defaultVerificationService;
+  @Autowired
+  private VerificationBudgets verificationBudgets;
+  @Autowired
+  private IssuerCircuitBreakers issuerCircuitBreakers;
 
   @Test
   public void aValidCardPassesFraudCheck() throws InterruptedException {
@@ -73,19 +89,37 @@ public class DefaultVerificationServiceTest {
         .willReturn(ADDRESS_VERIFICATION_STATUS_PASS);
 
     final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
-    final var expectedFraudStatus = new FraudStatus(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, false);
+    final var expectedFraudStatus = FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, false);
     assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
   }
 
   @Test
   public void aValidCardWithIncorrectCVVFailsFraudCheck() throws InterruptedException {
+    given(random.nextInt(anyInt()))
+        .willReturn(-1500) // for sleepMillis, after the address is verified
+        .willReturn(CVV_STATUS_FAIL)
+        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+        .willReturn(0); // for address verification sleepMillis
+
+    final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
+    final var expectedFraudStatus = FraudStatus.of(CVV_STATUS_FAIL, ADDRESS_VERIFICATION_STATUS_PASS, false);
+    assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+  }
+
+  @Test
+  public void anIncorrectCVVDoesNotWaitForAddressVerification() throws InterruptedException {
     given(random.nextInt(anyInt()))
         .willReturn(-2000) // for sleepMillis
         .willReturn(CVV_STATUS_FAIL)
-        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS);
+        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+        .willReturn(2999); // for address verification sleepMillis
 
+    final long startedAt = System.nanoTime();
     final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
-    final var expectedFraudStatus = new FraudStatus(CVV_STATUS_FAIL, ADDRESS_VERIFICATION_STATUS_PASS, false);
+    final long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    assertThat(tookMillis).isLessThan(2999);
+    final var expectedFraudStatus = FraudStatus.degraded(FraudStatus.FAIL, FraudStatus.UNVERIFIED,
+        FraudStatus.FAIL, "Address verification skipped as CVV failed");
     assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
   }
 
@@ -97,7 +131,7 @@ public class DefaultVerificationServiceTest {
         .willReturn(ADDRESS_VERIFICATION_STATUS_FAIL);
 
     final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
-    final var expectedFraudStatus = new FraudStatus(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_FAIL, false);
+    final var expectedFraudStatus = FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_FAIL, false);
     assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
   }
 
@@ -117,7 +151,122 @@ public class DefaultVerificationServiceTest {
         .build();
 
     final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(expiredCard, chargedAmount);
-    final var expectedFraudStatus = new FraudStatus(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, true);
+    final var expectedFraudStatus = FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, true);
     assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void aCVVVerificationExceedingItsBudgetIsAnsweredWithDegradedStatusByTheDeadline() throws InterruptedException {
+    given(random.nextInt(anyInt()))
+        .willReturn(2999) // for sleepMillis
+        .willReturn(CVV_STATUS_PASS)
+        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+        .willReturn(0); // for address verification sleepMillis
+    final long exceededBefore = verificationBudgets.budgetExceededCounts().get("cvv");
+
+    final long startedAt = System.nanoTime();
+    final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount, Deadline.after(200));
+    final long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+    final var expectedFraudStatus = FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+        FraudStatus.SUSPICIOUS, "CVV verification exceeded its latency budget");
+    assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+    assertThat(tookMillis).isLessThan(1000);
+    assertThat(verificationBudgets.budgetExceededCounts().get("cvv")).isEqualTo(exceededBefore + 1);
+  }
+
+  @Test
+  public void anAddressVerificationExceedingItsBudgetIsAnsweredWithDegradedStatusByTheDeadline() throws InterruptedException {
+    given(random.nextInt(anyInt()))
+        .willReturn(-2000) // for sleepMillis
+        .willReturn(CVV_STATUS_PASS)
+        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+        .willReturn(2999); // for address verification sleepMillis
+    final long exceededBefore = verificationBudgets.budgetExceededCounts().get("address");
+
+    final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount, Deadline.after(200));
+
+    final var expectedFraudStatus = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+        FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+    assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+    assertThat(verificationBudgets.budgetExceededCounts().get("address")).isEqualTo(exceededBefore + 1);
+  }
+
+  @Test
+  public void verificationsCompletingWithinTheDeadlineAreNotDegraded() throws InterruptedException {
+    given(random.nextInt(anyInt()))
+        .willReturn(-2000) // for sleepMillis
+        .willReturn(CVV_STATUS_PASS)
+        .willReturn(ADDRESS_VERIFICATION_STATUS_PASS);
+
+    final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount, Deadline.after(2000));
+    final var expectedFraudStatus = FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, false);
+    assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+  }
+
+  @Test
+  public void aCardOfABankWithAnOpenCircuitIsAnsweredFromLocalSignals() throws InterruptedException {
+    final var failingBank = "Bank of Failures";
+    for (int call = 0; call < 20; call++)
+      issuerCircuitBreakers.record(failingBank, VerificationStep.CVV,
+          CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+    final var cardOfFailingBank = CreditCardBuilder.make()
+        .withHolder("Jumping Jack")
+        .withIssuingBank(failingBank)
+        .withValidNumber()
+        .withValidCVV()
+        .withFutureExpiryDate()
+        .build();
+
+    try {
+      final var actualFraudStatus = defaultVerificationService.verifyTransactionAuthenticity(cardOfFailingBank, chargedAmount);
+
+      final var expectedFraudStatus = FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+          FraudStatus.SUSPICIOUS, "CVV verification circuit open for Bank of Failures");
+      assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+    } finally {
+      issuerCircuitBreakers.reset(failingBank);
+    }
+  }
+
+  @Test
+  public void aCardOfABankWithASaturatedLaneIsAnsweredWithDegradedStatusWithoutCountingAgainstTheBank() throws InterruptedException {
+    final ExecutorService saturatedLane = Executors.newSingleThreadExecutor();
+    saturatedLane.shutdown();
+    final var circuitBreakers = new IssuerCircuitBreakers(true, 10, 1, 0.5, 0.8, 1000, 100, 2, FraudStatus.SUSPICIOUS, 10);
+    final var verificationService = new DefaultVerificationService(random, IssuerBulkheads.overflowOnly(saturatedLane),
+        verificationBudgets, IssuerHedging.disabled(), circuitBreakers, InFlightVerifications.disabled(),
+        IssuerResponseCache.disabled(), KnownBadCards.disabled());
+
+    final var actualFraudStatus = verificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
+
+    final var expectedFraudStatus = FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+        verificationBudgets.degradedStatus(), "CVV verification lane saturated for Bank of Test");
+    assertThat(actualFraudStatus).isEqualTo(expectedFraudStatus);
+    assertThat(circuitBreakers.states().get("Bank of Test/cvv"))
+        .containsEntry("state", IssuerCircuitBreakers.State.CLOSED)
+        .containsEntry("calls", 0);
+  }
+
+  @Test
+  public void aVerificationThatCouldNotBeStartedReleasesItsCircuitBreakerPermission() {
+    final var circuitBreakers = new IssuerCircuitBreakers(true, 10, 1, 0.5, 0.8, 1000, 0, 1, FraudStatus.SUSPICIOUS, 10);
+    circuitBreakers.record("Bank of Test", VerificationStep.CVV,
+        CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+    final ExecutorService lane = Executors.newSingleThreadExecutor();
+    final var verificationService = new DefaultVerificationService(random, IssuerBulkheads.overflowOnly(lane),
+        verificationBudgets, IssuerHedging.disabled(), circuitBreakers, InFlightVerifications.disabled(),
+        IssuerResponseCache.disabled(), KnownBadCards.disabled());
+    given(random.nextInt(anyInt())).willThrow(new IllegalStateException("Issuer request could not be made"));
+
+    try {
+      assertThatThrownBy(() -> verificationService.verifyTransactionAuthenticity(validCard, chargedAmount))
+          .isInstanceOf(IllegalStateException.class);
+
+      // The breaker is half-open with a single trial call, which is free again
+      assertThat(circuitBreakers.tryAcquirePermission("Bank of Test", VerificationStep.CVV)).isTrue();
+    } finally {
+      lane.shutdownNow();
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.tsys.fraud_checker.services;
 
 import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
 import com.tsys.fraud_checker.domain.Money;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -9,16 +10,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import jakarta.validation.ValidationException;
+import jakarta.validation.executable.ExecutableValidator;
 import java.util.Currency;
+import java.util.List;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(SpringExtension.class)
 // This is a Unit Test, so why can't we run this as a Standalone test using
@@ -60,6 +71,9 @@ public class DefaultVerificationServiceValidationTest {
             .build();
     @MockBean
     private Random random;
+    // The Validator that the service's @Validated proxy validates with
+    @SpyBean
+    private LocalValidatorFactoryBean validator;
     @Autowired
     private DefaultVerificationService defaultVerificationService;
 
@@ -249,4 +263,29 @@ public class DefaultVerificationServiceValidationTest {
 
         assertThat(validationException.getMessage()).isEqualTo("verifyTransactionAuthenticity.charge.currency: is required!");
     }
+
+    @Test
+    public void doesNotValidateAnAlreadyValidatedTransactionAgain() throws InterruptedException {
+        CreditCard cardWith2DigitCVV = CreditCardBuilder.make()
+                .withHolder("Card With 2 Digit CVV")
+                .withIssuingBank("Bank")
+                .withValidNumber()
+                .withFutureExpiryDate()
+                .havingCVVDigits(2)
+                .build();
+        given(random.nextInt(anyInt()))
+                .willReturn(-2000) // for sleepMillis
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS);
+        final ExecutableValidator executableValidator = spy(validator.forExecutables());
+        doReturn(executableValidator).when(validator).forExecutables();
+
+        final var fraudStatus = defaultVerificationService.verifyValidated(
+                ValidatedTransaction.alreadyValidated(cardWith2DigitCVV, chargedAmount), Deadline.none());
+
+        assertThat(fraudStatus).isEqualTo(FraudStatus.of(CVV_STATUS_PASS, ADDRESS_VERIFICATION_STATUS_PASS, false));
+        verify(executableValidator, never()).validateParameters(any(),
+                argThat(method -> List.of(method.getParameterTypes()).contains(CreditCard.class)),
+                any(Object[].class), any(Class[].class));
+    }
 }
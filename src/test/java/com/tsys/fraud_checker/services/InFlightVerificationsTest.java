@@ -0,0 +1,115 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class InFlightVerificationsTest {
+
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    private final InFlightVerifications inFlightVerifications = new InFlightVerifications(true);
+    private final List<CompletableFuture<FraudStatus>> verifications = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void concurrentDuplicatesShareOneVerification() {
+        final var first = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+        final var duplicate = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+
+        final var fraudStatus = FraudStatus.of(0, 0, false);
+        verifications.get(0).complete(fraudStatus);
+
+        assertThat(verifications).hasSize(1);
+        assertThat(first).isCompletedWithValue(fraudStatus);
+        assertThat(duplicate).isCompletedWithValue(fraudStatus);
+        assertThat(inFlightVerifications.coalescingCounts())
+                .containsEntry("calls", 2L)
+                .containsEntry("coalesced", 1L)
+                .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    public void aCompletedVerificationIsNotShared() {
+        inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+        verifications.get(0).complete(FraudStatus.of(0, 0, false));
+
+        inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+
+        assertThat(verifications).hasSize(2);
+    }
+
+    @Test
+    public void aDifferentChargeIsVerifiedOnItsOwn() {
+        inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+        inFlightVerifications.coalesce(validCard, new Money(Currency.getInstance("INR"), 99.0d), Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+
+        assertThat(verifications).hasSize(2);
+    }
+
+    @Test
+    public void theVerificationIsCancelledOnlyWhenAllCallersGiveUp() {
+        final var first = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+        final var duplicate = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+
+        first.cancel(true);
+        assertThat(verifications.get(0)).isNotDone();
+
+        duplicate.cancel(true);
+        assertThat(verifications.get(0)).isCancelled();
+        assertThat(inFlightVerifications.coalescingCounts()).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    public void aFlightDegradedByItsEarlierDeadlineIsNotSharedWithALaterCaller() {
+        final var first = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.after(100), this::pendingVerification, UnaryOperator.identity());
+        final var withoutDeadline = inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+
+        final var degraded = FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "CVV verification exceeded its latency budget");
+        verifications.get(0).complete(degraded);
+        assertThat(first).isCompletedWithValue(degraded);
+        assertThat(withoutDeadline).isNotDone();
+
+        final var fraudStatus = FraudStatus.of(0, 0, false);
+        verifications.get(1).complete(fraudStatus);
+        assertThat(withoutDeadline).isCompletedWithValue(fraudStatus);
+        assertThat(inFlightVerifications.coalescingCounts()).containsEntry("coalesced", 0L);
+    }
+
+    @Test
+    public void aCallerWithAnEarlierDeadlineJoinsTheFlight() {
+        inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.none(), this::pendingVerification, UnaryOperator.identity());
+        inFlightVerifications.coalesce(validCard, chargedAmount, Deadline.after(100), this::pendingVerification, UnaryOperator.identity());
+
+        assertThat(verifications).hasSize(1);
+        assertThat(inFlightVerifications.coalescingCounts()).containsEntry("coalesced", 1L);
+    }
+
+    private CompletableFuture<FraudStatus> pendingVerification() {
+        final var verification = new CompletableFuture<FraudStatus>();
+        verifications.add(verification);
+        return verification;
+    }
+}
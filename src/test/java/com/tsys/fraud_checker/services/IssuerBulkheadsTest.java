@@ -0,0 +1,87 @@
+package com.tsys.fraud_checker.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class IssuerBulkheadsTest {
+
+    private static final String SLOW_BANK = "Slow Bank";
+
+    private final ExecutorService slowBankExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    private final ExecutorService overflowExecutor = Executors.newFixedThreadPool(2);
+    private final IssuerBulkheads issuerBulkheads = new IssuerBulkheads(
+            Map.of(SLOW_BANK, new IssuerBulkheads.Lane(SLOW_BANK, slowBankExecutor, 1)),
+            new IssuerBulkheads.Lane(IssuerBulkheads.OVERFLOW_LANE, overflowExecutor, 2));
+    private final CountDownLatch slowBankResponds = new CountDownLatch(1);
+
+    @AfterEach
+    public void shutdownExecutors() {
+        slowBankResponds.countDown();
+        slowBankExecutor.shutdownNow();
+        overflowExecutor.shutdownNow();
+    }
+
+    @Test
+    public void aSlowBankIsRejectedFromItsOwnLaneOnly() throws Exception {
+        final var slowBankRunning = new CountDownLatch(1);
+        final var slowBankLane = issuerBulkheads.laneFor(SLOW_BANK);
+        slowBankLane.submit(() -> {
+            slowBankRunning.countDown();
+            awaitSlowBank();
+        });
+        slowBankLane.submit(this::awaitSlowBank);
+        assertThat(slowBankRunning.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> slowBankLane.submit(this::awaitSlowBank))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessage("Issuer verification lane Slow Bank is full");
+
+        final var otherBankVerified = new CountDownLatch(1);
+        issuerBulkheads.laneFor("Bank of Test").submit(otherBankVerified::countDown);
+        assertThat(otherBankVerified.await(1, TimeUnit.SECONDS)).isTrue();
+
+        final Map<String, Object> slowBankCounts = issuerBulkheads.laneCounts().get(SLOW_BANK);
+        assertThat(slowBankCounts)
+                .containsEntry("running", 1)
+                .containsEntry("queued", 1)
+                .containsEntry("saturation", 1.0)
+                .containsEntry("rejected", 1L);
+        assertThat(issuerBulkheads.laneCounts().get(IssuerBulkheads.OVERFLOW_LANE))
+                .containsEntry("submitted", 1L)
+                .containsEntry("rejected", 0L);
+    }
+
+    @Test
+    public void banksWithoutALaneShareTheOverflowLane() {
+        assertThat(issuerBulkheads.laneFor("Bank of Test"))
+                .isSameAs(issuerBulkheads.laneFor("Bank of Nowhere"))
+                .isNotSameAs(issuerBulkheads.laneFor(SLOW_BANK));
+    }
+
+    private void awaitSlowBank() {
+        try {
+            slowBankResponds.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class IssuerCircuitBreakersTest {
+
+    private static final String BANK = "Bank of Test";
+
+    private final IssuerCircuitBreakers issuerCircuitBreakers =
+            new IssuerCircuitBreakers(true, 10, 4, 0.5, 0.8, 1000, 100, 2, FraudStatus.SUSPICIOUS, 10);
+
+    @Test
+    public void staysClosedUntilTheMinimumCallsAreObserved() {
+        recordFailures(3);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+    }
+
+    @Test
+    public void opensOnTheFailureRateForThatBankAndStepOnly() {
+        recordSuccesses(2);
+        recordFailures(2);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isFalse();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.ADDRESS)).isTrue();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission("Bank of Nowhere", VerificationStep.CVV)).isTrue();
+        assertThat(issuerCircuitBreakers.states().get(BANK + "/cvv"))
+                .containsEntry("state", IssuerCircuitBreakers.State.OPEN);
+    }
+
+    @Test
+    public void opensOnTheSlowCallRate() {
+        for (int call = 0; call < 4; call++)
+            issuerCircuitBreakers.record(BANK, VerificationStep.CVV, CompletableFuture.failedFuture(new TimeoutException()));
+
+        assertThat(issuerCircuitBreakers.states().get(BANK + "/cvv"))
+                .containsEntry("state", IssuerCircuitBreakers.State.OPEN);
+    }
+
+    @Test
+    public void cancelledVerificationsAreNotCounted() {
+        for (int call = 0; call < 10; call++)
+            issuerCircuitBreakers.record(BANK, VerificationStep.ADDRESS, CompletableFuture.failedFuture(new CancellationException()));
+
+        assertThat(issuerCircuitBreakers.states().get(BANK + "/address"))
+                .containsEntry("state", IssuerCircuitBreakers.State.CLOSED)
+                .containsEntry("calls", 0);
+    }
+
+    @Test
+    public void verificationsRejectedByAFullLaneAreNotCounted() {
+        for (int call = 0; call < 10; call++)
+            issuerCircuitBreakers.record(BANK, VerificationStep.CVV,
+                    CompletableFuture.failedFuture(new RejectedExecutionException("Issuer verification lane full")));
+
+        assertThat(issuerCircuitBreakers.states().get(BANK + "/cvv"))
+                .containsEntry("state", IssuerCircuitBreakers.State.CLOSED)
+                .containsEntry("calls", 0);
+    }
+
+    @Test
+    public void closesAfterTheCoolDownWhenTheTrialCallsSucceed() throws InterruptedException {
+        recordFailures(4);
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isFalse();
+        recordSuccesses(2);
+
+        assertThat(issuerCircuitBreakers.states().get(BANK + "/cvv"))
+                .containsEntry("state", IssuerCircuitBreakers.State.CLOSED);
+    }
+
+    @Test
+    public void opensAgainWhenATrialCallFails() throws InterruptedException {
+        recordFailures(4);
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        recordFailures(1);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isFalse();
+    }
+
+    @Test
+    public void aReleasedTrialCallLetsAnotherOneThrough() throws InterruptedException {
+        recordFailures(4);
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        issuerCircuitBreakers.release(BANK, VerificationStep.CVV);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isFalse();
+    }
+
+    @Test
+    public void resetClosesTheBreakersOfTheBank() {
+        recordFailures(4);
+
+        issuerCircuitBreakers.reset(BANK);
+
+        assertThat(issuerCircuitBreakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+    }
+
+    @Test
+    public void banksBeyondMaxBanksShareTheOverflowBreakers() {
+        final var breakers = new IssuerCircuitBreakers(true, 10, 4, 0.5, 0.8, 1000, 100, 2, FraudStatus.SUSPICIOUS, 1);
+        breakers.record(BANK, VerificationStep.CVV, CompletableFuture.completedFuture(0));
+
+        for (int call = 0; call < 4; call++)
+            breakers.record("Made up Bank " + call, VerificationStep.CVV, CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+
+        assertThat(breakers.states()).containsOnlyKeys(BANK + "/cvv", TrackedBanks.OVERFLOW + "/cvv");
+        assertThat(breakers.tryAcquirePermission("Made up Bank 4", VerificationStep.CVV)).isFalse();
+        assertThat(breakers.tryAcquirePermission(BANK, VerificationStep.CVV)).isTrue();
+    }
+
+    private void recordSuccesses(int count) {
+        for (int call = 0; call < count; call++)
+            issuerCircuitBreakers.record(BANK, VerificationStep.CVV, CompletableFuture.completedFuture(0));
+    }
+
+    private void recordFailures(int count) {
+        for (int call = 0; call < count; call++)
+            issuerCircuitBreakers.record(BANK, VerificationStep.CVV, CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+    }
+}
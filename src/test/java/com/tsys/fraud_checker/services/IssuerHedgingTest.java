@@ -0,0 +1,169 @@
+package com.tsys.fraud_checker.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class IssuerHedgingTest {
+
+    private static final String BANK = "Bank of Test";
+
+    private final ScheduledExecutorService hedgingScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final IssuerLatencies issuerLatencies = new IssuerLatencies(100, 20, 10);
+    private final List<CompletableFuture<Integer>> attempts = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void shutdownScheduler() {
+        hedgingScheduler.shutdownNow();
+    }
+
+    @Test
+    public void doesNotHedgeUntilLatenciesOfTheBankAreObserved() throws Exception {
+        final var issuerHedging = new IssuerHedging(issuerLatencies, hedgingScheduler, true, 0.95, 1.0);
+
+        final CompletableFuture<Integer> answer = issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(attempts).hasSize(1);
+        assertThat(answer).isNotDone();
+    }
+
+    @Test
+    public void hedgesAnAttemptSlowerThanThePercentileAndTakesTheFirstAnswer() throws Exception {
+        givenObservedLatenciesOf(10);
+        final var issuerHedging = new IssuerHedging(issuerLatencies, hedgingScheduler, true, 0.95, 1.0);
+
+        final CompletableFuture<Integer> answer = issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+
+        waitForAttempts(2);
+        attempts.get(1).complete(0);
+        assertThat(answer.get(1, TimeUnit.SECONDS)).isEqualTo(0);
+        assertThat(attempts.get(0)).isCancelled();
+        assertThat(issuerHedging.hedgingCounts())
+                .containsEntry("attempts", 1L)
+                .containsEntry("hedges", 1L)
+                .containsEntry("hedgeWins", 1L);
+    }
+
+    @Test
+    public void doesNotHedgeBeyondTheExtraLoadBudget() throws Exception {
+        givenObservedLatenciesOf(10);
+        final var issuerHedging = new IssuerHedging(issuerLatencies, hedgingScheduler, true, 0.95, 0.5);
+
+        issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(attempts).hasSize(1);
+
+        issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+        waitForAttempts(3);
+        assertThat(issuerHedging.hedgingCounts())
+                .containsEntry("attempts", 2L)
+                .containsEntry("hedges", 1L);
+    }
+
+    @Test
+    public void cancellingTheAnswerCancelsAllTheAttempts() throws Exception {
+        givenObservedLatenciesOf(10);
+        final var issuerHedging = new IssuerHedging(issuerLatencies, hedgingScheduler, true, 0.95, 1.0);
+
+        final CompletableFuture<Integer> answer = issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+        waitForAttempts(2);
+        answer.cancel(true);
+
+        assertThat(attempts).allMatch(CompletableFuture::isCancelled);
+    }
+
+    @Test
+    public void recordsTheLatencyOfAnAttemptThatDidNotAnswer() throws Exception {
+        final var latencies = new IssuerLatencies(100, 1, 10);
+        final var issuerHedging = new IssuerHedging(latencies, hedgingScheduler, true, 0.95, 1.0);
+
+        issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+        attempts.get(0).completeExceptionally(new TimeoutException());
+        issuerHedging.hedged(BANK, VerificationStep.ADDRESS, this::pendingAttempt);
+        attempts.get(1).completeExceptionally(new IllegalStateException("Issuer verification failed!"));
+
+        assertThat(latencies.percentile(BANK, VerificationStep.CVV, 0.95)).isPresent();
+        assertThat(latencies.percentile(BANK, VerificationStep.ADDRESS, 0.95)).isPresent();
+    }
+
+    @Test
+    public void doesNotRecordTheLatencyOfAnAttemptNoLongerNeeded() throws Exception {
+        final var latencies = new IssuerLatencies(100, 1, 10);
+        final var issuerHedging = new IssuerHedging(latencies, hedgingScheduler, true, 0.95, 1.0);
+
+        issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt).cancel(true);
+        issuerHedging.hedged(BANK, VerificationStep.ADDRESS, this::pendingAttempt);
+        attempts.get(1).completeExceptionally(new RejectedExecutionException("Issuer verification lane full"));
+
+        assertThat(latencies.percentile(BANK, VerificationStep.CVV, 0.95)).isEmpty();
+        assertThat(latencies.percentile(BANK, VerificationStep.ADDRESS, 0.95)).isEmpty();
+    }
+
+    @Test
+    public void percentileDoesNotDropAsHedgesThatLostAreCancelled() throws Exception {
+        givenObservedLatenciesOf(50);
+        final var issuerHedging = new IssuerHedging(issuerLatencies, hedgingScheduler, true, 0.95, 1.0);
+
+        for (int check = 0; check < 20; check++) {
+            attempts.clear();
+            final CompletableFuture<Integer> answer = issuerHedging.hedged(BANK, VerificationStep.CVV, this::pendingAttempt);
+            waitForAttempts(2);
+            attempts.get(0).complete(0);
+            assertThat(answer.get(1, TimeUnit.SECONDS)).isEqualTo(0);
+            assertThat(attempts.get(1)).isCancelled();
+        }
+
+        // The primaries answered after the hedge point, and the hedges that
+        // lost to them are not recorded, so no latency below it is.
+        assertThat(issuerLatencies.percentile(BANK, VerificationStep.CVV, 0.95).getAsLong()).isGreaterThanOrEqualTo(50);
+        assertThat(issuerLatencies.percentile(BANK, VerificationStep.CVV, 0.01).getAsLong()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    public void banksBeyondMaxBanksShareTheOverflowLatencies() {
+        final var latencies = new IssuerLatencies(100, 1, 1);
+
+        latencies.record(BANK, VerificationStep.CVV, 10);
+        latencies.record("Made up Bank 1", VerificationStep.CVV, 500);
+        latencies.record("Made up Bank 2", VerificationStep.CVV, 1000);
+
+        assertThat(latencies.percentile(BANK, VerificationStep.CVV, 0.95)).hasValue(10);
+        assertThat(latencies.percentile("Made up Bank 1", VerificationStep.CVV, 0.95)).hasValue(1000);
+        assertThat(latencies.percentile("Made up Bank 3", VerificationStep.CVV, 0.95)).hasValue(1000);
+    }
+
+    private void givenObservedLatenciesOf(long millis) {
+        for (int sample = 0; sample < 20; sample++)
+            issuerLatencies.record(BANK, VerificationStep.CVV, millis);
+    }
+
+    private CompletableFuture<Integer> pendingAttempt() {
+        final var attempt = new CompletableFuture<Integer>();
+        attempts.add(attempt);
+        return attempt;
+    }
+
+    private void waitForAttempts(int count) throws InterruptedException {
+        final long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (attempts.size() < count && System.nanoTime() < giveUpAt)
+            TimeUnit.MILLISECONDS.sleep(5);
+        assertThat(attempts).hasSize(count);
+    }
+}
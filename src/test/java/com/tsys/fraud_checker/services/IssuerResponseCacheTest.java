@@ -0,0 +1,135 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class IssuerResponseCacheTest {
+
+    private static final int PASS = 0;
+
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    private final List<CompletableFuture<Integer>> issuerCalls = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void aRepeatVerificationIsAnsweredFromTheCache() {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 10, 60000, 0, 10, 60000, 0);
+
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        final var repeat = issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+
+        assertThat(repeat).isCompletedWithValue(PASS);
+        assertThat(issuerCalls).hasSize(1);
+        assertThat(issuerResponseCache.cacheCounts().get("address"))
+                .containsEntry("size", 1)
+                .containsEntry("hits", 1L)
+                .containsEntry("misses", 1L);
+    }
+
+    @Test
+    public void aFailedVerificationIsNotCached() {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 10, 60000, 0, 10, 60000, 0);
+
+        issuerResponseCache.verified(validCard, VerificationStep.CVV, this::issuerCall)
+                .completeExceptionally(new IllegalStateException("Issuer unavailable"));
+        issuerResponseCache.verified(validCard, VerificationStep.CVV, this::issuerCall);
+
+        assertThat(issuerCalls).hasSize(2);
+    }
+
+    @Test
+    public void aDifferentCVVIsNotAnsweredFromTheCache() {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 10, 60000, 0, 10, 60000, 0);
+        final var sameCardOtherCVV = CreditCardBuilder.make()
+                .withHolder(validCard.holderName)
+                .withIssuingBank(validCard.issuingBank)
+                .withNumber(validCard.number)
+                .withCVV(validCard.cvv == 999 ? 998 : validCard.cvv + 1)
+                .withFutureExpiryDate()
+                .build();
+
+        issuerResponseCache.verified(validCard, VerificationStep.CVV, this::issuerCall).complete(PASS);
+        issuerResponseCache.verified(sameCardOtherCVV, VerificationStep.CVV, this::issuerCall);
+
+        assertThat(issuerCalls).hasSize(2);
+    }
+
+    @Test
+    public void anExpiredEntryIsVerifiedAgain() throws InterruptedException {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 10, 50, 0, 10, 50, 0);
+
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        TimeUnit.MILLISECONDS.sleep(100);
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+
+        assertThat(issuerCalls).hasSize(2);
+        assertThat(issuerResponseCache.cacheCounts().get("address")).containsEntry("expirations", 1L);
+    }
+
+    @Test
+    public void theLeastRecentlyUsedEntryIsEvictedWhenFull() {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 1, 60000, 0, 1, 60000, 0);
+
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        issuerResponseCache.verified(CreditCardBuilder.make()
+                .withHolder("Jumping Jill")
+                .withIssuingBank("Bank of Test")
+                .withNumber("4111-1111-1111-1111")
+                .withValidCVV()
+                .withFutureExpiryDate()
+                .build(), VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+
+        assertThat(issuerCalls).hasSize(3);
+        assertThat(issuerResponseCache.cacheCounts().get("address")).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    public void anAgeingHitRefreshesItsEntryAhead() throws InterruptedException {
+        final var issuerResponseCache = new IssuerResponseCache(new CardTokens("key"), 10, 60000, 0, 10, 200, 0.25);
+
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        TimeUnit.MILLISECONDS.sleep(100);
+        final var hit = issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+
+        assertThat(hit).isCompletedWithValue(PASS);
+        assertThat(issuerCalls).hasSize(2);
+        assertThat(issuerResponseCache.cacheCounts().get("address")).containsEntry("refreshes", 1L);
+    }
+
+    @Test
+    public void aDisabledCacheAlwaysCallsTheIssuer() {
+        final var issuerResponseCache = IssuerResponseCache.disabled();
+
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall).complete(PASS);
+        issuerResponseCache.verified(validCard, VerificationStep.ADDRESS, this::issuerCall);
+
+        assertThat(issuerCalls).hasSize(2);
+    }
+
+    private CompletableFuture<Integer> issuerCall() {
+        final var issuerCall = new CompletableFuture<Integer>();
+        issuerCalls.add(issuerCall);
+        return issuerCall;
+    }
+}
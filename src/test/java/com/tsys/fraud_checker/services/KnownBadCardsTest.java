@@ -0,0 +1,131 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class KnownBadCardsTest {
+
+    private final CreditCard failedCard = CreditCardBuilder.make()
+            .withHolder("Card Tester")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withCVV(123)
+            .withFutureExpiryDate()
+            .build();
+
+    @Test
+    public void aCardThatFailedIsKnownBad() {
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1000, 0.01, 60000);
+
+        knownBadCards.remember(failedCard);
+
+        assertThat(knownBadCards.isKnownBad(failedCard)).isTrue();
+        assertThat(knownBadCards.knownBadCounts()).containsEntry("rejections", 1L);
+    }
+
+    @Test
+    public void theSameCardWithAnotherCVVIsNotKnownBad() {
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1000, 0.01, 60000);
+
+        knownBadCards.remember(failedCard);
+
+        assertThat(knownBadCards.isKnownBad(withCVV(124))).isFalse();
+    }
+
+    @Test
+    public void aFilterHitThatIsNotConfirmedDoesNotReject() {
+        // A filter of 64 bits with a single hash, so that about one in
+        // 64 of the cards that did not fail is a filter hit
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1, 0.5, 60000);
+
+        knownBadCards.remember(failedCard);
+
+        for (int cvv = 200; cvv < 1000; cvv++)
+            assertThat(knownBadCards.isKnownBad(withCVV(cvv))).isFalse();
+        assertThat((long) knownBadCards.knownBadCounts().get("falsePositives")).isPositive();
+    }
+
+    @Test
+    public void aFullWindowEndsEarlyAndTheLatestFailedCardsAreRemembered() {
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 2, 0.01, 60000);
+
+        knownBadCards.remember(failedCard);
+        knownBadCards.remember(withCVV(124));
+        knownBadCards.remember(withCVV(125));
+        knownBadCards.remember(withCVV(126));
+
+        assertThat(knownBadCards.isKnownBad(withCVV(124))).isTrue();
+        assertThat(knownBadCards.isKnownBad(withCVV(125))).isTrue();
+        assertThat(knownBadCards.isKnownBad(withCVV(126))).isTrue();
+    }
+
+    @Test
+    public void aCardThatFailedAgainIsRememberedOnce() {
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1, 0.01, 60000);
+
+        knownBadCards.remember(withCVV(124));
+        knownBadCards.remember(failedCard);
+        knownBadCards.remember(failedCard);
+
+        assertThat(knownBadCards.isKnownBad(withCVV(124))).isTrue();
+    }
+
+    @Test
+    public void aFailedCardIsForgottenAfterTwoWindows() throws InterruptedException {
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1000, 0.01, 50);
+
+        knownBadCards.remember(failedCard);
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertThat(knownBadCards.isKnownBad(failedCard)).isTrue();
+
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertThat(knownBadCards.isKnownBad(failedCard)).isFalse();
+    }
+
+    @Test
+    public void aFailedCardIsForgottenAfterAnIdleGapOfTwoWindows() {
+        final var clock = new AtomicLong();
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1000, 0.01, 50, clock::get);
+
+        knownBadCards.remember(failedCard);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(125));
+
+        assertThat(knownBadCards.isKnownBad(failedCard)).isFalse();
+    }
+
+    @Test
+    public void aFailedCardIsRememberedIntoTheNextWindow() {
+        final var clock = new AtomicLong();
+        final var knownBadCards = new KnownBadCards(new CardTokens("key"), true, 1000, 0.01, 50, clock::get);
+
+        knownBadCards.remember(failedCard);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(75));
+
+        assertThat(knownBadCards.isKnownBad(failedCard)).isTrue();
+    }
+
+    @Test
+    public void nothingIsKnownBadWhenDisabled() {
+        final var knownBadCards = KnownBadCards.disabled();
+
+        knownBadCards.remember(failedCard);
+
+        assertThat(knownBadCards.isKnownBad(failedCard)).isFalse();
+    }
+
+    private CreditCard withCVV(int cvv) {
+        return new CreditCard(failedCard.number, failedCard.holderName, failedCard.issuingBank, failedCard.validUntil, cvv);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CardNetwork;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class CardNumberValidatorTest {
+
+    private static Validator validator;
+
+    @BeforeAll
+    public static void setUpClass() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @Test
+    public void isValidIgnoringNonDigitCharacters() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-4093")), is(empty()));
+        assertThat(messagesFor(new TestObject("4485 2847 2013 4093")), is(empty()));
+        assertThat(messagesFor(new TestObject("4485284720134093")), is(empty()));
+    }
+
+    @Test
+    public void failsLuhnCheck() {
+        assertThat(messagesFor(new TestObject("1234 5678 9012 3456")),
+                containsInAnyOrder("Failed Luhn check!", "Invalid Credit Card Number"));
+    }
+
+    @Test
+    public void failsLuhnCheckWhenNotEndingWithTheCheckDigit() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-4093-")),
+                containsInAnyOrder("Failed Luhn check!", "Invalid Credit Card Number"));
+    }
+
+    @Test
+    public void failsLengthCheck() {
+        assertThat(messagesFor(new TestObject("4992 7398 716")),
+                containsInAnyOrder("length must be between 16 and 19"));
+    }
+
+    @Test
+    public void failsAllChecksWhenEmpty() {
+        assertThat(messagesFor(new TestObject("")),
+                containsInAnyOrder("length must be between 16 and 19", "Failed Luhn check!", "Invalid Credit Card Number"));
+    }
+
+    @Test
+    public void doesNotValidateANumberNotPresent() {
+        assertThat(messagesFor(new TestObject(null)), is(empty()));
+    }
+
+    @Test
+    public void failsNetworkCheck() {
+        assertThat(messagesFor(new VisaOnly("4485-2847-2013-4093")), is(empty()));
+        assertThat(messagesFor(new VisaOnly("5555 5555 5555 4444")),
+                containsInAnyOrder("card network is not accepted"));
+    }
+
+    private static Set<String> messagesFor(Object object) {
+        return validator.validate(object).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+    }
+
+    class TestObject {
+
+        @CardNumber(min = 16, max = 19, message = "Invalid Credit Card Number", luhnMessage = "Failed Luhn check!")
+        public final String number;
+
+        public TestObject(String number) {
+            this.number = number;
+        }
+    }
+
+    class VisaOnly {
+
+        @CardNumber(networks = CardNetwork.VISA)
+        public final String number;
+
+        public VisaOnly(String number) {
+            this.number = number;
+        }
+    }
+}
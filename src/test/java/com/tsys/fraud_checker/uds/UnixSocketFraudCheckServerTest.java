@@ -0,0 +1,194 @@
+package com.tsys.fraud_checker.uds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// The server is started on a socket in a temporary directory and driven
+// by the client, as a gateway in the same pod would.
+//
+// NOTE: No Web-Server is deployed
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class UnixSocketFraudCheckServerTest {
+
+    // As Spring Boot configures it
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private VerificationService verificationService;
+
+    @TempDir
+    private Path socketDirectory;
+
+    private UnixSocketFraudCheckServer server;
+    private UnixSocketFraudCheckClient client;
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void answersAValidPayloadWithItsFraudStatus() throws Exception {
+        givenAServerTimingOutAfter(10000);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(FraudStatus.of(0, 1, false)));
+
+        final var response = client.check(new FraudCheckPayload(validCard, charge)).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo("{\"cvvStatus\":\"pass\",\"avStatus\":\"incorrect address\",\"overall\":\"suspicious\"}");
+    }
+
+    @Test
+    public void answersAnInvalidPayloadWithItsValidationErrorsWithoutVerifyingIt() throws Exception {
+        givenAServerTimingOutAfter(10000);
+
+        final var response = client.check(new FraudCheckPayload(null, charge)).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.status()).isEqualTo(400);
+        assertThat(response.body()).isEqualTo("{\"validationErrors\":[{\"fieldName\":\"creditCard\",\"message\":\"Require Credit Card Details!\"}]}");
+        verify(verificationService, never()).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+    }
+
+    @Test
+    public void answersAMalformedPayloadAsABadRequest() throws Exception {
+        givenAServerTimingOutAfter(10000);
+
+        final var response = client.check("{ not json".getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.status()).isEqualTo(400);
+        assertThat(response.body()).isEqualTo("{\"error\":\"Malformed Fraud Check Payload!\"}");
+    }
+
+    @Test
+    public void answersEachCheckAsItCompletesRatherThanInOrder() throws Exception {
+        givenAServerTimingOutAfter(10000);
+        final var first = new CompletableFuture<FraudStatus>();
+        final var second = new CompletableFuture<FraudStatus>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(first, second);
+
+        final var firstResponse = client.check(new FraudCheckPayload(validCard, charge));
+        final var secondResponse = client.check(new FraudCheckPayload(validCard, charge));
+        second.complete(FraudStatus.of(1, 0, false));
+
+        assertThat(secondResponse.get(5, TimeUnit.SECONDS).body()).contains("\"overall\":\"fail\"");
+        assertThat(firstResponse).isNotDone();
+        first.complete(FraudStatus.of(0, 0, false));
+        assertThat(firstResponse.get(5, TimeUnit.SECONDS).body()).contains("\"overall\":\"pass\"");
+    }
+
+    @Test
+    public void answersACheckNotCompletedInTimeAsServiceUnavailable() throws Exception {
+        givenAServerTimingOutAfter(50);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(new CompletableFuture<>());
+
+        final var response = client.check(new FraudCheckPayload(validCard, charge)).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.status()).isEqualTo(503);
+        assertThat(response.body()).isEqualTo("{\"error\":\"Fraud Status could not be determined!\"}");
+    }
+
+    @Test
+    public void answersAFailedVerificationAsAnInternalServerError() throws Exception {
+        givenAServerTimingOutAfter(10000);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Issuer unavailable")));
+
+        final var response = client.check(new FraudCheckPayload(validCard, charge)).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.status()).isEqualTo(500);
+    }
+
+    @Test
+    public void answersAVerificationThatCouldNotBeStartedAsAnInternalServerErrorAndReadsOn() throws Exception {
+        givenAServer(1, 10000);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willThrow(new RejectedExecutionException("Issuer lane is full"))
+                .willReturn(CompletableFuture.completedFuture(FraudStatus.of(0, 0, false)));
+
+        final var notStarted = client.check(new FraudCheckPayload(validCard, charge)).get(5, TimeUnit.SECONDS);
+        // With a single check in flight, a permit not given back would
+        // block reading the second request forever.
+        final var verified = client.check(new FraudCheckPayload(validCard, charge)).get(5, TimeUnit.SECONDS);
+
+        assertThat(notStarted.status()).isEqualTo(500);
+        assertThat(notStarted.body()).isEqualTo("{\"error\":\"Fraud Status could not be determined!\"}");
+        assertThat(verified.status()).isEqualTo(200);
+    }
+
+    @Test
+    public void replacesTheSocketOfAnEarlierRunAndRemovesItOnClose() throws Exception {
+        final Path socket = socketDirectory.resolve("fraud-checker.sock");
+        try (var earlierRun = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            earlierRun.bind(UnixDomainSocketAddress.of(socket));
+        }
+        assertThat(Files.exists(socket)).isTrue();
+
+        givenAServerTimingOutAfter(10000);
+        server.close();
+
+        assertThat(Files.exists(socket)).isFalse();
+    }
+
+    private void givenAServerTimingOutAfter(long timeoutMillis) throws IOException {
+        givenAServer(16, timeoutMillis);
+    }
+
+    private void givenAServer(int maxInFlight, long timeoutMillis) throws IOException {
+        server = new UnixSocketFraudCheckServer(verificationService, objectMapper,
+                socketDirectory.resolve("fraud-checker.sock"), 8192, maxInFlight, timeoutMillis);
+        client = new UnixSocketFraudCheckClient(server.path(), objectMapper);
+    }
+}
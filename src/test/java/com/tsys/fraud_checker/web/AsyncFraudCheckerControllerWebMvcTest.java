@@ -0,0 +1,162 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// For Junit5, use @ExtendWith
+@ExtendWith(SpringExtension.class)
+// As the controller returns a CompletableFuture, the request is first
+// started in async mode and the response is available only after
+// an async dispatch of the completed result.
+//
+// NOTE: No Web-Server is deployed
+@WebMvcTest(controllers = AsyncFraudCheckerController.class,
+        properties = "fraud.check.async.timeout-millis=100")
+@Tag("UnitTest")
+public class AsyncFraudCheckerControllerWebMvcTest {
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    @MockBean
+    private DefaultVerificationService verificationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void chargingAValidCard() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenAFraudCheckRequestFor(validCard, charge));
+
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON),
+                MockMvcResultMatchers.content().json(convertObjectToJson(ignoreSuccess)));
+    }
+
+    @Test
+    public void respondsServiceUnavailableWhenFraudStatusIsNotDeterminedInTime() throws Exception {
+        final var neverCompletes = new CompletableFuture<FraudStatus>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(neverCompletes);
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenAFraudCheckRequestFor(validCard, charge));
+
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isServiceUnavailable());
+        assertThat(neverCompletes).isCompletedExceptionally();
+    }
+
+    @Test
+    public void shoutsWhenThereIsAProblemWithCheckingCardFraud() throws Exception {
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Issuer verification failed!")));
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenAFraudCheckRequestFor(validCard, charge));
+
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isInternalServerError());
+    }
+
+    @Test
+    public void shoutsWhenChargingWithoutAnyCreditCard() throws Exception {
+        final ResultActions resultActions = mockMvc.perform(givenAFraudCheckRequestFor(null, charge));
+        final var response = "{\n" +
+                "    \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"creditCard\",\n" +
+                "            \"message\": \"Require Credit Card Details!\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+        final var content = MockMvcResultMatchers.content();
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isBadRequest(),
+                content.contentType(MediaType.APPLICATION_JSON),
+                content.json(response));
+    }
+
+    @Test
+    public void shoutsWhenDeadlineIsNotPositive() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.DEADLINE_HEADER, "0");
+        final ResultActions resultActions = mockMvc.perform(request);
+        final var response = "{\n" +
+                "    \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"checkFraud.deadlineMillis\",\n" +
+                "            \"message\": \"Deadline must be at least 1 ms\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+        final var content = MockMvcResultMatchers.content();
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isBadRequest(),
+                content.contentType(MediaType.APPLICATION_JSON),
+                content.json(response));
+        verify(verificationService, never()).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+    }
+
+    private MockHttpServletRequestBuilder givenAFraudCheckRequestFor(CreditCard card, Money charge) throws JsonProcessingException {
+        var payload = new FraudCheckPayload(card, charge);
+        return MockMvcRequestBuilders.post("/async/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("UTF-8")
+                .content(convertObjectToJson(payload));
+    }
+
+    private String convertObjectToJson(Object payload) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private MvcResult whenTheRequestIsStarted(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+    }
+
+    private void thenExpect(ResultActions resultActions, ResultMatcher... matchers) throws Exception {
+        resultActions.andExpect(ResultMatcher.matchAll(matchers));
+    }
+}
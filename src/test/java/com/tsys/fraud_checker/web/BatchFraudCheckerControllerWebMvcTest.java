@@ -0,0 +1,206 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// For Junit5, use @ExtendWith
+@ExtendWith(SpringExtension.class)
+// The batchVerificationPool is configured in FraudConfiguration, which
+// is not loaded by @WebMvcTest, hence it is imported from a
+// TestConfiguration.
+//
+// NOTE: No Web-Server is deployed
+@WebMvcTest(controllers = BatchFraudCheckerController.class,
+        properties = "fraud.check.batch.max-size=3")
+@Import(BatchFraudCheckerControllerWebMvcTest.BatchVerificationPoolConfiguration.class)
+@Tag("UnitTest")
+public class BatchFraudCheckerControllerWebMvcTest {
+
+    @TestConfiguration
+    static class BatchVerificationPoolConfiguration {
+        @Bean(name = "batchVerificationPool", destroyMethod = "shutdownNow")
+        public ForkJoinPool batchVerificationPool() {
+            return new ForkJoinPool(2);
+        }
+    }
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    private final CreditCard anotherValidCard = CreditCardBuilder.make()
+            .withHolder("Jill")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @MockBean
+    private DefaultVerificationService verificationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void respondsWithAResultForEachPayloadInTheSameOrder() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        final FraudStatus cvvFailure = FraudStatus.of(1, 1, false);
+        given(verificationService.verifyValidatedAsync(transactionOf(validCard), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+        given(verificationService.verifyValidatedAsync(transactionOf(anotherValidCard), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(cvvFailure));
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenABatchFraudCheckRequestFor(
+                new FraudCheckPayload(validCard, charge),
+                new FraudCheckPayload(null, charge),
+                new FraudCheckPayload(anotherValidCard, charge)));
+
+        final var response = String.format("[\n" +
+                "    { \"fraudStatus\": %s },\n" +
+                "    { \"validationErrors\": { \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"creditCard\",\n" +
+                "            \"message\": \"Require Credit Card Details!\"\n" +
+                "        }\n" +
+                "    ] } },\n" +
+                "    { \"fraudStatus\": %s }\n" +
+                "]", convertObjectToJson(ignoreSuccess), convertObjectToJson(cvvFailure));
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON),
+                MockMvcResultMatchers.content().json(response, true));
+    }
+
+    @Test
+    public void answersAVerificationThatFailedAsUndeterminedAndTheRestAsVerified() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(transactionOf(validCard), any(Deadline.class)))
+                .willReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Issuer lane is full")));
+        given(verificationService.verifyValidatedAsync(transactionOf(anotherValidCard), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenABatchFraudCheckRequestFor(
+                new FraudCheckPayload(validCard, charge),
+                new FraudCheckPayload(anotherValidCard, charge)));
+
+        final var undetermined = FraudStatus.degraded(FraudStatus.UNVERIFIED, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Fraud Status could not be determined");
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().json(String.format(
+                        "[ { \"fraudStatus\": %s }, { \"fraudStatus\": %s } ]",
+                        convertObjectToJson(undetermined), convertObjectToJson(ignoreSuccess)), true));
+    }
+
+    @Test
+    public void verifiesACardRepeatedInTheBatchOnlyOnce() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(givenABatchFraudCheckRequestFor(
+                new FraudCheckPayload(validCard, charge),
+                new FraudCheckPayload(validCard, new Money(Currency.getInstance("INR"), 10.0d)),
+                new FraudCheckPayload(validCard, charge)));
+
+        final var fraudStatus = convertObjectToJson(ignoreSuccess);
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().json(String.format(
+                        "[ { \"fraudStatus\": %s }, { \"fraudStatus\": %s }, { \"fraudStatus\": %s } ]",
+                        fraudStatus, fraudStatus, fraudStatus)));
+        verify(verificationService, times(1))
+                .verifyValidatedAsync(transactionOf(validCard), any(Deadline.class));
+    }
+
+    @Test
+    public void shoutsWhenTheBatchIsTooLarge() throws Exception {
+        final var payload = new FraudCheckPayload(validCard, charge);
+
+        final MvcResult asyncResult = whenTheRequestIsStarted(
+                givenABatchFraudCheckRequestFor(payload, payload, payload, payload));
+
+        thenExpect(mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)),
+                MockMvcResultMatchers.status().isBadRequest(),
+                MockMvcResultMatchers.content().json("{\n" +
+                        "    \"validationErrors\": [\n" +
+                        "        {\n" +
+                        "            \"fieldName\": \"payloads\",\n" +
+                        "            \"message\": \"A maximum of 3 checks can be batched\"\n" +
+                        "        }\n" +
+                        "    ]\n" +
+                        "}"));
+        verify(verificationService, times(0))
+                .verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+    }
+
+    private static ValidatedTransaction transactionOf(CreditCard card) {
+        return argThat(transaction -> transaction != null && card.equals(transaction.card));
+    }
+
+    private MockHttpServletRequestBuilder givenABatchFraudCheckRequestFor(FraudCheckPayload... payloads) throws JsonProcessingException {
+        final List<FraudCheckPayload> batch = Arrays.asList(payloads);
+        return MockMvcRequestBuilders.post("/check/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("UTF-8")
+                .content(convertObjectToJson(batch));
+    }
+
+    private String convertObjectToJson(Object payload) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private MvcResult whenTheRequestIsStarted(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+    }
+
+    private void thenExpect(ResultActions resultActions, ResultMatcher... matchers) throws Exception {
+        resultActions.andExpect(ResultMatcher.matchAll(matchers));
+    }
+}
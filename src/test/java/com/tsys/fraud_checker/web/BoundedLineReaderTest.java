@@ -0,0 +1,38 @@
+package com.tsys.fraud_checker.web;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class BoundedLineReaderTest {
+
+    @Test
+    public void readsLinesWithoutTheirLineTerminators() throws IOException {
+        final var lines = new BoundedLineReader(new StringReader("first\r\n\nlast"), 5);
+
+        assertThat(lines.readLine()).isEqualTo("first");
+        assertThat(lines.readLine()).isEmpty();
+        assertThat(lines.readLine()).isEqualTo("last");
+        assertThat(lines.readLine()).isNull();
+    }
+
+    @Test
+    public void dropsALineLongerThanTheMaxAndReadsTheNextOne() throws IOException {
+        final var lines = new BoundedLineReader(new StringReader("x".repeat(100_000) + "\nnext\n" + "y".repeat(6)), 5);
+
+        assertThatThrownBy(lines::readLine).isInstanceOf(BoundedLineReader.LineTooLongException.class);
+        assertThat(lines.readLine()).isEqualTo("next");
+        assertThatThrownBy(lines::readLine).isInstanceOf(BoundedLineReader.LineTooLongException.class);
+        assertThat(lines.readLine()).isNull();
+    }
+}
@@ -0,0 +1,184 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudCheckJsonCodecTest {
+
+    // As Spring Boot configures it
+    private final ObjectMapper springObjectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper plainObjectMapper = new ObjectMapper();
+
+    private static final List<String> PAYLOADS = List.of(
+            "{ \"creditCard\" : { \"number\" : \"4485-2847-2013-4093\", \"holderName\" : \"Jumping Jack\", \"issuingBank\" : \"Bank of America\", \"validUntil\" : \"2020-10-04T01:00:26.874+00:00\", \"cvv\" : 123 }, \"charge\" : { \"currency\" : \"INR\", \"amount\" : 1235.45 } }",
+            "{ \"charge\" : { \"amount\" : 1235.45, \"currency\" : \"USD\" }, \"creditCard\" : { \"cvv\" : 123, \"validUntil\" : \"2020-10-04T01:00:26.874Z\", \"number\" : \"4485284720134093\" } }",
+            "{ \"creditCard\" : { \"validUntil\" : \"2020-10-04T06:30:26+05:30\" }, \"charge\" : { \"currency\" : \"JPY\", \"amount\" : 1235 } }",
+            "{ \"creditCard\" : { \"validUntil\" : 1601773226874 } }",
+            "{ \"creditCard\" : { \"validUntil\" : \"2020-10-04\" } }",
+            "{ \"creditCard\" : { \"validUntil\" : \"2020-10-04T01:00:26.8Z\" } }",
+            "{ \"creditCard\" : { \"validUntil\" : \"1601773226874\" } }",
+            "{ \"creditCard\" : { \"number\" : null, \"holderName\" : null, \"issuingBank\" : null, \"validUntil\" : null, \"cvv\" : null }, \"charge\" : { \"currency\" : null, \"amount\" : null } }",
+            "{ \"creditCard\" : null, \"charge\" : null }",
+            "{ \"creditCard\" : { \"cvv\" : \"123\", \"number\" : 4485284720134093 }, \"charge\" : { \"amount\" : \"12.5\" } }",
+            "{ \"creditCard\" : { \"cvv\" : 123.0 }, \"charge\" : { \"amount\" : 1.5E3 } }",
+            "{ \"charge\" : { \"currency\" : \"INR\", \"amount\" : 100.253 } }",
+            "{}",
+            "null"
+    );
+
+    private static final List<String> PAYLOADS_WITH_UNKNOWN_PROPERTIES = List.of(
+            "{ \"creditCard\" : { \"network\" : \"visa\", \"number\" : \"4485284720134093\" }, \"tags\" : [ 1, { \"a\" : [] } ] }",
+            "{ \"charge\" : { \"currency\" : \"INR\", \"amount\" : 12, \"symbol\" : { \"text\" : \"₹\" } } }"
+    );
+
+    private static final List<String> MALFORMED_PAYLOADS = List.of(
+            "{ \"creditCard\" : { \"cvv\" : 12345678901 } }",
+            "{ \"creditCard\" : { \"cvv\" : \"abc\" } }",
+            "{ \"creditCard\" : { \"validUntil\" : \"tomorrow\" } }",
+            "{ \"creditCard\" : { \"holderName\" : { \"first\" : \"Jumping\" } } }",
+            "{ \"creditCard\" : \"4485284720134093\" }",
+            "{ \"charge\" : { \"currency\" : \"XYZ\" } }",
+            "{ \"charge\" : { \"currency\" : \"INR\", \"amount\" : 1E30 } }",
+            "{ \"charge\" : { \"amount\" : [ 12 ] } }",
+            "[]",
+            "{ \"creditCard\" : ",
+            ""
+    );
+
+    @Test
+    public void readsThePayloadsAsJacksonDoes() throws JsonProcessingException {
+        for (ObjectMapper objectMapper : List.of(springObjectMapper, plainObjectMapper)) {
+            final var codec = new FraudCheckJsonCodec(objectMapper);
+            for (String json : PAYLOADS)
+                assertThat(String.valueOf(codec.readPayload(json)))
+                        .as(json)
+                        .isEqualTo(String.valueOf(objectMapper.readValue(json, FraudCheckPayload.class)));
+        }
+    }
+
+    @Test
+    public void skipsUnknownPropertiesOnlyWhenJacksonIsConfiguredTo() throws JsonProcessingException {
+        final var springCodec = new FraudCheckJsonCodec(springObjectMapper);
+        final var plainCodec = new FraudCheckJsonCodec(plainObjectMapper);
+        for (String json : PAYLOADS_WITH_UNKNOWN_PROPERTIES) {
+            assertThat(String.valueOf(springCodec.readPayload(json)))
+                    .as(json)
+                    .isEqualTo(String.valueOf(springObjectMapper.readValue(json, FraudCheckPayload.class)));
+            assertThatThrownBy(() -> plainObjectMapper.readValue(json, FraudCheckPayload.class)).as(json).isInstanceOf(JsonProcessingException.class);
+            assertThatThrownBy(() -> plainCodec.readPayload(json)).as(json).isInstanceOf(JsonProcessingException.class);
+        }
+    }
+
+    @Test
+    public void rejectsThePayloadsJacksonRejects() {
+        final var codec = new FraudCheckJsonCodec(springObjectMapper);
+        for (String json : MALFORMED_PAYLOADS) {
+            assertThatThrownBy(() -> springObjectMapper.readValue(json, FraudCheckPayload.class)).as(json).isInstanceOf(JsonProcessingException.class);
+            assertThatThrownBy(() -> codec.readPayload(json)).as(json).isInstanceOf(JsonProcessingException.class);
+        }
+    }
+
+    @Test
+    public void writesThePayloadsAsJacksonDoes() throws IOException {
+        final var validUntil = new Date(1601773226874L);
+        final var payloads = List.of(
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Jumping Jack \"JJ\"", "Bank of America", validUntil, 123),
+                        Money.of(Currency.getInstance("INR"), new BigDecimal("1235.45"))),
+                new FraudCheckPayload(new CreditCard("4485284720134093", "Jumping Jack", "Bank of America", new Date(-12219292800000L), 7),
+                        new Money(Currency.getInstance("JPY"), 1235d)),
+                new FraudCheckPayload(new CreditCard(null, null, null, null, null), new Money(null, null)),
+                new FraudCheckPayload(null, null));
+
+        for (ObjectMapper objectMapper : List.of(springObjectMapper, plainObjectMapper)) {
+            final var codec = new FraudCheckJsonCodec(objectMapper);
+            for (FraudCheckPayload payload : payloads) {
+                final var out = new ByteArrayOutputStream();
+
+                codec.writePayload(payload, out);
+
+                assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(payload));
+            }
+        }
+    }
+
+    @Test
+    public void readsAndWritesTheBinaryFormatsAsJacksonDoes() throws IOException {
+        final var payload = new FraudCheckPayload(
+                new CreditCard("4485-2847-2013-4093", "Jumping Jack", "Bank of America", new Date(1601773226874L), 123),
+                Money.of(Currency.getInstance("INR"), new BigDecimal("1235.45")));
+        final var degraded = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+
+        for (ObjectMapper objectMapper : List.of(new ObjectMapper(new CBORFactory()), new ObjectMapper(new SmileFactory()))) {
+            final var codec = new FraudCheckJsonCodec(objectMapper);
+            final var out = new ByteArrayOutputStream();
+
+            codec.writePayload(payload, out);
+
+            assertThat(out.toByteArray()).isEqualTo(objectMapper.writeValueAsBytes(payload));
+            assertThat(String.valueOf(codec.readPayload(new ByteArrayInputStream(out.toByteArray())))).isEqualTo(String.valueOf(payload));
+            for (FraudStatus fraudStatus : List.of(FraudStatus.of(0, 0, false), FraudStatus.of(1, 1, true), degraded)) {
+                final var status = new ByteArrayOutputStream();
+
+                codec.writeFraudStatus(fraudStatus, status);
+
+                assertThat(status.toByteArray()).isEqualTo(objectMapper.writeValueAsBytes(fraudStatus));
+                assertThat(codec.preEncodedLength(fraudStatus)).isEqualTo(fraudStatus == degraded ? -1 : status.size());
+            }
+        }
+    }
+
+    @Test
+    public void converterReadsAPayloadWithTheCodec() throws IOException {
+        final var converter = new FraudCheckPayloadMessageConverter(springObjectMapper);
+        final var json = PAYLOADS.get(0);
+        final var inputMessage = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        assertThat(converter.canRead(FraudCheckPayload.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(String.valueOf(converter.read(FraudCheckPayload.class, inputMessage)))
+                .isEqualTo(String.valueOf(springObjectMapper.readValue(json, FraudCheckPayload.class)));
+    }
+
+    @Test
+    public void converterRejectsAMalformedPayloadAsNotReadable() {
+        final var converter = new FraudCheckPayloadMessageConverter(springObjectMapper);
+        final var inputMessage = new MockHttpInputMessage("{ \"creditCard\" : ".getBytes(StandardCharsets.UTF_8));
+        inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        assertThatThrownBy(() -> converter.read(FraudCheckPayload.class, inputMessage))
+                .isInstanceOf(HttpMessageNotReadableException.class)
+                .hasMessageStartingWith("JSON parse error");
+    }
+}
@@ -0,0 +1,84 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.DirectFieldBindingResult;
+
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudCheckPayloadValidatorTest {
+
+    private static Validator hibernateValidator;
+
+    private final FraudCheckPayloadValidator validator = new FraudCheckPayloadValidator();
+
+    private static final Date FUTURE = new Date(System.currentTimeMillis() + 86_400_000L);
+    private static final Money CHARGE = new Money(Currency.getInstance("INR"), 1234.56);
+
+    @BeforeAll
+    public static void setUpClass() {
+        hibernateValidator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Test
+    public void supportsOnlyFraudCheckPayloads() {
+        assertThat(validator.supports(FraudCheckPayload.class)).isTrue();
+        assertThat(validator.supports(CreditCard.class)).isFalse();
+    }
+
+    @Test
+    public void findsNoErrorsInAValidPayload() {
+        final var payload = new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Holder", "Bank", FUTURE, 123), CHARGE);
+
+        assertThat(errorsOf(payload)).isEmpty();
+    }
+
+    @Test
+    public void findsTheSameErrorsAsHibernateValidator() {
+        final List<FraudCheckPayload> payloads = List.of(
+                new FraudCheckPayload(null, null),
+                new FraudCheckPayload(new CreditCard(null, null, null, null, null), new Money(null, null)),
+                new FraudCheckPayload(new CreditCard("", " ", "", FUTURE, 12), CHARGE),
+                new FraudCheckPayload(new CreditCard("1234 5678 9012 3456", "Holder", "Bank", FUTURE, 1234), CHARGE),
+                new FraudCheckPayload(new CreditCard("4992 7398 716", "Holder", "Bank", FUTURE, 123), CHARGE),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093-", "Holder", "Bank", FUTURE, 0), CHARGE),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Holder", "Bank", null, 123), new Money(Currency.getInstance("INR"), null)),
+                new FraudCheckPayload(new CreditCard("4485-2847-2013-4093", "Holder", "Bank", FUTURE, 123), new Money(Currency.getInstance("INR"), 1234.567)));
+
+        for (int i = 0; i < payloads.size(); i++)
+            assertThat(errorsOf(payloads.get(i)))
+                    .as("Errors of payload %d", i)
+                    .isNotEmpty()
+                    .isEqualTo(hibernateErrorsOf(payloads.get(i)));
+    }
+
+    private Set<String> errorsOf(FraudCheckPayload payload) {
+        final var errors = new DirectFieldBindingResult(payload, "fraudCheckPayload");
+        validator.validate(payload, errors);
+        return errors.getFieldErrors().stream()
+                .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> hibernateErrorsOf(FraudCheckPayload payload) {
+        return hibernateValidator.validate(payload).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,164 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tsys.fraud_checker.config.BinaryContentConfiguration;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+// The binary formats are configured by the BinaryContentConfiguration,
+// which @WebMvcTest does not pick up on its own.
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(FraudCheckerController.class)
+@Import(BinaryContentConfiguration.class)
+@Tag("UnitTest")
+public class FraudCheckerControllerBinaryContentWebMvcTest {
+
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    @MockBean
+    private DefaultVerificationService verificationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void givenTheCardPasses() throws InterruptedException {
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(FraudStatus.of(0, 1, false));
+    }
+
+    @Test
+    public void checksACborPayloadAndAnswersInCbor() throws Exception {
+        final MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        thenTheFraudStatusIsSuspicious(cbor.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void checksASmilePayloadAndAnswersInSmile() throws Exception {
+        final MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(BinaryContentConfiguration.APPLICATION_SMILE)
+                        .accept(BinaryContentConfiguration.APPLICATION_SMILE)
+                        .content(smile.writeValueAsBytes(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(BinaryContentConfiguration.APPLICATION_SMILE))
+                .andReturn();
+
+        thenTheFraudStatusIsSuspicious(smile.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void answersAJsonPayloadInCborWhenOnlyCborIsAccepted() throws Exception {
+        final MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(objectMapper.writeValueAsString(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        thenTheFraudStatusIsSuspicious(cbor.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void answersACborPayloadInJsonWhenAnythingIsAccepted() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.ACCEPT, MediaType.ALL_VALUE)
+                        .content(cbor.writeValueAsBytes(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().json("{ \"cvvStatus\" : \"pass\", \"avStatus\" : \"incorrect address\", \"overall\" : \"suspicious\" }"));
+    }
+
+    @Test
+    public void readsTheAcceptHeaderCaseInsensitively() throws Exception {
+        final MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT, "Application/CBOR")
+                        .content(objectMapper.writeValueAsString(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        thenTheFraudStatusIsSuspicious(cbor.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void answersInJsonWhenABinaryFormatIsNamedButNotAcceptable() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.ACCEPT, "application/cbor;q=0, application/x-jackson-smile;q=0, */*;q=0.5")
+                        .content(cbor.writeValueAsBytes(new FraudCheckPayload(validCard, charge))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().json("{ \"cvvStatus\" : \"pass\", \"avStatus\" : \"incorrect address\", \"overall\" : \"suspicious\" }"));
+    }
+
+    @Test
+    public void validatesACborPayloadAsAJsonOneAndAnswersItsErrorsInCbor() throws Exception {
+        final MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/check")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(new FraudCheckPayload(null, charge))))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        final JsonNode validationErrors = cbor.readTree(result.getResponse().getContentAsByteArray()).get("validationErrors");
+        assertThat(validationErrors).hasSize(1);
+        assertThat(validationErrors.get(0).get("fieldName").asText()).isEqualTo("creditCard");
+        assertThat(validationErrors.get(0).get("message").asText()).isEqualTo("Require Credit Card Details!");
+    }
+
+    private void thenTheFraudStatusIsSuspicious(JsonNode fraudStatus) {
+        assertThat(fraudStatus.get("cvvStatus").asText()).isEqualTo(FraudStatus.PASS);
+        assertThat(fraudStatus.get("avStatus").asText()).isEqualTo(FraudStatus.ADDRESS_VERIFICATION_IA);
+        assertThat(fraudStatus.get("overall").asText()).isEqualTo(FraudStatus.SUSPICIOUS);
+        assertThat(fraudStatus.has("reason")).isFalse();
+    }
+}
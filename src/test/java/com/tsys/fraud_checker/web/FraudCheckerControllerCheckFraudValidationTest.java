@@ -7,7 +7,9 @@ import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.CreditCardBuilder;
 import com.tsys.fraud_checker.domain.FraudStatus;
 import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
 import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
 import com.tsys.fraud_checker.web.advices.FraudControllerAdvice;
 import com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice;
 import org.junit.jupiter.api.BeforeEach;
@@ -80,8 +82,8 @@ public class FraudCheckerControllerCheckFraudValidationTest {
     @Test
     public void chargingAValidCard() throws Exception {
         final var request = givenAFraudCheckRequestFor(validCard, charge);
-        FraudStatus ignoreSuccess = new FraudStatus(0, 0, false);
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
                 .willReturn(ignoreSuccess);
 
         final ResultActions resultActions = whenTheRequestIsMade(request);
@@ -94,7 +96,7 @@ public class FraudCheckerControllerCheckFraudValidationTest {
 
     @Test
     public void shoutsWhenThereIsAProblemWithCheckingCardFraud() throws Exception {
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
                 .willThrow(new InterruptedException());
 
         final var request = givenAFraudCheckRequestFor("{\n" +
@@ -6,7 +6,9 @@ import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.CreditCardBuilder;
 import com.tsys.fraud_checker.domain.FraudStatus;
 import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
 import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +26,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.Currency;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
@@ -64,8 +67,8 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
     @Test
     public void chargingAValidCard() throws Exception {
         final var request = givenAFraudCheckRequestFor(validCard, charge);
-        FraudStatus ignoreSuccess = new FraudStatus(0, 0, false);
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
                 .willReturn(ignoreSuccess);
 
         final ResultActions resultActions = whenTheRequestIsMade(request);
@@ -76,9 +79,27 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
         );
     }
 
+    @Test
+    public void chargingAValidCardWithinADeadline() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.DEADLINE_HEADER, "200");
+        final FraudStatus degraded = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(degraded);
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON),
+                MockMvcResultMatchers.content().json("{ \"cvvStatus\" : \"pass\", \"avStatus\" : \"unverified\", \"overall\" : \"suspicious\", " +
+                        "\"reason\" : \"Address verification exceeded its latency budget\" }")
+        );
+    }
+
     @Test
     public void shoutsWhenThereIsAProblemWithCheckingCardFraud() throws Exception {
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyValidated(any(ValidatedTransaction.class), any(Deadline.class)))
                 .willThrow(new InterruptedException());
 
         final var request = givenAFraudCheckRequestFor("{\n" +
@@ -120,6 +141,15 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
                 content.json(response));
     }
 
+    @Test
+    public void answersAnInvalidPayloadWithoutThrowing() throws Exception {
+        final var request = givenAFraudCheckRequestFor(null, charge);
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isBadRequest());
+        assertThat(resultActions.andReturn().getResolvedException()).isNull();
+    }
+
     @Test
     public void shoutsWhenChargingCardWithoutAmount() throws Exception {
         final var request = givenAFraudCheckRequestFor(validCard, null);
@@ -500,6 +530,26 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
                 content.json(response));
     }
 
+    @Test
+    public void shoutsWhenAmountHasMoreDecimalPlacesThanTheCurrency() throws Exception {
+        final var chargeBelowTheMinorUnit = new Money(Currency.getInstance("INR"), 1234.567d);
+        final var request = givenAFraudCheckRequestFor(validCard, chargeBelowTheMinorUnit);
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        final var response = "{\n" +
+                "    \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"charge.amountInMinorUnits\",\n" +
+                "            \"message\": \"has more decimal places than its currency!\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+        final var content = MockMvcResultMatchers.content();
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isBadRequest(),
+                content.contentType(MediaType.APPLICATION_JSON),
+                content.json(response));
+    }
+
     @Test
     public void shoutsWhenCurrencyIsNotPresentInCharge() throws Exception {
         final var chargeWithoutCurrency = new Money(null, 1234.56d);
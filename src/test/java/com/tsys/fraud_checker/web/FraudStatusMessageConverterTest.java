@@ -0,0 +1,86 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudStatusMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FraudStatusMessageConverter converter = new FraudStatusMessageConverter(objectMapper);
+
+    @Test
+    public void writesTheSameJsonAsJacksonForAllCanonicalFraudStatuses() throws IOException {
+        for (int cvvStatusCode = 0; cvvStatusCode < 2; cvvStatusCode++)
+            for (int avStatusCode = 0; avStatusCode < 2; avStatusCode++)
+                for (boolean expired : new boolean[]{false, true}) {
+                    final var fraudStatus = FraudStatus.of(cvvStatusCode, avStatusCode, expired);
+                    final var outputMessage = new MockHttpOutputMessage();
+
+                    converter.write(fraudStatus, MediaType.APPLICATION_JSON, outputMessage);
+
+                    assertThat(outputMessage.getBodyAsBytes()).isEqualTo(objectMapper.writeValueAsBytes(fraudStatus));
+                    assertThat(outputMessage.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+                    assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(outputMessage.getBodyAsBytes().length);
+                }
+    }
+
+    @Test
+    public void writesADegradedFraudStatusWithJackson() throws IOException {
+        final var degraded = FraudStatus.degraded(FraudStatus.PASS, FraudStatus.UNVERIFIED,
+                FraudStatus.SUSPICIOUS, "Address verification exceeded its latency budget");
+        final var outputMessage = new MockHttpOutputMessage();
+
+        converter.write(degraded, MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsBytes()).isEqualTo(objectMapper.writeValueAsBytes(degraded));
+    }
+
+    @Test
+    public void writingACanonicalFraudStatusDoesNotAllocate() throws IOException {
+        final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        final var fraudStatus = FraudStatus.of(0, 1, false);
+        final var headers = new HttpHeaders();
+        final var body = OutputStream.nullOutputStream();
+        final HttpOutputMessage outputMessage = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        final long threadId = Thread.currentThread().threadId();
+        for (int warmUp = 0; warmUp < 10_000; warmUp++)
+            converter.writeInternal(fraudStatus, outputMessage);
+
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int write = 0; write < 100_000; write++)
+            converter.writeInternal(fraudStatus, outputMessage);
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Allow for the measurement itself, not for a single byte per write
+        assertThat(allocated).isLessThan(100_000);
+    }
+}
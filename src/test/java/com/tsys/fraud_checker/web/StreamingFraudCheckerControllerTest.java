@@ -0,0 +1,210 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.Deadline;
+import com.tsys.fraud_checker.services.DefaultVerificationService;
+import com.tsys.fraud_checker.services.ValidatedTransaction;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// The controller reads the request and writes the response itself, so
+// it is called directly with Mock Servlet request and response.
+//
+// NOTE: No Web-Server is deployed
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class StreamingFraudCheckerControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private DefaultVerificationService verificationService;
+
+    @Test
+    public void streamsAResultForEachLineTaggedWithItsLineNumber() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+        final var request = givenAStreamOf(
+                json(new FraudCheckPayload(validCard, charge)),
+                "",
+                json(new FraudCheckPayload(null, charge)),
+                "{ not json");
+        final var response = new MockHttpServletResponse();
+
+        controllerWithMaxInFlight(2).checkFraudInStream(request, response);
+
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON_VALUE);
+        final String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).containsExactly(
+                String.format("{\"correlationId\":1,\"fraudStatus\":%s}", json(ignoreSuccess)),
+                "{\"correlationId\":3,\"validationErrors\":{\"validationErrors\":[{\"fieldName\":\"creditCard\",\"message\":\"Require Credit Card Details!\"}]}}",
+                "{\"correlationId\":4,\"error\":\"Malformed Fraud Check Payload!\"}");
+    }
+
+    @Test
+    public void answersALineLongerThanTheMaxAsFailedAndReadsOn() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+        final var payload = json(new FraudCheckPayload(validCard, charge));
+        final var request = givenAStreamOf("x".repeat(100_000), payload);
+        final var response = new MockHttpServletResponse();
+
+        controllerWithMaxInFlight(2, 1024).checkFraudInStream(request, response);
+
+        assertThat(response.getContentAsString().split("\n")).containsExactly(
+                "{\"correlationId\":1,\"error\":\"Line longer than 1024 characters!\"}",
+                String.format("{\"correlationId\":2,\"fraudStatus\":%s}", json(ignoreSuccess)));
+    }
+
+    @Test
+    public void stopsReadingWhenMaxVerificationsAreInFlight() throws Exception {
+        final List<CompletableFuture<FraudStatus>> inFlight = new CopyOnWriteArrayList<>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willAnswer(invocation -> {
+                    final var verification = new CompletableFuture<FraudStatus>();
+                    inFlight.add(verification);
+                    return verification;
+                });
+        final var payload = json(new FraudCheckPayload(validCard, charge));
+        final var request = givenAStreamOf(payload, payload, payload);
+        final var response = new MockHttpServletResponse();
+
+        final var checking = CompletableFuture.runAsync(() -> {
+            try {
+                controllerWithMaxInFlight(2).checkFraudInStream(request, response);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        verify(verificationService, timeout(1000).times(2)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+        verify(verificationService, after(200).times(2)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+
+        inFlight.get(1).complete(FraudStatus.of(0, 0, false));
+        verify(verificationService, timeout(1000).times(3)).verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class));
+        assertThat(checking).isNotDone();
+
+        inFlight.forEach(verification -> verification.complete(FraudStatus.of(0, 0, false)));
+        checking.get(1, TimeUnit.SECONDS);
+        assertThat(response.getContentAsString().split("\n")).hasSize(3);
+        assertThat(response.getContentAsString().split("\n")[0]).startsWith("{\"correlationId\":2,");
+    }
+
+    @Test
+    public void answersAVerificationThatCouldNotBeStartedAsFailedAndReadsOn() throws Exception {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willThrow(new RejectedExecutionException("Issuer lane is full"))
+                .willReturn(CompletableFuture.completedFuture(ignoreSuccess));
+        final var payload = json(new FraudCheckPayload(validCard, charge));
+        final var request = givenAStreamOf(payload, payload);
+        final var response = new MockHttpServletResponse();
+
+        // With a single verification in flight, a permit not given back
+        // would block reading the second payload forever.
+        CompletableFuture.runAsync(() -> {
+            try {
+                controllerWithMaxInFlight(1).checkFraudInStream(request, response);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).get(1, TimeUnit.SECONDS);
+
+        assertThat(response.getContentAsString().split("\n")).containsExactly(
+                "{\"correlationId\":1,\"error\":\"Fraud Status could not be determined!\"}",
+                String.format("{\"correlationId\":2,\"fraudStatus\":%s}", json(ignoreSuccess)));
+    }
+
+    @Test
+    public void cancelsTheVerificationsInFlightWhenTheClientGoesAway() throws Exception {
+        final var verification = new CompletableFuture<FraudStatus>();
+        given(verificationService.verifyValidatedAsync(any(ValidatedTransaction.class), any(Deadline.class)))
+                .willReturn(verification);
+        final var firstLine = new ByteArrayInputStream((json(new FraudCheckPayload(validCard, charge)) + "\n").getBytes(StandardCharsets.UTF_8));
+        final var abortedByClient = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset by peer");
+            }
+        };
+        final var request = new MockHttpServletRequest("POST", "/check/stream") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return new DelegatingServletInputStream(new SequenceInputStream(firstLine, abortedByClient));
+            }
+        };
+        final var response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> controllerWithMaxInFlight(2).checkFraudInStream(request, response))
+                .isInstanceOf(IOException.class);
+
+        assertThat(verification).isCancelled();
+        assertThat(response.getContentAsString()).isEmpty();
+    }
+
+    private StreamingFraudCheckerController controllerWithMaxInFlight(int maxInFlight) {
+        return controllerWithMaxInFlight(maxInFlight, 16384);
+    }
+
+    private StreamingFraudCheckerController controllerWithMaxInFlight(int maxInFlight, int maxLineLength) {
+        return new StreamingFraudCheckerController(verificationService, objectMapper, maxInFlight, maxLineLength, 10000);
+    }
+
+    private MockHttpServletRequest givenAStreamOf(String... lines) {
+        final var request = new MockHttpServletRequest("POST", "/check/stream");
+        request.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        request.setContent(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private String json(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+}
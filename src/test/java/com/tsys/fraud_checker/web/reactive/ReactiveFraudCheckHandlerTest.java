@@ -0,0 +1,121 @@
+package com.tsys.fraud_checker.web.reactive;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Currency;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+// Binds WebTestClient directly to the router function, hence no
+// ApplicationContext is loaded.
+//
+// NOTE: No Web-Server is deployed
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class ReactiveFraudCheckHandlerTest {
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private ReactiveVerificationService reactiveVerificationService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void bindToRouterFunction() {
+        final var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        final var handler = new ReactiveFraudCheckHandler(reactiveVerificationService, validator);
+        client = WebTestClient.bindToRouterFunction(handler.routes()).build();
+    }
+
+    @Test
+    public void chargingAValidCard() {
+        final FraudStatus ignoreSuccess = FraudStatus.of(0, 0, false);
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(Mono.just(ignoreSuccess));
+
+        client.post().uri("/reactive/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new FraudCheckPayload(validCard, charge))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().json("{ \"cvvStatus\" : \"pass\", \"avStatus\" : \"pass\", \"overall\" : \"pass\" }");
+    }
+
+    @Test
+    public void shoutsWhenChargingWithoutAnyCreditCard() {
+        client.post().uri("/reactive/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new FraudCheckPayload(null, charge))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().json("{\n" +
+                        "    \"validationErrors\": [\n" +
+                        "        {\n" +
+                        "            \"fieldName\": \"creditCard\",\n" +
+                        "            \"message\": \"Require Credit Card Details!\"\n" +
+                        "        }\n" +
+                        "    ]\n" +
+                        "}");
+    }
+
+    @Test
+    public void shoutsWhenCardNumberIsAbsent() {
+        var cardWithoutNumber = CreditCardBuilder.make()
+                .withHolder("Card Holder")
+                .withIssuingBank("Bank")
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        client.post().uri("/reactive/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new FraudCheckPayload(cardWithoutNumber, charge))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().json("{\n" +
+                        "    \"validationErrors\": [\n" +
+                        "        {\n" +
+                        "            \"fieldName\": \"creditCard.number\",\n" +
+                        "            \"message\": \"Card number is required\"\n" +
+                        "        }\n" +
+                        "    ]\n" +
+                        "}");
+    }
+
+    @Test
+    public void shoutsWhenThereIsNoPayload() {
+        client.post().uri("/reactive/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
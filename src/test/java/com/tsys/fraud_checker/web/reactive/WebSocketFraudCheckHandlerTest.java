@@ -0,0 +1,190 @@
+package com.tsys.fraud_checker.web.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// The handler is served by a Reactor Netty server on an ephemeral port,
+// and driven by a WebSocket client session, as a gateway would.
+//
+// NOTE: No Web-Server is deployed
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class WebSocketFraudCheckHandlerTest {
+
+    // As Spring Boot configures it
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private ReactiveVerificationService reactiveVerificationService;
+
+    private DisposableServer server;
+    private Disposable gatewaySession;
+    private final Sinks.Many<String> toServer = Sinks.many().unicast().onBackpressureBuffer();
+    private final BlockingQueue<String> fromServer = new LinkedBlockingQueue<>();
+
+    @AfterEach
+    public void stopServer() {
+        gatewaySession.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    public void answersEachFrameWithItsIdAsItsCheckCompletesRatherThanInOrder() throws Exception {
+        givenASession(256, 10000);
+        final Sinks.One<FraudStatus> first = Sinks.one();
+        final Sinks.One<FraudStatus> second = Sinks.one();
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(first.asMono(), second.asMono());
+
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+        send("gateway-2", new FraudCheckPayload(validCard, charge));
+        verify(reactiveVerificationService, timeout(5000).times(2)).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class));
+
+        second.tryEmitValue(FraudStatus.of(0, 1, false));
+        assertThat(receive()).isEqualTo("{\"id\":\"gateway-2\",\"fraudStatus\":{\"cvvStatus\":\"pass\",\"avStatus\":\"incorrect address\",\"overall\":\"suspicious\"}}");
+        first.tryEmitValue(FraudStatus.of(0, 0, false));
+        assertThat(receive()).isEqualTo("{\"id\":\"gateway-1\",\"fraudStatus\":{\"cvvStatus\":\"pass\",\"avStatus\":\"pass\",\"overall\":\"pass\"}}");
+    }
+
+    @Test
+    public void answersAnInvalidPayloadWithItsValidationErrorsWithoutVerifyingIt() throws Exception {
+        givenASession(256, 10000);
+
+        send("gateway-1", new FraudCheckPayload(null, charge));
+
+        assertThat(receive()).isEqualTo("{\"id\":\"gateway-1\",\"validationErrors\":{\"validationErrors\":[{\"fieldName\":\"creditCard\",\"message\":\"Require Credit Card Details!\"}]}}");
+        verify(reactiveVerificationService, never()).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class));
+    }
+
+    @Test
+    public void answersAMalformedFrameWithoutClosingTheSession() throws Exception {
+        givenASession(256, 10000);
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(Mono.just(FraudStatus.of(0, 0, false)));
+
+        toServer.tryEmitNext("{ not json");
+        toServer.tryEmitNext("{\"payload\":{}}");
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+
+        assertThat(receive()).isEqualTo("{\"error\":\"Malformed Fraud Check Payload!\"}");
+        assertThat(receive()).isEqualTo("{\"error\":\"Malformed Fraud Check Payload!\"}");
+        assertThat(receive()).startsWith("{\"id\":\"gateway-1\",\"fraudStatus\":");
+    }
+
+    @Test
+    public void answersAnIdAlreadyInFlightAsADuplicate() throws Exception {
+        givenASession(256, 10000);
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(Mono.never());
+
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+
+        assertThat(receive()).isEqualTo("{\"id\":\"gateway-1\",\"error\":\"A check with this id is already in flight!\"}");
+        verify(reactiveVerificationService).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class));
+    }
+
+    @Test
+    public void answersACheckNotCompletedInTimeAsFailed() throws Exception {
+        givenASession(256, 100);
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(Mono.never());
+
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+
+        assertThat(receive()).isEqualTo("{\"id\":\"gateway-1\",\"error\":\"Fraud Status could not be determined!\"}");
+    }
+
+    @Test
+    public void readsNoMoreFramesWhileMaxInFlightChecksAreInFlight() throws Exception {
+        givenASession(2, 10000);
+        final Sinks.One<FraudStatus> first = Sinks.one();
+        given(reactiveVerificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willReturn(first.asMono(), Mono.never());
+
+        send("gateway-1", new FraudCheckPayload(validCard, charge));
+        send("gateway-2", new FraudCheckPayload(validCard, charge));
+        send("gateway-3", new FraudCheckPayload(validCard, charge));
+        verify(reactiveVerificationService, after(500).times(2)).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class));
+
+        first.tryEmitValue(FraudStatus.of(0, 0, false));
+        assertThat(receive()).startsWith("{\"id\":\"gateway-1\",");
+        verify(reactiveVerificationService, timeout(5000).times(3)).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class));
+    }
+
+    private void givenASession(int maxInFlight, long timeoutMillis) {
+        final var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        final var handler = new WebSocketFraudCheckHandler(reactiveVerificationService, validator, objectMapper, maxInFlight, timeoutMillis);
+        server = HttpServer.create()
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(handler.routes())))
+                .bindNow();
+        final var uri = URI.create(String.format("ws://localhost:%d/reactive/check/ws", server.port()));
+        gatewaySession = new ReactorNettyWebSocketClient()
+                .execute(uri, session -> session.send(toServer.asFlux().map(session::textMessage))
+                        .and(session.receive().map(WebSocketMessage::getPayloadAsText).doOnNext(fromServer::add)))
+                .subscribe();
+    }
+
+    private void send(String id, FraudCheckPayload payload) throws Exception {
+        toServer.tryEmitNext(objectMapper.writeValueAsString(Map.of("id", id, "payload", payload)));
+    }
+
+    private String receive() throws InterruptedException {
+        final String frame = fromServer.poll(5, TimeUnit.SECONDS);
+        assertThat(frame).as("Frame answered within 5 seconds").isNotNull();
+        return frame;
+    }
+}